@@ -1,8 +1,11 @@
 package com.testquack.api;
 
 import com.testquack.api.utils.ObjectMapperFactory;
+import com.testquack.api.utils.PrettyPrintInterceptor;
+import com.testquack.api.utils.RangeAwareEncodingFilter;
 import io.swagger.jaxrs.config.BeanConfig;
 import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.message.GZipEncoder;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
@@ -18,6 +21,9 @@ public class Application extends ResourceConfig {
         register(MultiPartFeature.class);
         register(JacksonFeature.class);
         register(ObjectMapperFactory.class);
+        register(PrettyPrintInterceptor.class);
+        register(RangeAwareEncodingFilter.class);
+        register(GZipEncoder.class);
         register(RolesAllowedDynamicFeature.class);
         registerFinder(packageScanner(".resources"));
         registerFinder(packageScanner(".security"));
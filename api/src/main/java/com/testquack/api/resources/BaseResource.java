@@ -1,5 +1,7 @@
 package com.testquack.api.resources;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.testquack.beans.Entity;
 import com.testquack.beans.Filter;
 import com.testquack.services.BaseService;
@@ -16,6 +18,8 @@ import javax.ws.rs.core.SecurityContext;
 @Consumes(MediaType.APPLICATION_JSON)
 public abstract class BaseResource<E extends Entity> {
 
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
     @Context
     protected HttpServletRequest request;
 
@@ -62,14 +62,12 @@ public class DefaultProjectAttributesResource extends BaseResource<DefaultProjec
   public Collection<DefaultProjectAttributes> getAllDefaultProjectAttributes(
          @PathParam("project") String project) {
 
-    System.out.println("DefaultProjectAttributesResource::getAllDefaultProjectAttributes");
-    System.out.flush();
+    logger.debug("DefaultProjectAttributesResource::getAllDefaultProjectAttributes");
 
     DefaultProjectAttributesService defaultProjAttribService = (DefaultProjectAttributesService)getService();
     List<DefaultProjectAttributes> dpaList = defaultProjAttribService.findFiltered(getUserSession(), "DefaultProjectAttributes", new Filter().withField("project", project));
 
-    System.out.println("DefaultResource::getall - dpaList: " + dpaList);
-    System.out.flush();
+    logger.trace("DefaultResource::getall - dpaList: {}", dpaList);
 
     
     return dpaList;
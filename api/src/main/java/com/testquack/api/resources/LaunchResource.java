@@ -6,6 +6,8 @@ import com.testquack.beans.Launch;
 import com.testquack.beans.LaunchStatistics;
 import com.testquack.beans.LaunchStatus;
 import com.testquack.beans.LaunchTestCase;
+import com.testquack.beans.LaunchTestCaseStatusUpdate;
+import com.testquack.beans.LaunchTestCaseStatusUpdateResult;
 import com.testquack.beans.LaunchTestcaseStats;
 import com.testquack.beans.TestSuite;
 import com.testquack.beans.TestcaseFilter;
@@ -64,8 +66,7 @@ public class LaunchResource extends BaseCrudResource<Launch> {
             @ApiParam(value = "New Status", required = true) @PathParam("status") LaunchStatus status,
             FailureDetails failureDetails) throws Exception {
 
-System.out.println("LaunchResource::updateLaunchTestCaseStatus - launch id: " + launchId);
-System.out.flush();
+        logger.debug("LaunchResource::updateLaunchTestCaseStatus - launch id: {}", launchId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -73,15 +74,13 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("LaunchResource::updateLaunchTestCaseStatus: checkProjectId returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("LaunchResource::updateLaunchTestCaseStatus: checkProjectId returned FALSE - did NOT find project id");
 
 
             LaunchTestCase lt = null;
             return lt;
         }
-System.out.println("LaunchResource::updateLaunchTestCaseStatus - successful checkProjectId");
-System.out.flush();
+        logger.debug("LaunchResource::updateLaunchTestCaseStatus - successful checkProjectId");
 
         if (APIValidation.checkLaunchIdNTestCaseUUID(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -91,25 +90,33 @@ System.out.flush();
             launchId,
             testcaseUUID) == false) {
 
-            System.out.println("LaunchResource::updateLaunchTestCaseStatus: checkLaunchIdNTestCaseUUID returned FALSE - did NOT find testcaseUUID");
-            System.out.flush();
+            logger.debug("LaunchResource::updateLaunchTestCaseStatus: checkLaunchIdNTestCaseUUID returned FALSE - did NOT find testcaseUUID");
 
 
             LaunchTestCase lt = null;
             return lt;
         }
-System.out.println("LaunchResource::updateLaunchTestCaseStatus - successful checkLaunchIdNTestCaseUUID");
-System.out.flush();
+        logger.debug("LaunchResource::updateLaunchTestCaseStatus - successful checkLaunchIdNTestCaseUUID");
 
         return service.updateLaunchTestCaseStatus(request, getUserSession(), projectId, launchId, testcaseUUID, status, failureDetails);
     }
 
+    @POST
+    @Path("/{launchId}/status")
+    @ApiOperation(value = "Report statuses of several launch test cases at once", notes = "")
+    public List<LaunchTestCaseStatusUpdateResult> updateLaunchTestCasesStatuses(
+            @ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId,
+            @ApiParam(value = "Launch Id", required = true) @PathParam("launchId") String launchId,
+            @ApiParam(value = "Status reports", required = true) List<LaunchTestCaseStatusUpdate> updates) throws Exception {
+        return service.updateLaunchTestCasesStatuses(request, getUserSession(), projectId, launchId,
+                updates == null ? Collections.emptyList() : updates);
+    }
+
     @GET
     @Path("/statistics")
     public Map<String, LaunchStatistics> getLaunchesStatistics(@ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId) throws Exception {
 
-System.out.println("LaunchResource::getLaunchesStatistics - project id: " + projectId);
-System.out.flush();
+        logger.debug("LaunchResource::getLaunchesStatistics - project id: {}", projectId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -117,32 +124,39 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("LaunchResource::getLaunchStatistics: checkProjectId returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("LaunchResource::getLaunchStatistics: checkProjectId returned FALSE - did NOT find project id");
 
             Map<String, LaunchStatistics> ls = null;
             return ls;
         }
 
         Map<String, LaunchStatistics> rs = service.getLaunchesStatistics(getUserSession(), projectId, initFilter(request));
-	System.out.println("LaunchResource - after call to service.getLaunchStatistics");
-	for (Map.Entry<String, LaunchStatistics> entry : rs.entrySet()) {
-	   System.out.println("Key: " + entry.getKey() + ", Value: " + entry.getValue());
+	logger.debug("LaunchResource - after call to service.getLaunchStatistics");
+	if (logger.isTraceEnabled()) {
+    	for (Map.Entry<String, LaunchStatistics> entry : rs.entrySet()) {
+    		logger.trace("Key: {}, Value: {}", entry.getKey(), entry.getValue());
+    	}
 	}
-System.out.flush();
 
         return rs;
         //return service.getLaunchesStatistics(getUserSession(), projectId, initFilter(request));
     }
 
+    @POST
+    @Path("/statistics/rebuild")
+    @ApiOperation(value = "Recompute launch statistics of the project from stored launches", notes = "")
+    public Response rebuildLaunchesStatistics(@ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId) {
+        service.rebuildStatistics(getUserSession(), projectId);
+        return Response.ok().build();
+    }
+
     @GET
     @Path("/heatmap")
     public Collection<LaunchTestcaseStats> getLaunchTestcasesHeatMap(@ApiParam(value = "Project Id", required = true)
                                                                      @PathParam("projectId") String projectId,
                                                                      @QueryParam("statsTopLimit") int statsTopLimit) throws Exception {
 
-System.out.println("LaunchResource::getLaunchTestcasesHeatMap - project id: " + projectId);
-System.out.flush();
+        logger.debug("LaunchResource::getLaunchTestcasesHeatMap - project id: {}", projectId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -150,8 +164,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("LaunchResource::getLaunchTestcasesHeatMap: checkProjectId returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("LaunchResource::getLaunchTestcasesHeatMap: checkProjectId returned FALSE - did NOT find project id");
 
             Collection<LaunchTestcaseStats> ls = null;
             return ls;
@@ -165,8 +178,7 @@ System.out.flush();
     @Override
     public Launch create(String projectId, Launch launch) {
 
-System.out.println("LaunchResource::create - project id, launch: " + projectId + ", " + launch);
-System.out.flush();
+        logger.trace("LaunchResource::create - project id, launch: {}, {}", projectId, launch);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -174,8 +186,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("LaunchResource::create: checkProject returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("LaunchResource::create: checkProject returned FALSE - did NOT find project id");
 
 
             Launch laun = null;
@@ -76,13 +76,11 @@ public class LauncherResource extends BaseResource<Project> {
     public Response delete(@PathParam("projectId") String projectId,
                            @PathParam("launchId") String launchId) {
 
-System.out.println("LauncherResource - delete: projectId, launchId: " + projectId + ", " + launchId);
-System.out.flush();
+       logger.debug("LauncherResource - delete: projectId, launchId: {}, {}", projectId, launchId);
 
        service.delete(getUserSession(), projectId, launchId);
 
-System.out.println("LauncherResource - delete: - after service.delete call");
-System.out.flush();
+        logger.debug("LauncherResource - delete: - after service.delete call");
 
         return Response.ok().build();
     }
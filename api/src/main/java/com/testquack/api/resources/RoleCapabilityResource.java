@@ -63,10 +63,9 @@ public class RoleCapabilityResource extends BaseResource<RoleCapability> {
          RoleCapability entity) {
 
      RoleCapabilityService service = (RoleCapabilityService) getService();
-System.out.println("RoleCapabilityResource:create - RC entity: " + (RoleCapability)entity);
-System.out.println("RoleCapabilityResource:create - service: " + service);
-System.out.println("RoleCapabilityResource.create - getUserSession: " + getUserSession());
-System.out.flush();
+    logger.trace("RoleCapabilityResource:create - RC entity: {}", (RoleCapability)entity);
+    logger.trace("RoleCapabilityResource:create - service: {}", service);
+    logger.trace("RoleCapabilityResource.create - getUserSession: {}", getUserSession());
 
     Session session = getUserSession();
     RoleCapability roleCap = (RoleCapability)entity;
@@ -75,8 +74,7 @@ System.out.flush();
 
     RoleCapability rolecap = roleCapService.save(session, "RoleCapability", roleCap);
 
-     System.out.println("RoleCapabilityResource::addRoleCap - after service.save");
-     System.out.flush();
+    logger.debug("RoleCapabilityResource::addRoleCap - after service.save");
 
     JSONObject jsonObj = new JSONObject();
     jsonObj.put("id", rolecap.getId());
@@ -95,14 +93,12 @@ System.out.flush();
   })
   public Response delete(@ApiParam(value = "Id", required = true) @PathParam("id") String id) {
 
-     System.out.println("RoleCapabilityResource::delRoleCap - id: " + id);
-     System.out.flush();
+     logger.debug("RoleCapabilityResource::delRoleCap - id: {}", id);
 
      RoleCapabilityService roleCapService = (RoleCapabilityService)getService();
      roleCapService.delete(getUserSession(), "RoleCapability", id);
 
-     System.out.println("RoleCapabilityResource::delRoleCap - after service.delete");
-     System.out.flush();
+     logger.debug("RoleCapabilityResource::delRoleCap - after service.delete");
 
      return ok().build();
   }
@@ -117,8 +113,7 @@ System.out.flush();
   })
   public List<Role> getAllRoles() {
 
-    System.out.println("RoleCapabilityResource::getAllRoles");
-    System.out.flush();
+    logger.debug("RoleCapabilityResource::getAllRoles");
 
     RoleCapabilityService roleCapService = (RoleCapabilityService)getService();
     List<RoleCapability> listRCs = roleCapService.findFiltered(getUserSession(), "RoleCapability", new Filter());
@@ -142,8 +137,7 @@ System.out.flush();
   })
   public List<Capability> getCapabilitiesForRole(@PathParam("role") String role) {
 
-    System.out.println("RoleCapabilityResource::getCapsForRole - role: " + role);
-    System.out.flush();
+    logger.debug("RoleCapabilityResource::getCapsForRole - role: {}", role);
 
     RoleCapabilityService roleCapService = (RoleCapabilityService)getService();
     List<RoleCapability> listRCs = roleCapService.findFiltered(getUserSession(), "RoleCapability", new Filter().withField("role", Role.fromValue(role)));
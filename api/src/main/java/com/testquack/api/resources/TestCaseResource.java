@@ -1,6 +1,7 @@
 package com.testquack.api.resources;
 
 import com.testquack.api.utils.APIValidation;
+import com.testquack.api.utils.ByteRange;
 import com.testquack.beans.Attachment;
 import com.testquack.beans.Filter;
 import com.testquack.beans.Issue;
@@ -13,20 +14,30 @@ import com.testquack.beans.TrackerProject;
 import com.testquack.services.BaseService;
 import com.testquack.services.TestCaseService;
 import com.testquack.services.errors.EntityValidationException;
+import com.testquack.storage.ContentInfo;
 import io.swagger.annotations.ApiParam;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestBody;
+import ru.greatbit.whoru.auth.Session;
 import ru.greatbit.whoru.jaxrs.Authenticable;
 import org.json.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 import static java.lang.String.format;
@@ -36,6 +47,13 @@ import static javax.ws.rs.core.Response.serverError;
 @Path("/{projectId}/testcase")
 public class TestCaseResource extends BaseCrudResource<TestCase> {
 
+    private static final String COUNTS_ONLY = "countsOnly";
+    private static final String NODE = "node";
+    private static final String RANGE = "Range";
+    private static final String IF_RANGE = "If-Range";
+    private static final String CONTENT_RANGE = "Content-Range";
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
     @Autowired
     private TestCaseService service;
 
@@ -53,15 +71,18 @@ public class TestCaseResource extends BaseCrudResource<TestCase> {
         if (filter.getFields().containsKey("groups")){
             filter.getFields().remove("groups");
         }
+        filter.getFields().remove(COUNTS_ONLY);
+        filter.getFields().remove(NODE);
         
         return filter;
     }
 
     @GET
     @Path("/tree")
-    public TestCaseTree findFilteredTree(@ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId) {
-System.out.println("TestCaseResource::findFiltered - projectId: " + projectId);
-System.out.flush();
+    public TestCaseTree findFilteredTree(@ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId,
+                                         @ApiParam(value = "Return groups with counts only, test cases are loaded per node", defaultValue = "false")
+                                         @QueryParam(COUNTS_ONLY) boolean countsOnly) {
+        logger.debug("TestCaseResource::findFiltered - projectId: {}", projectId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -69,15 +90,36 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::findFilteredTree: checkProject returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::findFilteredTree: checkProject returned FALSE - did NOT find project id");
 
 
             TestCaseTree tcTree = null;
             return tcTree;
         }
 
-        return service.findFilteredTree(getUserSession(), projectId, (TestcaseFilter) initFilter(request));
+        TestcaseFilter filter = (TestcaseFilter) initFilter(request);
+        return countsOnly ?
+                service.findFilteredTreeCounts(getUserSession(), projectId, filter) :
+                service.findFilteredTree(getUserSession(), projectId, filter);
+    }
+
+    @GET
+    @Path("/tree/node")
+    public List<TestCase> findTreeNodeTestCases(@ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId,
+                                                @ApiParam(value = "Ids of the tree nodes from the root down to the node", required = true)
+                                                @QueryParam(NODE) List<String> nodeIds) {
+        if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
+            getService().getMongoUsername(),
+            getService().getMongoPassword(),
+            getService().getMongoDBName(),
+            projectId) == false) {
+
+            logger.debug("TestCaseResource::findTreeNodeTestCases: checkProject returned FALSE - did NOT find project id");
+
+            return Collections.emptyList();
+        }
+
+        return service.findTreeNodeTestCases(getUserSession(), projectId, (TestcaseFilter) initFilter(request), nodeIds);
     }
 
     @POST
@@ -88,9 +130,8 @@ System.out.flush();
                               @FormDataParam("size") long size,
                               @PathParam("projectId") String projectId,
                               @PathParam("testcaseId") String testcaseId) throws IOException {
-System.out.println("TestCaseResource::upload - testcaseId: " + testcaseId + ", fileDetail: " + fileDetail);
-System.out.println("TestCaseResource::upload - uploadedInputStream: " + uploadedInputStream);
-System.out.flush();
+        logger.trace("TestCaseResource::upload - testcaseId: {}, fileDetail: {}", testcaseId, fileDetail);
+        logger.trace("TestCaseResource::upload - uploadedInputStream: {}", uploadedInputStream);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -98,8 +139,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::upload: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::upload: checkTestCase returned FALSE - did NOT find project id");
 
             TestCase tc = null;
             return tc;
@@ -111,8 +151,7 @@ System.out.flush();
             projectId,
             testcaseId) == false) {
 
-            System.out.println("TestCaseResource::upload: checkTestCase returned FALSE - did NOT find testcase id");
-            System.out.flush();
+            logger.debug("TestCaseResource::upload: checkTestCase returned FALSE - did NOT find testcase id");
 
             TestCase tc = null;
             return tc;
@@ -130,9 +169,11 @@ System.out.flush();
     public Response downloadAttachment(
             @PathParam("projectId") String projectId,
             @PathParam("testcaseId") final String testcaseId,
-            @PathParam("attachmentId") final String attachmentId) {
-System.out.println("TestCaseResource::downloadAttachment - testcaseId: " + testcaseId + ", attachmentId: " + attachmentId);
-System.out.flush();
+            @PathParam("attachmentId") final String attachmentId,
+            @HeaderParam(RANGE) String rangeHeader,
+            @HeaderParam(IF_RANGE) String ifRangeHeader,
+            @Context Request httpRequest) {
+        logger.debug("TestCaseResource::downloadAttachment - testcaseId: {}, attachmentId: {}", testcaseId, attachmentId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -140,8 +181,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::downloadAttachment: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::downloadAttachment: checkTestCase returned FALSE - did NOT find project id");
 
             Response response = null;
             return response;
@@ -153,8 +193,7 @@ System.out.flush();
             projectId,
             testcaseId) == false) {
 
-            System.out.println("TestCaseResource::downloadAttachment: checkTestCase returned FALSE - did NOT find testcase id");
-            System.out.flush();
+            logger.debug("TestCaseResource::downloadAttachment: checkTestCase returned FALSE - did NOT find testcase id");
 
             Response response = null;
             return response;
@@ -167,8 +206,7 @@ System.out.flush();
             testcaseId,
             attachmentId) == false) {
 
-            System.out.println("TestCaseResource::downloadAttachment: checkTestCase returned FALSE - did NOT find attachment id");
-            System.out.flush();
+            logger.debug("TestCaseResource::downloadAttachment: checkTestCase returned FALSE - did NOT find attachment id");
 
             Response response = null;
             return response;
@@ -176,23 +214,87 @@ System.out.flush();
 
         Attachment attachment = service.getAttachment(getUserSession(), projectId, testcaseId, attachmentId);
         try {
-            return Response
-                    .ok(service.getAttachmentStream(attachment), MediaType.APPLICATION_OCTET_STREAM)
+            ContentInfo contentInfo = service.getAttachmentContentInfo(attachment);
+            EntityTag eTag = contentInfo.getETag() == null ? null : new EntityTag(contentInfo.getETag());
+            Date lastModified = contentInfo.getLastModified();
+
+            Response.ResponseBuilder preconditionsResponse = evaluatePreconditions(httpRequest, eTag, lastModified);
+            if (preconditionsResponse != null) {
+                return preconditionsResponse.tag(eTag).lastModified(lastModified).build();
+            }
+
+            ByteRange range = isRangeApplicable(ifRangeHeader, eTag, lastModified) ?
+                    ByteRange.parse(rangeHeader, contentInfo.getSize()) : null;
+            Response.ResponseBuilder response;
+            if (range == null) {
+                StreamingOutput content = output -> service.transferAttachment(attachment, 0, Long.MAX_VALUE, output);
+                response = Response.ok(content, MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_LENGTH, contentInfo.getSize());
+            } else if (!range.isSatisfiable()) {
+                return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(CONTENT_RANGE, range.toContentRange())
+                        .build();
+            } else {
+                StreamingOutput content = output ->
+                        service.transferAttachment(attachment, range.getFirst(), range.getLength(), output);
+                response = Response.status(Response.Status.PARTIAL_CONTENT)
+                        .entity(content)
+                        .type(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(CONTENT_RANGE, range.toContentRange())
+                        .header(HttpHeaders.CONTENT_LENGTH, range.getLength());
+            }
+            return response
                     .header("content-disposition", format("attachment; filename = %s", attachment.getTitle()))
+                    .header(ACCEPT_RANGES, "bytes")
+                    .tag(eTag)
+                    .lastModified(lastModified)
                     .build();
         } catch (IOException ioexp) {
             return serverError().build();
         }
     }
 
+    /**
+     * @return not modified or precondition failed response, null if the content should be sent
+     */
+    private Response.ResponseBuilder evaluatePreconditions(Request httpRequest, EntityTag eTag, Date lastModified) {
+        if (eTag != null && lastModified != null) {
+            return httpRequest.evaluatePreconditions(lastModified, eTag);
+        } else if (eTag != null) {
+            return httpRequest.evaluatePreconditions(eTag);
+        } else if (lastModified != null) {
+            return httpRequest.evaluatePreconditions(lastModified);
+        }
+        return null;
+    }
+
+    /**
+     * A range is served only if the If-Range validator, when sent, matches the current content
+     */
+    private boolean isRangeApplicable(String ifRangeHeader, EntityTag eTag, Date lastModified) {
+        if (ifRangeHeader == null) {
+            return true;
+        }
+        String validator = ifRangeHeader.trim();
+        if (validator.startsWith("\"") || validator.startsWith("W/")) {
+            return eTag != null && !validator.startsWith("W/") && validator.equals(eTag.toString());
+        }
+        try {
+            return lastModified != null &&
+                    ZonedDateTime.parse(validator, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond() ==
+                            lastModified.getTime() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
     @DELETE
     @Path("/{testcaseId}/attachment/{attachmentId}")
     public TestCase deleteAttachment(
             @PathParam("projectId") String projectId,
             @PathParam("testcaseId") final String testcaseId,
             @PathParam("attachmentId") final String attachmentId) throws IOException {
-System.out.println("TestCaseResource::deleteAttachment - testcaseId: " + testcaseId + ", attachmentId: " + attachmentId);
-System.out.flush();
+        logger.debug("TestCaseResource::deleteAttachment - testcaseId: {}, attachmentId: {}", testcaseId, attachmentId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -200,8 +302,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::deleteAttachment: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::deleteAttachment: checkTestCase returned FALSE - did NOT find project id");
 
             TestCase tc = null;
             return tc;
@@ -213,8 +314,7 @@ System.out.flush();
             projectId,
             testcaseId) == false) {
 
-            System.out.println("TestCaseResource::deleteAttachment: checkTestCase returned FALSE - did NOT find testcase id");
-            System.out.flush();
+            logger.debug("TestCaseResource::deleteAttachment: checkTestCase returned FALSE - did NOT find testcase id");
 
             TestCase tc = null;
             return tc;
@@ -227,8 +327,7 @@ System.out.flush();
             testcaseId,
             attachmentId) == false) {
 
-            System.out.println("TestCaseResource::deleteAttachment: checkTestCase returned FALSE - did NOT find attachment id");
-            System.out.flush();
+            logger.debug("TestCaseResource::deleteAttachment: checkTestCase returned FALSE - did NOT find attachment id");
 
             TestCase tc = null;
             return tc;
@@ -249,8 +348,7 @@ System.out.flush();
     @Path("/lockall")
     public Response LockAllTestCases(@PathParam("projectId") String projectId)
                                  throws Exception {
-System.out.println("TestCaseResource::LockAllTestCases - projectId: " + projectId);
-System.out.flush();
+        logger.debug("TestCaseResource::LockAllTestCases - projectId: {}", projectId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -258,8 +356,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::LockAllTestCases: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::LockAllTestCases: checkTestCase returned FALSE - did NOT find project id");
 
             Response response = null;
             return response;
@@ -292,8 +389,7 @@ System.out.flush();
     @Path("/unlockall")
     public Response UnlockAllTestCases(@PathParam("projectId") String projectId)
                                  throws Exception {
-System.out.println("TestCaseResource::UnlockAllTestCases - projectId: " + projectId);
-System.out.flush();
+        logger.debug("TestCaseResource::UnlockAllTestCases - projectId: {}", projectId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -301,8 +397,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::UnlockAllTestCases: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::UnlockAllTestCases: checkTestCase returned FALSE - did NOT find project id");
 
             Response response = null;
             return response;
@@ -336,8 +431,7 @@ System.out.flush();
     public TestCase LockTestCase(@PathParam("projectId") String projectId,
                                  @PathParam("testcaseId") final String testcaseId)
                                  throws Exception {
-System.out.println("TestCaseResource::LockTestCase - projectId: " + projectId);
-System.out.flush();
+        logger.debug("TestCaseResource::LockTestCase - projectId: {}", projectId);
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -345,8 +439,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::LockTestCase: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::LockTestCase: checkTestCase returned FALSE - did NOT find project id");
 
             TestCase tc = null;
             return tc;
@@ -358,8 +451,7 @@ System.out.flush();
             projectId,
             testcaseId) == false) {
 
-            System.out.println("TestCaseResource::LockTestCase: checkTestCase returned FALSE - did NOT find testcase id");
-            System.out.flush();
+            logger.debug("TestCaseResource::LockTestCase: checkTestCase returned FALSE - did NOT find testcase id");
 
 
             TestCase tc = null;
@@ -378,10 +470,9 @@ return tc;
     public TestCase UnlockTestCase(@PathParam("projectId") String projectId,
                                    @PathParam("testcaseId") final String testcaseId)
                                    throws Exception {
-System.out.println("TestCaseResource::UnlockTestCase - projectId: " + projectId);
-System.out.println("TestCaseResource::UnlockTestCase - testcaseId: " + testcaseId);
-System.out.println("TestCaseResource::LockTestCase - stubbed out");
-System.out.flush();
+        logger.debug("TestCaseResource::UnlockTestCase - projectId: {}", projectId);
+        logger.debug("TestCaseResource::UnlockTestCase - testcaseId: {}", testcaseId);
+        logger.debug("TestCaseResource::LockTestCase - stubbed out");
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -389,8 +480,7 @@ System.out.flush();
             getService().getMongoDBName(),
             projectId) == false) {
 
-            System.out.println("TestCaseResource::UnlockTestCase: checkTestCase returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::UnlockTestCase: checkTestCase returned FALSE - did NOT find project id");
 
 
             TestCase tc = null;
@@ -403,8 +493,7 @@ System.out.flush();
             projectId,
             testcaseId) == false) {
 
-            System.out.println("TestCaseResource::UnlockTestCase: checkTestCase returned FALSE - did NOT find testcase id");
-            System.out.flush();
+            logger.debug("TestCaseResource::UnlockTestCase: checkTestCase returned FALSE - did NOT find testcase id");
 
 
             TestCase tc = null;
@@ -459,8 +548,7 @@ return tc;
                 getService().getMongoDBName(),
                 projectId) == false) {
                                         
-            System.out.println("TestCaseResource::suggestProjects: checkProjectId returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::suggestProjects: checkProjectId returned FALSE - did NOT find project id");
                                         
                                         
             List<TrackerProject>  list_tp = null;
@@ -480,8 +568,7 @@ return tc;
                 getService().getMongoDBName(),
                 projectId) == false) {
                                         
-            System.out.println("TestCaseResource::getProjects: checkProjectId returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::getProjects: checkProjectId returned FALSE - did NOT find project id");
                                         
                                         
             List<TrackerProject>  list_tp = null;
@@ -515,7 +602,7 @@ return tc;
     @POST
     @Path("/{testcaseId}/clone")
     public TestCase cloneTestCase(@PathParam("projectId") String projectId,
-                                  @PathParam("testcaseId") final String testcaseId) {
+                                  @PathParam("testcaseId") final String testcaseId) throws IOException {
 
 
         if (APIValidation.checkProjectId(getService().getMongoReplicaSet(),
@@ -524,8 +611,7 @@ return tc;
                 getService().getMongoDBName(),
                 projectId) == false) {
                                                             
-            System.out.println("TestCaseResource::getProjects: v returned FALSE - did NOT find project id");
-            System.out.flush();
+            logger.debug("TestCaseResource::getProjects: v returned FALSE - did NOT find project id");
                                                             
                                                             
             TestCase tc = null;
@@ -538,8 +624,7 @@ return tc;
                 projectId,
                 testcaseId) == false) {
                                                             
-            System.out.println("TestCaseResource::cloneTestCase: checkTestCaseId returned FALSE - did NOT find testcase id");
-            System.out.flush();
+            logger.debug("TestCaseResource::cloneTestCase: checkTestCaseId returned FALSE - did NOT find testcase id");
                                                             
                                                             
             TestCase tc = null;
@@ -552,8 +637,12 @@ return tc;
     @GET
     @Path("/csv")
     public Response exportToCSV(@ApiParam(value = "Project Id", required = true) @PathParam("projectId") String projectId) {
+        // Session and filter depend on the request, so they are resolved before the response is streamed
+        Session session = getUserSession();
+        TestcaseFilter filter = (TestcaseFilter) initFilter(request);
+        StreamingOutput csv = output -> service.exportToCSV(session, projectId, filter, output);
         return Response
-                .ok(service.exportToCSV(getUserSession(), projectId, (TestcaseFilter) initFilter(request)), MediaType.APPLICATION_OCTET_STREAM)
+                .ok(csv, MediaType.APPLICATION_OCTET_STREAM)
                 .header("content-disposition", format("attachment; filename = %s", "testcases.csv"))
                 .build();
     }
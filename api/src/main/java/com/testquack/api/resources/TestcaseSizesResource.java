@@ -61,18 +61,19 @@ public class TestcaseSizesResource extends BaseResource<TestcaseSizes> {
 
   public Collection<TestcaseSizes> getAllTestcaseSizes() {
 
-    System.out.println("TestcaseSizesResource::getAllTestcaseSizes");
-    System.out.flush();
+    logger.debug("TestcaseSizesResource::getAllTestcaseSizes");
 
-System.out.println("getAllTestcaseSizes::filter - " + initFilter(request));
-System.out.flush();
+    if (logger.isTraceEnabled()) {
+      logger.trace("getAllTestcaseSizes::filter - {}", initFilter(request));
+    }
 
     Collection<TestcaseSizes> collTCSizes = getService().findFiltered(getUserSession(), null, new Filter());
 
-    for (TestcaseSizes tcSize : collTCSizes) {
-        System.out.println("TestcaseSizesResource.findFiltered - tcSize: " + tcSize);
-        System.out.flush();
-     }
+    if (logger.isTraceEnabled()) {
+        for (TestcaseSizes tcSize : collTCSizes) {
+            logger.trace("TestcaseSizesResource.findFiltered - tcSize: {}", tcSize);
+         }
+    }
 /*
    TestcaseSizesService tcSizesService = (TestcaseSizesService)getService();
    Set<String> tcSizesSet = tcSizesService.findAll().stream().map(
@@ -80,8 +81,7 @@ System.out.flush();
 
    Collection<TestcaseSizes> collTCSizes = new LinkedList<TestcaseSizes>();
    for (String tcSizeName : tcSizesSet) {
-      System.out.println("TestcaseSizes::getallTestcaseSizes::tcSize: " + tcSizeName);
-      System.out.flush();
+      logger.debug("TestcaseSizes::getallTestcaseSizes::tcSize: {}", tcSizeName);
       TestcaseSizes tcSize = new TestcaseSizes();
       tcSize.setName(tcSizeName);
       collTCSizes.add(tcSize);
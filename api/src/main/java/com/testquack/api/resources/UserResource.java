@@ -74,8 +74,7 @@ public class UserResource extends BaseResource<User> {
 
        deltaTime = Duration.between(beginTime, Instant.now());
 
-       System.out.println("UserResource::init - deltaTime to get mongoClient: " + deltaTime);
-       System.out.flush();
+       logger.trace("UserResource::init - deltaTime to get mongoClient: {}", deltaTime);
 
        return Response.ok().build();
 
@@ -89,16 +88,14 @@ public class UserResource extends BaseResource<User> {
 
     @Override
     protected BaseService<User> getService() {
-System.out.println("UserResource::getService - service: " + service);
-System.out.flush();
+        logger.trace("UserResource::getService - service: {}", service);
         return service;
     }
 
     @GET
     @Path("/{login}")
     public User getUser(@PathParam("login") String login) {
-System.out.println("UserResource::getUser - login: " + login);
-System.out.flush();
+        logger.debug("UserResource::getUser - login: {}", login);
 
         if (APIValidation.checkLoginId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -106,8 +103,7 @@ System.out.flush();
             getService().getMongoDBName(),
             login) == false) {
 
-            System.out.println("UserResource::getUser : checkLoginId returned FALSE - did NOT find login");
-            System.out.flush();
+            logger.debug("UserResource::getUser : checkLoginId returned FALSE - did NOT find login");
 
             User user = null;
             return user;
@@ -120,8 +116,7 @@ System.out.flush();
     @POST
     @Path("/delete")
     public Response delete(@QueryParam("login") String login) {
-System.out.println("UserResource::delete - login: " + login);
-System.out.flush();
+        logger.debug("UserResource::delete - login: {}", login);
 
         User user = getUser(login);
         service.delete(getSession(), null, user.getId());
@@ -133,8 +128,7 @@ System.out.flush();
     @Path("/forgot_password")
     public Response sendEmail(@QueryParam("login") String login) {
 
-       System.out.println("sendEmail - login: " + login);
-       System.out.flush();
+       logger.debug("sendEmail - login: {}", login);
 
        if (APIValidation.checkLoginId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -142,8 +136,7 @@ System.out.flush();
             getService().getMongoDBName(),
             login) == false) {
 
-            System.out.println("UserResource::getEmail: checkLoginId returned FALSE - did NOT find login");
-            System.out.flush();
+	    logger.debug("UserResource::getEmail: checkLoginId returned FALSE - did NOT find login");
 	    Response resp = null;
 
             return resp;
@@ -154,19 +147,16 @@ System.out.flush();
 
        deltaTime = Duration.between(beginTime, Instant.now());
 
-       System.out.println("UserResource::sendEmail - deltaTime to get mongoClient: " + deltaTime);
-       System.out.flush();
+       logger.trace("UserResource::sendEmail - deltaTime to get mongoClient: {}", deltaTime);
 
        beginTime = Instant.now();
        String email = s_mongoDBInterface.getEmail(login);
        deltaTime = Duration.between(beginTime, Instant.now());
 
-       System.out.println("UserResource::sendEmail - deltaTime to getEmail: " + deltaTime);
-       System.out.flush();
+       logger.trace("UserResource::sendEmail - deltaTime to getEmail: {}", deltaTime);
 
 
-       System.out.println("Fetched mongodb emails");
-       System.out.flush();
+       logger.debug("Fetched mongodb emails");
 
        JSONObject jsonObj = new JSONObject();
        jsonObj.put("email", email);
@@ -178,27 +168,22 @@ System.out.flush();
        Person person = s_mongoDBInterface.getPerson(login);
        deltaTime = Duration.between(beginTime, Instant.now());
 
-       System.out.println("UserResource::sendEmail - deltaTime to getPerson: " + deltaTime);
-       System.out.flush();
+       logger.trace("UserResource::sendEmail - deltaTime to getPerson: {}", deltaTime);
 
-       System.out.println("getPerson() -  " + person);
-       System.out.flush();
+       logger.trace("getPerson() -  {}", person);
 
        beginTime = Instant.now();
        service.changePassword(login, person.getPassword(), newPassword);
        deltaTime = Duration.between(beginTime, Instant.now());
-       System.out.println("UserResource::sendEmail - deltaTime to changePassword: " + deltaTime);
-       System.out.flush();
+       logger.trace("UserResource::sendEmail - deltaTime to changePassword: {}", deltaTime);
 
 
        beginTime = Instant.now();
        SendEmail.send(email, newPassword);
        deltaTime = Duration.between(beginTime, Instant.now());
-       System.out.println("UserResource::sendEmail - deltaTime to sendEmailAsync: " + deltaTime);
-       System.out.flush();
+       logger.trace("UserResource::sendEmail - deltaTime to sendEmailAsync: {}", deltaTime);
 
-       System.out.println("UserResource::sendEmail - forgot_password - DONE");
-       System.out.flush();
+       logger.debug("UserResource::sendEmail - forgot_password - DONE");
 
 
        return Response.ok().build();
@@ -210,11 +195,9 @@ System.out.flush();
     public User createUser(User user){
 
         
-	System.out.println("UserResource::createUser - " + user);
-	System.out.flush();
+        logger.trace("UserResource::createUser - {}", user);
 
-        System.out.println("UserResource::createUser: session - " + getSession());
-        System.out.flush();
+        logger.trace("UserResource::createUser: session - {}", getSession());
 
         if (APIValidation.checkLoginId(getService().getMongoReplicaSet(),
             getService().getMongoUsername(),
@@ -222,8 +205,7 @@ System.out.flush();
             getService().getMongoDBName(),
             user.getLogin()) == false) {
 
-            System.out.println("UserResource::createUser: checkLoginId returned FALSE - did NOT find login");
-            System.out.flush();
+            logger.debug("UserResource::createUser: checkLoginId returned FALSE - did NOT find login");
 
             User user1 = null;
             return user1;
@@ -242,8 +224,7 @@ System.out.flush();
             getService().getMongoDBName(),
             user.getLogin()) == false) {
 
-            System.out.println("UserResource::updateUser: checkLoginId returned FALSE - did NOT find login");
-            System.out.flush();
+            logger.debug("UserResource::updateUser: checkLoginId returned FALSE - did NOT find login");
 
             User user1 = null;
             return user1;
@@ -258,9 +239,10 @@ System.out.flush();
         //return getService().findFiltered(getSession(), null, initFilter(request));
         Collection<User> collUsers = getService().findFiltered(getSession(), null, initFilter(request));
 
-        for (User user : collUsers) {
-           System.out.println("UserResource.findFiltered - user: " + user);
-           System.out.flush();
+        if (logger.isTraceEnabled()) {
+            for (User user : collUsers) {
+                logger.trace("UserResource.findFiltered - user: {}", user);
+            }
         }
 
         return collUsers;
@@ -286,19 +268,15 @@ System.out.flush();
     @Path("/login")
     public Session login(@QueryParam("login") String login,
                          @QueryParam("password") String password) {
-System.out.println("UserResource::login - login: " + login);
-System.out.println("UserResource::login - password: " + password);
-System.out.flush();
+        logger.debug("UserResource::login - login: {}", login);
         Session session = authProvider.doAuth(request, response);
 
 	if (session == null) {
-	   System.out.println("UserResource::login - failed");
-	   System.out.flush();
+	   logger.debug("UserResource::login - failed");
 	   return null;
 	}
 
-System.out.println("UserResource::login - session: " + session);
-System.out.flush();
+        logger.trace("UserResource::login - session: {}", session);
 
         Person person = session.getPerson();
         s_mongoDBInterface.setMongoDBProperties(getService().getMongoReplicaSet(),
@@ -308,11 +286,8 @@ System.out.flush();
 
         String thisRole = s_mongoDBInterface.getRole(login);
 
-        String mongopass = s_mongoDBInterface.getPassword(login);
 
-System.out.println("UserResource::login - role: " + thisRole);
-System.out.println("UserResource::login - mongo password: " + mongopass);
-System.out.flush();
+        logger.debug("UserResource::login - role: {}", thisRole);
 
         List<String> roles = new ArrayList<String>();
         roles.add(thisRole);
@@ -320,12 +295,10 @@ System.out.flush();
         session.setPerson(person);
 
 	if (service.setLocked(session, true) == false) {
-	   System.out.println("UserResource::login - setLocked failed");
-	   System.out.flush();
+		logger.debug("UserResource::login - setLocked failed");
 	}
 
-System.out.println("UserResource::login - end of setLocked call");
-System.out.flush();
+        logger.debug("UserResource::login - end of setLocked call");
         return session;
         //return authProvider.doAuth(request, response);
     }
@@ -359,8 +332,7 @@ System.out.flush();
     @Path("/change-password")
     public Response changePassword(ChangePasswordRequest changePasswordRequest){
 
-System.out.println("changePassword");
-System.out.flush();
+        logger.debug("changePassword");
 
         Session session = getSession();
         String login = changePasswordRequest.getLogin() == null ? getSession().getPerson().getLogin() : changePasswordRequest.getLogin();
@@ -371,17 +343,14 @@ System.out.flush();
             getService().getMongoDBName(),
             login) == false) {
 
-            System.out.println("UserResource::changePassword: checkLoginId returned FALSE - did NOT find login");
-            System.out.flush();
+            logger.debug("UserResource::changePassword: checkLoginId returned FALSE - did NOT find login");
 
             Response resp = null;
             return resp;
         }
 
-System.out.println("changePassword - after api validation");
-System.out.println("changePassword - oldpass, newpass: " + changePasswordRequest.getOldPassword() + ", " + changePasswordRequest.getNewPassword());
+       logger.debug("changePassword - after api validation");
 
-System.out.flush();
 
        service.changePassword(session, login, changePasswordRequest.getOldPassword(), changePasswordRequest.getNewPassword());
        session.getPerson().setDefaultPassword(false);
@@ -402,11 +371,6 @@ System.out.flush();
                                               getService().getMongoDBName());
        String oldpass = mongoDBInterface.getPassword(login);
        mongoDBInterface.updatePassword(login, encryptedPass);
-System.out.println("changePassword - old passwd from mongo: " + oldpass);
-System.out.flush();
-System.out.println("changePassword - new password: " + changePasswordRequest.getNewPassword());
-System.out.println("changePassword - new encrypted password: " + encryptedPass);
-System.out.flush();
 */
         return Response.ok().build();
     }
@@ -424,19 +388,16 @@ System.out.flush();
 	Cookie sid = HttpUtils.findCookie(request, HttpUtils.SESSION_ID);
 
         if (sid == null) {
-System.out.println("UserResource::logout - sid: " + sid);
-System.out.flush();
+	   logger.debug("UserResource::logout - sid: {}", sid);
 	   return null;
 	}
 
         Session session = sessionProvider.getSessionById(sid.getValue());
 
-System.out.println("UserResource::logout - session: " + session);
-System.out.flush();
+	logger.trace("UserResource::logout - session: {}", session);
 
 	if (service.setLocked(session, false) == false) {
-	   System.out.println("UserResource::logout - setLocked false failed");
-	   System.out.flush();
+		logger.debug("UserResource::logout - setLocked false failed");
 	}
 
        s_mongoDBInterface.setMongoDBProperties(getService().getMongoReplicaSet(),
@@ -444,17 +405,9 @@ System.out.flush();
                                               getService().getMongoPassword(),
                                               getService().getMongoDBName());
 
-       String pass = s_mongoDBInterface.getPassword(session.getLogin());
-System.out.println("logout - before doLogout mongo pass: " + pass);
-System.out.flush();
-
         authProvider.doLogout(request, response);
 
-        pass = s_mongoDBInterface.getPassword(session.getLogin());
-System.out.println("logout - after doLogout mongo pass: " + pass);
-System.out.flush();
-System.out.println("UserResource::logout - after authProvider.doLogout call");
-System.out.flush();
+        logger.debug("UserResource::logout - after authProvider.doLogout call");
 
         return Response.ok().build();
     }
@@ -475,10 +428,11 @@ System.out.flush();
     @Path("/users")
     public Set<String> getUsers(){
         Set<String> users = authProvider.getAllUsers(request);
-System.out.println("UserResource::getUsers");
-for (String user : users) {
-System.out.println("user: " + user);
-System.out.flush();
+logger.debug("UserResource::getUsers");
+if (logger.isTraceEnabled()) {
+    for (String user : users) {
+        logger.trace("user: {}", user);
+    }
 }
         return users;
     }
@@ -1,7 +1,5 @@
 package com.testquack.api.security;
 
-import com.testquack.beans.User;
-import com.testquack.dal.UserRepository;
 import com.testquack.services.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +8,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.greatbit.whoru.auth.AuthProvider;
 import ru.greatbit.whoru.auth.Session;
+import ru.greatbit.whoru.auth.SessionProvider;
 import ru.greatbit.whoru.jaxrs.Authenticable;
 import ru.greatbit.whoru.jaxrs.WhoruSecurityContext;
 
@@ -25,9 +24,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.Provider;
 import java.io.IOException;
-import java.time.Instant;
 
-import static java.lang.String.format;
 import static org.springframework.util.StringUtils.isEmpty;
 import static ru.greatbit.whoru.auth.utils.HttpUtils.SESSION_ID;
 import static ru.greatbit.whoru.auth.utils.HttpUtils.createCookie;
@@ -45,7 +42,7 @@ public class AuthFilter implements ContainerRequestFilter, ContainerResponseFilt
     AuthProvider authProvider;
 
     @Autowired
-    UserRepository userRepository;
+    SessionProvider sessionProvider;
 
     @Autowired
     UserService userService;
@@ -69,19 +66,10 @@ public class AuthFilter implements ContainerRequestFilter, ContainerResponseFilt
         }
         if (authProvider.isAuthenticated(request)){
             final Session session = authProvider.getSession(request);
-            logger.debug(format("Session exists: %s, login %s", session.getId(), session.getName()));
-            if (session.getPerson().getLogin() != null && !userRepository.exists(userService.getCurrOrganizationId(session),null, session.getPerson().getLogin())) {
-                userRepository.save(
-                        userService.getCurrOrganizationId(session),
-                        null,
-                        new User().withCreatedTime(Instant.now().toEpochMilli()).
-                                withId(session.getPerson().getLogin()).
-                                withLogin(session.getPerson().getLogin()).
-                                withToken(session.getPerson().getToken()).
-                                withLastModifiedTime(Instant.now().toEpochMilli()).
-                                withFirstName(session.getPerson().getFirstName()).
-                                withLastName(session.getPerson().getLastName())
-                );
+            logger.debug("Session exists: {}, login {}", session.getId(), session.getName());
+            // Users are provisioned once per session, steady state requests do not touch the database
+            if (userService.provisionUser(session)) {
+                sessionProvider.replaceSession(session);
             }
             if (!isTokenAccessRequest(request))
                 requestContext.setProperty(SESSION_ID, session.getId());
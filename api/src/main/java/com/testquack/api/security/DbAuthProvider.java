@@ -64,13 +64,11 @@ public class DbAuthProvider extends BaseDbAuthProvider {
             sendRedirect(request, response);
             return sessionProvider.getSessionById(sid.getValue());
         } catch (UnauthorizedException e){
-System.out.println("DbAuthProvider::authImpl - throw UnauthorizedException 1");
-System.out.flush();
+            logger.debug("DbAuthProvider::authImpl - throw UnauthorizedException 1");
             throw e;
         } catch (Exception e){
             logger.error("Can't authenticate user", e);
-System.out.println("DbAuthProvider::authImpl - throw UnauthorizedException 2");
-System.out.flush();
+            logger.debug("DbAuthProvider::authImpl - throw UnauthorizedException 2");
             throw new UnauthorizedException(e);
         }
     }
@@ -79,10 +77,7 @@ System.out.flush();
 
         final String login = request.getParameter(PARAM_LOGIN);
         final String password = request.getParameter(PARAM_PASSWORD);
-System.out.println("dbAuthByLoginPassword - login: " + login);
-System.out.println("dbAuthByLoginPassword - password: " + password);
-System.out.println("dbAuthByLoginPassword - this.adminPassword: " + this.adminPassword);
-System.out.flush();
+        logger.debug("dbAuthByLoginPassword - login: {}", login);
 
         Person person;
         final String secretKey = "al;jf;lda1_+_!!()!!!!";
@@ -94,46 +89,40 @@ System.out.flush();
             person = findPersonByLogin(login);
         }
 
-System.out.println("dbAuthByLoginPassword - person.login: " + person.getLogin());
-System.out.println("dbAuthByLoginPassword - person.isActive: " + person.isActive());
-System.out.println("dbAuthByLoginPassword - getMD5: " + StringUtils.getMd5String(password + login));
-System.out.flush();
+        logger.debug("dbAuthByLoginPassword - person.login: {}", person.getLogin());
+        logger.trace("dbAuthByLoginPassword - person.isActive: {}", person.isActive());
         if (person!= null
                 && login.equals(person.getLogin())
                 && person.isActive()
 		&& StringUtils.getMd5String(password + login).equals(person.getPassword())) {
                 //&& getMd5(password, login).equals(person.getPassword())){
-System.out.println("dbAuthByLoginPassword - person not null");
-System.out.flush();
+            logger.debug("dbAuthByLoginPassword - person not null");
 
             return dbAuthAs(login, response, person);
         } else {
-System.out.println("DbAuthProvider::dbAuthByLoginPassword - throw UnauthorizedException");
-System.out.flush();
+		logger.debug("DbAuthProvider::dbAuthByLoginPassword - throw UnauthorizedException");
 		throw new UnauthorizedException("Incorrect login or password");
 	}
     }
 
     private Session dbAuthAs(String login, HttpServletResponse response, Person person) {
-System.out.println("dbAuthAs - entry");
-System.out.flush();
+        logger.debug("dbAuthAs - entry");
         if (person.getPasswordExpirationTime() > 0 && Instant.now().toEpochMilli() > person.getPasswordExpirationTime()){
             throw new UnauthorizedException(format("Temporary password has expired for user %s. Please contact administrator to set a new one.", person.getLogin()));
         }
         Session session = (Session) new Session().withId(UUID.randomUUID().toString()).withTimeout(sessionTtl).withName(login).withPerson(person);
         Session existedSession = sessionProvider.getSessionIfExists(session);
         if (existedSession == null) {
+            userService.provisionUser(session);
             sessionProvider.addSession(session);
             response.addCookie(HttpUtils.createCookie(HttpUtils.SESSION_ID, session.getId(), authDomain, sessionTtl));
-System.out.println("dbAuthAs - new session created");
-System.out.flush();
+            logger.debug("dbAuthAs - new session created");
             return session;
         }
         else
             response.addCookie(HttpUtils.createCookie(HttpUtils.SESSION_ID, existedSession.getId(), authDomain, sessionTtl));
 
-System.out.println("dbAuthAs - end");
-System.out.flush();
+        logger.debug("dbAuthAs - end");
         return existedSession;
     }
 
@@ -142,8 +131,7 @@ System.out.flush();
     public Session doAuth(HttpServletRequest request, HttpServletResponse response){
         final String login = emptyIfNull(request.getParameter(PARAM_LOGIN));
         final String password = emptyIfNull(request.getParameter(PARAM_PASSWORD));
-System.out.println("DbAuthProvider::doAuth - login: " + login);
-System.out.flush();
+        logger.debug("DbAuthProvider::doAuth - login: {}", login);
 
 
         final String secretKey = "al;jf;lda1_+_!!()!!!!";
@@ -180,8 +168,7 @@ System.out.flush();
         if (!isEmpty(login) && !isEmpty(password) && login.equals(adminLogin) && password.equals(decryptedAdminPassword)){
             return new Person().withLogin(adminLogin).withFirstName("admin");
         }
-System.out.println("DbAuthProvider::getAdminPerson - throw UnauthorizedException");
-System.out.flush();
+        logger.debug("DbAuthProvider::getAdminPerson - throw UnauthorizedException");
         throw new UnauthorizedException();
     }
 
@@ -190,8 +177,7 @@ System.out.flush();
         if (!isEmpty(token) && token.equals(adminToken)){
             return new Person().withLogin(adminLogin).withFirstName("admin");
         }
-System.out.println("DbAuthProvider::findPersonByApiToken - throw UnauthorizedException");
-System.out.flush();
+        logger.debug("DbAuthProvider::findPersonByApiToken - throw UnauthorizedException");
         throw new UnauthorizedException();
     }
 
@@ -199,8 +185,7 @@ System.out.flush();
     protected Person findPersonByLogin(String login) {
 
         Person person = convertUser(userService.findOne(null, new Filter().withField("login", login)));
-        System.out.println("DbAuthProvider.findPersonByLogin - person: " + person);
-        System.out.flush();
+        logger.trace("DbAuthProvider.findPersonByLogin - person: {}", person);
 
         return convertUser(userService.findOne(null, new Filter().withField("login", login)));
     }
@@ -238,8 +223,7 @@ System.out.flush();
 
     private Person convertUser(User user){
 
-        System.out.println("convertUser");
-        System.out.flush();
+        logger.debug("convertUser");
 
         MongoDBInterface mongoDBInterface = new MongoDBInterface();
         mongoDBInterface.setMongoDBProperties(userService.getMongoReplicaSet(),
@@ -3,6 +3,7 @@ package com.testquack.api.security;
 import com.testquack.beans.Filter;
 import com.testquack.beans.Organization;
 import com.testquack.services.OrganizationService;
+import com.testquack.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -44,6 +45,9 @@ public class OrgCognitoAuthProvider extends CognitoAuthProvider {
     @Autowired
     private OrganizationService organizationService;
 
+    @Autowired
+    private UserService userService;
+
     @Override
     public Session doAuth(HttpServletRequest request, HttpServletResponse response) {
         Session session = super.doAuth(request, response);
@@ -58,6 +62,7 @@ public class OrgCognitoAuthProvider extends CognitoAuthProvider {
             }
         }
         session.getPerson().getGroups().add(ALL_IN_ORGANIZATION_GROUP);
+        userService.provisionUser(session);
         sessionProvider.replaceSession(session);
         return session;
     }
@@ -1,9 +1,13 @@
 
 package com.testquack.api.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import static java.lang.String.format;
 
 public class APIValidation {
+
+    private static final Logger logger = LoggerFactory.getLogger(APIValidation.class);
     
 
     static public boolean checkProjectId(String replicaSet,
@@ -86,10 +90,9 @@ public class APIValidation {
         String launchId,
         String launchTestCaseUUID) {
 
-System.out.println("APIValidation::checkLaunchIdNTestCaseUUID - projectId: " + projectId);
-System.out.println("APIValidation::checkLaunchIdNTestCaseUUID - launchId: " + launchId);
-System.out.println("APIValidation::checkLaunchIdNTestCaseUUID - launchTestCaseUUID: " + launchTestCaseUUID);
-System.out.flush();
+logger.debug("APIValidation::checkLaunchIdNTestCaseUUID - projectId: {}", projectId);
+logger.debug("APIValidation::checkLaunchIdNTestCaseUUID - launchId: {}", launchId);
+logger.debug("APIValidation::checkLaunchIdNTestCaseUUID - launchTestCaseUUID: {}", launchTestCaseUUID);
 
 return true;
 /*-
@@ -111,8 +114,7 @@ return true;
         String loginId) {
 
 	    /*
-System.out.println("APIValidation::checkLoginId - loginId: " + loginId);
-System.out.flush();
+	logger.debug("APIValidation::checkLoginId - loginId: {}", loginId);
 
 	if (loginId.toLowerCase().equals("admin")) {
 	   return true;
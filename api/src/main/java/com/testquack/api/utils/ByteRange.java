@@ -0,0 +1,75 @@
+package com.testquack.api.utils;
+
+/**
+ * Single byte range of a Range request header resolved against the content size.
+ * Multiple ranges are not supported, the full content is served for them.
+ */
+public class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long first;
+    private final long last;
+    private final long size;
+
+    private ByteRange(long first, long last, long size) {
+        this.first = first;
+        this.last = last;
+        this.size = size;
+    }
+
+    /**
+     * @return null if the header is absent, malformed or holds several ranges
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.trim().startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        String range = header.trim().substring(BYTES_UNIT.length()).trim();
+        int separator = range.indexOf('-');
+        if (separator < 0 || range.contains(",")) {
+            return null;
+        }
+        try {
+            String first = range.substring(0, separator).trim();
+            String last = range.substring(separator + 1).trim();
+            if (first.isEmpty()) {
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength < 0) {
+                    return null;
+                }
+                return suffixLength == 0 ?
+                        new ByteRange(size, size - 1, size) :
+                        new ByteRange(Math.max(0, size - suffixLength), size - 1, size);
+            }
+            long firstPosition = Long.parseLong(first);
+            long lastPosition = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (firstPosition < 0 || lastPosition < firstPosition) {
+                return null;
+            }
+            return firstPosition >= size ?
+                    new ByteRange(firstPosition, firstPosition, size) :
+                    new ByteRange(firstPosition, Math.min(lastPosition, size - 1), size);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isSatisfiable() {
+        return first < size;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLength() {
+        return last - first + 1;
+    }
+
+    public String toContentRange() {
+        return isSatisfiable() ?
+                String.format("bytes %s-%s/%s", first, last, size) :
+                "bytes */" + size;
+    }
+}
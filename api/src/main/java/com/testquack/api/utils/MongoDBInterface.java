@@ -1,5 +1,7 @@
 package com.testquack.api.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.testquack.dal.aes;
 
 import com.mongodb.client.MongoCollection;
@@ -14,6 +16,7 @@ import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import static com.mongodb.internal.connection.ServerAddressHelper.createServerAddress;
@@ -45,6 +48,8 @@ import java.util.Scanner;
 @Configuration
 public class MongoDBInterface  {
 
+   private static final Logger logger = LoggerFactory.getLogger(MongoDBInterface.class);
+
    String mongoReplicaSet;
    String mongoUsername;
    String mongoPassword;
@@ -62,9 +67,9 @@ public class MongoDBInterface  {
       mongoUsername = username;
       mongoPassword = password;
       mongoDBname = dbname;
-System.out.println("setMongoDBProperties - replicaSet: " + replicaSet);
-System.out.println("setMongoDBProperties - username: " + username);
-System.out.println("setMongoDBProperties - dbname: " + dbname);
+      logger.trace("setMongoDBProperties - replicaSet: {}", replicaSet);
+      logger.debug("setMongoDBProperties - username: {}", username);
+      logger.debug("setMongoDBProperties - dbname: {}", dbname);
 
 
       MongoClient s_mongoClient = getMongoClient();
@@ -86,8 +91,7 @@ System.out.println("setMongoDBProperties - dbname: " + dbname);
 
       if (mongoUsername == null || mongoUsername.isEmpty()) {
 
-         System.out.println("MongoDBInterface - mongoUsername = null");
-         System.out.flush();
+         logger.debug("MongoDBInterface - mongoUsername = null");
 
          MongoClientSettings.Builder settingsBuilder = MongoClientSettings.builder()
 		 .applyToClusterSettings(builder ->
@@ -133,8 +137,7 @@ System.out.println("setMongoDBProperties - dbname: " + dbname);
       JSONParser parser = new JSONParser();
 
       if (collection == null) {
-         System.out.println("getUserCollectionAttribute - collection = null");
-         System.out.flush();
+          logger.debug("getUserCollectionAttribute - collection = null");
       }
 
       for (Document doc : collection.find())
@@ -145,7 +148,7 @@ System.out.println("setMongoDBProperties - dbname: " + dbname);
          try {
             obj = parser.parse(jsonStr);
          } catch (ParseException e) {
-            System.out.println("ParseException - jsonStr: " + jsonStr);
+             logger.trace("ParseException - jsonStr: {}", jsonStr);
          }
 
          org.json.simple.JSONObject jsonObj = (org.json.simple.JSONObject)obj;
@@ -186,21 +189,21 @@ System.out.println("setMongoDBProperties - dbname: " + dbname);
 
    public String getEmail(String loginToFind)
    {
-      System.out.println("MongoDBInterface getEmail");
+      logger.debug("MongoDBInterface getEmail");
 
       return getUserCollectionAttribute(loginToFind, "email");
    }
 
    public String getRole(String loginToFind)
    {
-      System.out.println("MongoDBInterface getRole");
+      logger.debug("MongoDBInterface getRole");
 
       return getUserCollectionAttribute(loginToFind, "role");
    }
 
    public String getPassword(String loginToFind)
    {
-      System.out.println("MongoDBInterface getPassword");
+      logger.debug("MongoDBInterface getPassword");
 
       return getUserCollectionAttribute(loginToFind, "password");
    }
@@ -209,76 +212,43 @@ System.out.println("setMongoDBProperties - dbname: " + dbname);
    public boolean get3LevelCollectionAttributeValue(String collectionName, String attributeName1ToSearch, String attributeName2ToSearch)
    {
 
-      System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - collectionName: " + collectionName);
-      System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - attributeName1ToSearch: " + attributeName1ToSearch);
-      System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - attributeName2ToSearch: " + attributeName2ToSearch);
-      System.out.flush();
-
-      MongoCollection<Document> collection = s_db.getCollection(collectionName);
-      String attributeValue ="";
-
-      System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue  - after parser call: collection: " + collection);
-      System.out.flush();
-
-
-      for (Document doc : collection.find())
-      {
-	 String jsonStr = doc.toJson();
-
-         JSONObject jsonObj = new JSONObject(jsonStr);
-
-         System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - for loop after toJson, jsonStr: " + jsonStr);
-         System.out.flush();
-
-         JSONObject idObj = jsonObj.getJSONObject("_id");
-         System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - idObj: " + idObj);
-         System.out.flush();
-
-	 String launchId = idObj.getString("$oid");
-         System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - launchId: " + launchId);
-         System.out.flush();
+      logger.debug("MongoDBInterface::get3LevelCollectionAttributeValue - collectionName: {}", collectionName);
+      logger.trace("MongoDBInterface::get3LevelCollectionAttributeValue - attributeName1ToSearch: {}", attributeName1ToSearch);
+      logger.trace("MongoDBInterface::get3LevelCollectionAttributeValue - attributeName2ToSearch: {}", attributeName2ToSearch);
 
-	 if (launchId.equals(attributeName1ToSearch)) {
+      if (!ObjectId.isValid(attributeName1ToSearch)) return false;
 
-            System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - launchId = attributeName1ToSearch");
-            System.out.flush();
-
-	    if (attributeName2ToSearch == "") return true;
-
-            JSONObject testCaseTreeObj = jsonObj.getJSONObject("testCaseTree");
-
-            System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - testCaseTree: " + testCaseTreeObj);
-            System.out.flush();
-
-            JSONArray childrenArrayObj = testCaseTreeObj.getJSONArray("children");
-            System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - children: " + childrenArrayObj);
-            System.out.flush();
-
-            for (int i = 0; i < childrenArrayObj.length(); i++) {
-
-	       JSONObject childrenObj = childrenArrayObj.getJSONObject(i);
-	       JSONArray testCasesArrayObj = childrenObj.getJSONArray("testCases");
+      MongoCollection<Document> collection = s_db.getCollection(collectionName);
 
-               System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - testCasesArrayObj: " + 
-			    testCasesArrayObj);
-               System.out.flush();
+      // Only the launch itself is loaded, its tree is walked in place instead of being parsed from JSON
+      Document launch = collection.find(Filters.eq("_id", new ObjectId(attributeName1ToSearch))).first();
+      if (launch == null) return false;
 
-	       for (int j = 0; j < testCasesArrayObj.length(); j++) {
+      logger.debug("MongoDBInterface::get3LevelCollectionAttributeValue - launchId = attributeName1ToSearch");
 
-	          JSONObject testCasesObj = testCasesArrayObj.getJSONObject(j);
+      if (attributeName2ToSearch == null || attributeName2ToSearch.isEmpty()) return true;
 
-	          String uuid = testCasesObj.getString("uuid");
-                  System.out.println("MongoDBInterface::get3LevelCollectionAttributeValue - uuid: " + uuid);
-                  System.out.flush();
+      Document testCaseTree = launch.get("testCaseTree", Document.class);
+      return testCaseTree != null && containsLaunchTestCase(testCaseTree, attributeName2ToSearch);
+   }
 
-                 if (uuid.equals(attributeName2ToSearch))
-                    return true;
-               }
-	    }
-	break;
-        }
+   private boolean containsLaunchTestCase(Document testCaseTree, String uuid)
+   {
+      List<Document> testCases = testCaseTree.getList("testCases", Document.class);
+      if (testCases != null) {
+         for (Document testCase : testCases) {
+            if (uuid.equals(testCase.getString("uuid"))) {
+               logger.debug("MongoDBInterface::get3LevelCollectionAttributeValue - uuid: {}", uuid);
+               return true;
+            }
+         }
+      }
+      List<Document> children = testCaseTree.getList("children", Document.class);
+      if (children != null) {
+         for (Document child : children) {
+            if (containsLaunchTestCase(child, uuid)) return true;
+         }
       }
-
       return false;
    }
    
@@ -286,44 +256,38 @@ System.out.println("setMongoDBProperties - dbname: " + dbname);
    public boolean getCollectionAttributeValue(String collectionName, String attribute1NameToSearch, String attribute1ValueToSearch, String attribute2NameToSearch, String attribute2ValueToSearch)
    {
 
-      System.out.println("MongoDBInterface::getCollectionAttributeValue - collectionName, attributeNames ToSearch: " + collectionName + ", " + attribute1NameToSearch + ", " + attribute2NameToSearch);
-      System.out.println("MongoDBInterface::getCollectionAttributeValue - attributeValues ToSearch: " + attribute1ValueToSearch + ", " + attribute2ValueToSearch);
-      System.out.flush();
+      logger.trace("MongoDBInterface::getCollectionAttributeValue - collectionName, attributeNames ToSearch: {}, {}, {}", collectionName, attribute1NameToSearch, attribute2NameToSearch);
+      logger.trace("MongoDBInterface::getCollectionAttributeValue - attributeValues ToSearch: {}, {}", attribute1ValueToSearch, attribute2ValueToSearch);
 
       MongoCollection<Document> collection = s_db.getCollection(collectionName);
       String attributeValue ="";
 
       JSONParser parser = new JSONParser();
 
-      System.out.println("MongoDBInterface::getCollectionAttributeValue  - after parser call: collection: " + collection);
-      System.out.flush();
+      logger.trace("MongoDBInterface::getCollectionAttributeValue  - after parser call: collection: {}", collection);
 
 
       for (Document doc : collection.find())
       {
          String jsonStr = doc.toJson();
 
-         System.out.println("MongoDBInterface::getCollectionAttributeValue - for loop after toJson, jsonStr: " + jsonStr);
-         System.out.flush();
+         logger.trace("MongoDBInterface::getCollectionAttributeValue - for loop after toJson, jsonStr: {}", jsonStr);
 
          JSONObject jsonObj = new JSONObject(jsonStr);
 
          String attributeValue_1="";
          boolean attr1ValueFoundFlag = false;
          if (attribute1NameToSearch.equals("attachments")) {
-System.out.println("MongoDBInterface::getCollectionAttributeValue  - attachments 1 found");
-System.out.println("1 jsonObj.get(attribute1NameToSearch): " + jsonObj.get(attribute1NameToSearch));
-System.out.flush();
+            logger.debug("MongoDBInterface::getCollectionAttributeValue  - attachments 1 found");
+            logger.trace("1 jsonObj.get(attribute1NameToSearch): {}", jsonObj.get(attribute1NameToSearch));
 
             JSONArray ary = jsonObj.getJSONArray(attribute1NameToSearch);
             for (int i = 0; i < ary.length(); i++) {
                JSONObject aryObj = ary.getJSONObject(i);
                String id = aryObj.getString("_id");
-System.out.println("MongoDBInterface::getCollectionAttributeValue  - 1 JSON array loop: " + id);
-System.out.flush();
+               logger.debug("MongoDBInterface::getCollectionAttributeValue  - 1 JSON array loop: {}", id);
                if (id.equals(attribute1ValueToSearch)) {
-System.out.println("MongoDBInterface::getCollectionAttributeValue  - 1 attr1ValueFoundFlag = true");
-System.out.flush();
+                  logger.debug("MongoDBInterface::getCollectionAttributeValue  - 1 attr1ValueFoundFlag = true");
                   attr1ValueFoundFlag = true;
                   break;
                }
@@ -335,18 +299,15 @@ System.out.flush();
          String attributeValue_2="";
          boolean attr2ValueFoundFlag = false;
          if (attribute2NameToSearch.equals("attachments")) {
-System.out.println("MongoDBInterface::getCollectionAttributeValue  - attachments 2 found");
-System.out.println("1 jsonObj.get(attribute2NameToSearch): " + jsonObj.get(attribute2NameToSearch));
-System.out.flush();
+            logger.debug("MongoDBInterface::getCollectionAttributeValue  - attachments 2 found");
+            logger.trace("1 jsonObj.get(attribute2NameToSearch): {}", jsonObj.get(attribute2NameToSearch));
             JSONArray ary = jsonObj.getJSONArray(attribute2NameToSearch);
             for (int i = 0; i < ary.length(); i++) {
                 JSONObject aryObj = ary.getJSONObject(i);
                 String id = aryObj.getString("_id");
-System.out.println("MongoDBInterface::getCollectionAttributeValue  - 2 JSON array loop: " + id);
-System.out.flush();
+                logger.debug("MongoDBInterface::getCollectionAttributeValue  - 2 JSON array loop: {}", id);
                 if (id.equals(attribute2ValueToSearch)) {
-System.out.println("MongoDBInterface::getCollectionAttributeValue  - 2 attr1ValueFoundFlag = true");
-System.out.flush();
+                   logger.debug("MongoDBInterface::getCollectionAttributeValue  - 2 attr1ValueFoundFlag = true");
                    attr2ValueFoundFlag = true;
                 }
             }
@@ -354,8 +315,7 @@ System.out.flush();
 	    attributeValue_2 = (String)jsonObj.get(attribute2NameToSearch);
          }
 
-         System.out.println("MongoDBInterface::getCollectionAttributeValue - bottom of for loop, atttributeValue_1, attributeValue_2: " + attributeValue_1 + ", " + attributeValue_2);
-         System.out.flush();
+         logger.trace("MongoDBInterface::getCollectionAttributeValue - bottom of for loop, atttributeValue_1, attributeValue_2: {}, {}", attributeValue_1, attributeValue_2);
 
          if ((attr1ValueFoundFlag == true || 
               attribute1ValueToSearch.equals(attributeValue_1)) &&
@@ -375,41 +335,36 @@ System.out.flush();
    public boolean getCollectionAttributeValue(String collectionName, String attributeNameToSearch, String attributeValueToSearch)
    {
 
-      System.out.println("MongoDBInterface::getCollectionAttributeValue - collectionName, attributeNameToSearch: " + collectionName + ", " + attributeNameToSearch);
-      System.out.flush();
+      logger.trace("MongoDBInterface::getCollectionAttributeValue - collectionName, attributeNameToSearch: {}, {}", collectionName, attributeNameToSearch);
 
       MongoCollection<Document> collection = s_db.getCollection(collectionName);
       String attributeValue ="";
 
       JSONParser parser = new JSONParser();
 
-      System.out.println("MongoDBInterface::getCollectionAttributeValue  - after parser call: collection: " + collection);
-      System.out.flush();
+      logger.trace("MongoDBInterface::getCollectionAttributeValue  - after parser call: collection: {}", collection);
 
 
       for (Document doc : collection.find())
       {
          String jsonStr = doc.toJson();
 
-         System.out.println("MongoDBInterface::getCollectionAttributeValue - for loop after toJson, jsonStr: " + jsonStr);
-         System.out.flush();
+	 logger.trace("MongoDBInterface::getCollectionAttributeValue - for loop after toJson, jsonStr: {}", jsonStr);
 
 	 Object obj = null;
 	 try {
 	   obj = parser.parse(jsonStr);
 	 } catch (ParseException e) {
-           System.out.println("MongoDBInterface::getCollectionAttributeValue  - ParseException - jsonStr: " + jsonStr);
+	     logger.trace("MongoDBInterface::getCollectionAttributeValue  - ParseException - jsonStr: {}", jsonStr);
 	 }
 
 	 org.json.simple.JSONObject jsonObj = (org.json.simple.JSONObject)obj;
 
-         System.out.println("MongoDBInterface::getCollectionAttributeValue  - jsonObj: " + jsonObj);
-         System.out.flush();
+	 logger.debug("MongoDBInterface::getCollectionAttributeValue  - jsonObj: {}", jsonObj);
          
 	 attributeValue = (String)jsonObj.get(attributeNameToSearch);
 
-         System.out.println("MongoDBInterface::getCollectionAttributeValue - 1 bottom of for loop, atttributeValue: " + attributeValue);
-         System.out.flush();
+         logger.trace("MongoDBInterface::getCollectionAttributeValue - 1 bottom of for loop, atttributeValue: {}", attributeValue);
 
          if (attributeValueToSearch.equals(attributeValue)) {
             return true;
@@ -427,8 +382,7 @@ System.out.flush();
       JSONParser parser = new JSONParser();
 
       if (collection == null) {
-	 System.out.println("getUserCollectionAttribute - collection = null");
-	 System.out.flush();
+          logger.debug("getUserCollectionAttribute - collection = null");
       }
 
       for (Document doc : collection.find())
@@ -439,7 +393,7 @@ System.out.flush();
 	 try {
 	    obj = parser.parse(jsonStr);
 	 } catch (ParseException e) {
-            System.out.println("ParseException - jsonStr: " + jsonStr);
+	     logger.trace("ParseException - jsonStr: {}", jsonStr);
 	 }
 
 	 org.json.simple.JSONObject jsonObj = (org.json.simple.JSONObject)obj;
@@ -449,14 +403,12 @@ System.out.flush();
 	 String role = (String)jsonObj.get("role");
 	 String password = (String)jsonObj.get("password");
 
-	 System.out.println("login: " + login);
-	 System.out.println("email: " + email);
-	 System.out.flush();
+	 logger.debug("login: {}", login);
+	 logger.debug("email: {}", email);
 
 	 if (login.equals(loginToFind))
          {
-	    System.out.println("email found: " + email);
-	    System.out.flush();
+            logger.debug("email found: {}", email);
             if (userAttribute == "email")
             {
 	       return email;
@@ -478,20 +430,17 @@ System.out.flush();
 
       try {
 
-         System.out.println("MongoDBInterface updatePassword");
-	 System.out.flush();
+	 logger.debug("MongoDBInterface updatePassword");
 
-         System.out.println("MongoDBInterface updatePassword - BEFORE call to updateOne");
-	 System.out.flush();
+	 logger.debug("MongoDBInterface updatePassword - BEFORE call to updateOne");
 
 	 updateOne(loginToFind, password, s_db);
 
-         System.out.println("MongoDBInterface updatePassword - AFTER call to updateOne");
-	 System.out.flush();
+	 logger.debug("MongoDBInterface updatePassword - AFTER call to updateOne");
 
 
       } catch (Exception ex) {
-         ex.printStackTrace();
+         logger.warn("Unable to update password of {}", loginToFind, ex);
       }
    }
 
@@ -500,13 +449,11 @@ System.out.flush();
 
          MongoCollection<Document> collection = db.getCollection("users");
 
-	 System.out.println("after db getCollection");
-	 System.out.flush();
+	 logger.debug("after db getCollection");
 
 	 Document query = new Document("login", loginToFind);
 
-	 System.out.println("after new doc login");
-	 System.out.flush();
+	 logger.debug("after new doc login");
 
 	 Document content = new Document();
 	 content.append("password", password);
@@ -514,14 +461,11 @@ System.out.flush();
 
 	 Document updates = new Document("$set", content);
 
-	 System.out.println("after new doc updates");
-	 System.out.flush();
+	 logger.debug("after new doc updates");
 
 	 UpdateResult result = collection.updateOne(query, updates);
-	 System.out.println("after updateMany - modified count: " + result.getModifiedCount());
-	 System.out.flush();
+	 logger.trace("after updateMany - modified count: {}", result.getModifiedCount());
 
-	System.out.flush();
    }
 
 
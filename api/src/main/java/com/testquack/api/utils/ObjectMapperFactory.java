@@ -4,7 +4,6 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.AnnotationIntrospector;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
@@ -12,13 +11,23 @@ import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
 import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
 
+/**
+ * Provides the single mapper shared by all requests.
+ * ObjectMapper is thread-safe once configured, so serializers and introspection results are built once.
+ * Output is compact, see {@link PrettyPrintInterceptor} for indented output.
+ */
 @Provider
 public class ObjectMapperFactory implements ContextResolver<ObjectMapper> {
 
+    private static final ObjectMapper MAPPER = createObjectMapper();
+
     @Override
     public ObjectMapper getContext(Class<?> aClass) {
+        return MAPPER;
+    }
+
+    private static ObjectMapper createObjectMapper() {
         final ObjectMapper result = new ObjectMapper();
-        result.configure(SerializationFeature.INDENT_OUTPUT, true);
         result.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         result.setSerializationInclusion(JsonInclude.Include.NON_NULL);
         result.setAnnotationIntrospector(AnnotationIntrospector.pair(
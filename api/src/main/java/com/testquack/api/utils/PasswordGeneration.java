@@ -1,5 +1,7 @@
 package com.testquack.api.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.passay.CharacterCharacteristicsRule;
 import org.passay.CharacterRule;
 import org.passay.CharacterData;
@@ -22,6 +24,8 @@ import java.util.ArrayList;
 
 public class PasswordGeneration {
 
+   private static final Logger logger = LoggerFactory.getLogger(PasswordGeneration.class);
+
    public static String generatePassword() {
 
       CharacterRule specialCharRule = new CharacterRule(new CharacterData() {
@@ -50,10 +54,6 @@ public class PasswordGeneration {
       PasswordGenerator passwordGenerator = new PasswordGenerator();        
       String password = passwordGenerator.generatePassword(16, rules);
 
-      System.out.println("Password generated: " + password);
-      System.out.flush();
-
-
       return password;
    }
 
@@ -0,0 +1,58 @@
+package com.testquack.api.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.jaxrs.cfg.EndpointConfigBase;
+import com.fasterxml.jackson.jaxrs.cfg.ObjectWriterInjector;
+import com.fasterxml.jackson.jaxrs.cfg.ObjectWriterModifier;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+
+/**
+ * Indents JSON responses of requests having "pretty=true" query parameter
+ */
+@Provider
+public class PrettyPrintInterceptor implements WriterInterceptor {
+
+    public static final String PRETTY_PARAM = "pretty";
+
+    private static final ObjectWriterModifier INDENT_MODIFIER = new ObjectWriterModifier() {
+        @Override
+        public ObjectWriter modify(EndpointConfigBase<?> endpoint, MultivaluedMap<String, Object> responseHeaders,
+                                   Object valueToWrite, ObjectWriter writer, JsonGenerator generator) {
+            generator.useDefaultPrettyPrinter();
+            return writer.with(SerializationFeature.INDENT_OUTPUT);
+        }
+    };
+
+    @Context
+    private UriInfo uriInfo;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        if (!isPrettyRequested() || !MediaType.APPLICATION_JSON_TYPE.isCompatible(context.getMediaType())) {
+            context.proceed();
+            return;
+        }
+        ObjectWriterInjector.set(INDENT_MODIFIER);
+        try {
+            context.proceed();
+        } finally {
+            // Modifier is kept in a thread local, it must not leak to other requests served by the thread
+            ObjectWriterInjector.getAndClear();
+        }
+    }
+
+    private boolean isPrettyRequested() {
+        return Boolean.parseBoolean(uriInfo.getQueryParameters().getFirst(PRETTY_PARAM));
+    }
+}
@@ -0,0 +1,24 @@
+package com.testquack.api.utils;
+
+import org.glassfish.jersey.server.filter.EncodingFilter;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import java.io.IOException;
+
+/**
+ * Negotiates response compression with the registered encoders, except for responses serving byte ranges.
+ * Their Content-Length and Content-Range refer to the stored bytes, so they are sent as they are.
+ */
+public class RangeAwareEncodingFilter extends EncodingFilter {
+
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        if (response.getHeaders().containsKey(ACCEPT_RANGES)) {
+            return;
+        }
+        super.filter(request, response);
+    }
+}
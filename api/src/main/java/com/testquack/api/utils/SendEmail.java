@@ -1,5 +1,7 @@
 package com.testquack.api.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.Properties;
 
 import javax.mail.Message;
@@ -12,6 +14,8 @@ import javax.mail.internet.MimeMessage;
 
 public class SendEmail {
 
+    private static final Logger logger = LoggerFactory.getLogger(SendEmail.class);
+
     public static void send(String emailTo, String passwordCode) {
 
         // Recipient's email ID needs to be mentioned.
@@ -38,18 +42,18 @@ public class SendEmail {
                            }
                         });
 
-	System.out.println("After session instantiation"); 
+        logger.debug("After session instantiation");
 
         // Used to debug SMTP issues
         //session.setDebug(true);
 
-	System.out.println("After session setDebug");
+        logger.debug("After session setDebug");
 
         try {
             // Create a default MimeMessage object.
             MimeMessage message = new MimeMessage(session);
 
-	    System.out.println("After MimeMessage constructor");
+            logger.debug("After MimeMessage constructor");
 
             // Set From: header field of the header.
             message.setFrom(new InternetAddress(username));
@@ -63,16 +67,16 @@ public class SendEmail {
             // Now set the actual message
             message.setText("Dokimion Forgot Password code: " + passwordCode);
 
-            System.out.println("sending...");
+            logger.debug("sending...");
 
             // Send message
             Transport.send(message);
-            System.out.println("after Transport send");
+            logger.debug("after Transport send");
 
         } catch (MessagingException mex) {
-            mex.printStackTrace();
+            logger.warn("Unable to send email to {}", emailTo, mex);
         } catch (Exception ex) {
-            ex.printStackTrace();
+            logger.warn("Unable to send email to {}", emailTo, ex);
 	}
 
     }
@@ -0,0 +1,45 @@
+package com.testquack.api.utils;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+public class ByteRangeTest {
+
+    @Test
+    public void parsesBoundedRange() {
+        ByteRange range = ByteRange.parse("bytes=10-19", 100);
+        assertThat(range.getFirst(), is(10L));
+        assertThat(range.getLength(), is(10L));
+        assertThat(range.toContentRange(), is("bytes 10-19/100"));
+    }
+
+    @Test
+    public void parsesOpenAndSuffixRanges() {
+        assertThat(ByteRange.parse("bytes=90-", 100).toContentRange(), is("bytes 90-99/100"));
+        assertThat(ByteRange.parse("bytes=-30", 100).toContentRange(), is("bytes 70-99/100"));
+        assertThat(ByteRange.parse("bytes=-300", 100).toContentRange(), is("bytes 0-99/100"));
+        assertThat(ByteRange.parse("bytes=50-500", 100).getLength(), is(50L));
+    }
+
+    @Test
+    public void detectsUnsatisfiableRanges() {
+        assertThat(ByteRange.parse("bytes=100-", 100).isSatisfiable(), is(false));
+        assertThat(ByteRange.parse("bytes=-0", 100).isSatisfiable(), is(false));
+        assertThat(ByteRange.parse("bytes=150-", 100).isSatisfiable(), is(false));
+        assertThat(ByteRange.parse("bytes=100-200", 100).isSatisfiable(), is(false));
+        assertThat(ByteRange.parse("bytes=0-", 0).toContentRange(), is("bytes */0"));
+    }
+
+    @Test
+    public void ignoresUnsupportedRanges() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-1", 100));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 100));
+        assertNull(ByteRange.parse("bytes=9-1", 100));
+        assertNull(ByteRange.parse("bytes=a-b", 100));
+        assertNull(ByteRange.parse("bytes=--5", 100));
+    }
+}
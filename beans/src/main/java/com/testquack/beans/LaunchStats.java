@@ -3,6 +3,7 @@ package com.testquack.beans;
 import javax.xml.bind.annotation.XmlElement;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 public class LaunchStats {
 
@@ -35,4 +36,62 @@ public class LaunchStats {
     public void setStatusCounters(Map<LaunchStatus, Integer> statusCounters) {
         this.statusCounters = statusCounters;
     }
+
+    /**
+     * Counts a test case with the given status
+     */
+    public LaunchStats add(LaunchStatus status) {
+        total++;
+        if (status != null) {
+            statusCounters.merge(status, 1, Integer::sum);
+        }
+        return this;
+    }
+
+    /**
+     * Stops counting a test case with the given status
+     */
+    public LaunchStats remove(LaunchStatus status) {
+        total--;
+        if (status != null) {
+            statusCounters.merge(status, -1, Integer::sum);
+        }
+        return this;
+    }
+
+    /**
+     * Moves a counted test case from one status to another
+     */
+    public LaunchStats transition(LaunchStatus previousStatus, LaunchStatus status) {
+        if (previousStatus != status) {
+            remove(previousStatus);
+            add(status);
+        }
+        return this;
+    }
+
+    public LaunchStats copy() {
+        LaunchStats copy = new LaunchStats();
+        copy.setTotal(total);
+        copy.getStatusCounters().putAll(statusCounters);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LaunchStats that = (LaunchStats) o;
+        return total == that.total && Objects.equals(statusCounters, that.statusCounters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, statusCounters);
+    }
+
+    @Override
+    public String toString() {
+        return "LaunchStats{total=" + total + ", statusCounters=" + statusCounters + "}";
+    }
 }
@@ -3,10 +3,15 @@ package com.testquack.beans;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,6 +31,13 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
     protected List<LaunchTestCase> testCases;
     protected List<LaunchTestCaseTree> children;
 
+    /**
+     * Test cases of the whole subtree by uuid, built on the first lookup.
+     * Not serialized and not persisted.
+     */
+    @XmlTransient
+    private transient Map<String, IndexEntry> testCasesIndex;
+
     /**
      * Default no-arg constructor
      *
@@ -41,6 +53,7 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
     public LaunchTestCaseTree(final List<LaunchTestCase> testCases, final List<LaunchTestCaseTree> children) {
         this.testCases = testCases;
         this.children = children;
+        invalidateIndex();
     }
 
     public LaunchTestCaseTree(TestCaseTree testCaseTree){
@@ -84,6 +97,7 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
                 getTestCases().add(value);
             }
         }
+        invalidateIndex();
         return this;
     }
 
@@ -91,6 +105,7 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
         if (values!= null) {
             getTestCases().addAll(values);
         }
+        invalidateIndex();
         return this;
     }
 
@@ -100,6 +115,7 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
                 getChildren().add(value);
             }
         }
+        invalidateIndex();
         return this;
     }
 
@@ -107,6 +123,7 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
         if (values!= null) {
             getChildren().addAll(values);
         }
+        invalidateIndex();
         return this;
     }
 
@@ -121,6 +138,7 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
      */
     public void setTestCases(List<LaunchTestCase> testCases) {
         this.testCases = testCases;
+        invalidateIndex();
     }
 
     /**
@@ -133,6 +151,139 @@ public class LaunchTestCaseTree extends TestCaseTreeBase {
      */
     public void setChildren(List<LaunchTestCaseTree> children) {
         this.children = children;
+        invalidateIndex();
+    }
+
+    /**
+     * Finds a test case anywhere in the tree
+     *
+     * @param uuid
+     *     uuid of the launch test case
+     * @return
+     *     the test case or null if there is none with such uuid
+     */
+    public LaunchTestCase findTestCase(String uuid) {
+        IndexEntry entry = findIndexEntry(uuid);
+        return entry == null ? null : entry.testCase;
+    }
+
+    /**
+     * Finds the path of the test cases list holding a test case, relative to this tree,
+     * e.g. "children.0.testCases"
+     *
+     * @param uuid
+     *     uuid of the launch test case
+     * @return
+     *     the path or null if there is no test case with such uuid
+     */
+    public String findTestCasesPath(String uuid) {
+        IndexEntry entry = findIndexEntry(uuid);
+        return entry == null ? null : entry.testCasesPath;
+    }
+
+    /**
+     * Visits test cases of the tree at all depths, each node before its children
+     */
+    public void forEachTestCase(Consumer<LaunchTestCase> action) {
+        getTestCases().forEach(action);
+        getChildren().forEach(child -> child.forEachTestCase(action));
+    }
+
+    /**
+     * Adds a test case to the root node of the tree keeping the index up to date.
+     * Must be called on the root, indexes of the ancestors of a nested node are not updated.
+     */
+    public LaunchTestCaseTree addTestCase(LaunchTestCase testCase) {
+        getTestCases().add(testCase);
+        if (testCasesIndex != null && testCase.getUuid() != null) {
+            testCasesIndex.put(testCase.getUuid(), new IndexEntry(this, testCase, "testCases"));
+        }
+        return this;
+    }
+
+    /**
+     * Removes a test case from any node of the tree keeping the index up to date.
+     * Must be called on the root, indexes of the nested nodes holding the test case are dropped.
+     *
+     * @return
+     *     the removed test case or null if there is none with such uuid
+     */
+    public LaunchTestCase removeTestCase(String uuid) {
+        IndexEntry entry = findIndexEntry(uuid);
+        if (entry == null) {
+            return null;
+        }
+        Iterator<LaunchTestCase> iterator = entry.node.getTestCases().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == entry.testCase) {
+                iterator.remove();
+                break;
+            }
+        }
+        testCasesIndex.remove(uuid);
+        invalidateNestedIndexes(entry.testCasesPath);
+        return entry.testCase;
+    }
+
+    /**
+     * Drops the uuid index, it is rebuilt on the next lookup.
+     * Setters and with* methods of a node drop its own index, callers modifying the lists
+     * of nested nodes or the returned lists directly have to call it on the root.
+     */
+    public void invalidateIndex() {
+        testCasesIndex = null;
+    }
+
+    // Drops indexes of the nodes on the path from this node to a testCases array, e.g. "children.1.children.0.testCases"
+    private void invalidateNestedIndexes(String testCasesPath) {
+        LaunchTestCaseTree node = this;
+        String[] path = testCasesPath.split("\\.");
+        for (int i = 0; i + 1 < path.length && "children".equals(path[i]); i += 2) {
+            node = node.getChildren().get(Integer.parseInt(path[i + 1]));
+            node.invalidateIndex();
+        }
+    }
+
+    private IndexEntry findIndexEntry(String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        IndexEntry entry = getTestCasesIndex().get(uuid);
+        return entry == null || !uuid.equals(entry.testCase.getUuid()) ? null : entry;
+    }
+
+    private Map<String, IndexEntry> getTestCasesIndex() {
+        if (testCasesIndex == null) {
+            Map<String, IndexEntry> index = new HashMap<>();
+            fillIndex(index, this, "");
+            testCasesIndex = index;
+        }
+        return testCasesIndex;
+    }
+
+    private static void fillIndex(Map<String, IndexEntry> index, LaunchTestCaseTree node, String path) {
+        String testCasesPath = path + "testCases";
+        for (LaunchTestCase testCase : node.getTestCases()) {
+            // The first occurrence wins, same as the former depth-first search
+            if (testCase.getUuid() != null && !index.containsKey(testCase.getUuid())) {
+                index.put(testCase.getUuid(), new IndexEntry(node, testCase, testCasesPath));
+            }
+        }
+        for (int i = 0; i < node.getChildren().size(); i++) {
+            fillIndex(index, node.getChildren().get(i), path + "children." + i + ".");
+        }
+    }
+
+    private static class IndexEntry {
+        private final LaunchTestCaseTree node;
+        private final LaunchTestCase testCase;
+        private final String testCasesPath;
+
+        IndexEntry(LaunchTestCaseTree node, LaunchTestCase testCase, String testCasesPath) {
+            this.node = node;
+            this.testCase = testCase;
+            this.testCasesPath = testCasesPath;
+        }
     }
 
 }
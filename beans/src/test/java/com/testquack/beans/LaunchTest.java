@@ -7,6 +7,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 
 
@@ -62,4 +64,43 @@ public class LaunchTest {
 
     }
 
+    @Test
+    public void findTestCaseByUuid(){
+        LaunchTestCase rootCase = (LaunchTestCase) new LaunchTestCase().withUuid("root").withId("r");
+        LaunchTestCase leafCase = (LaunchTestCase) new LaunchTestCase().withUuid("leaf").withId("l");
+        LaunchTestCaseTree leaf = new LaunchTestCaseTree().withTestCases(leafCase);
+        LaunchTestCaseTree tree = new LaunchTestCaseTree().withTestCases(rootCase).
+                withChildren(new LaunchTestCaseTree(), new LaunchTestCaseTree().withChildren(leaf));
+
+        assertThat(tree.findTestCase("root"), sameInstance(rootCase));
+        assertThat(tree.findTestCasesPath("root"), is("testCases"));
+        assertThat(tree.findTestCase("leaf"), sameInstance(leafCase));
+        assertThat(tree.findTestCasesPath("leaf"), is("children.1.children.0.testCases"));
+        assertThat(tree.findTestCase("missing"), nullValue());
+
+        LaunchTestCase added = (LaunchTestCase) new LaunchTestCase().withUuid("added").withId("a");
+        tree.addTestCase(added);
+        assertThat(tree.findTestCase("added"), sameInstance(added));
+
+        LaunchTestCaseTree middle = tree.getChildren().get(1);
+        assertThat(middle.findTestCase("leaf"), sameInstance(leafCase));
+        assertThat(tree.removeTestCase("leaf"), sameInstance(leafCase));
+        assertThat(tree.findTestCase("leaf"), nullValue());
+        assertThat(middle.findTestCase("leaf"), nullValue());
+        assertThat(leaf.findTestCase("leaf"), nullValue());
+        assertThat(leaf.getTestCases().size(), is(0));
+
+        // Nested nodes modified directly are found once the root index is dropped
+        LaunchTestCase nested = (LaunchTestCase) new LaunchTestCase().withUuid("nested").withId("n");
+        leaf.getTestCases().add(nested);
+        assertThat(tree.findTestCase("nested"), nullValue());
+        tree.invalidateIndex();
+        assertThat(tree.findTestCase("nested"), sameInstance(nested));
+        assertThat(tree.findTestCasesPath("nested"), is("children.1.children.0.testCases"));
+
+        LaunchTestCase withCase = (LaunchTestCase) new LaunchTestCase().withUuid("with").withId("w");
+        tree.withTestCases(withCase);
+        assertThat(tree.findTestCase("with"), sameInstance(withCase));
+    }
+
 }
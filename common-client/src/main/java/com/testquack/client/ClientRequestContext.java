@@ -0,0 +1,58 @@
+package com.testquack.client;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Incoming request on behalf of which outgoing calls of the current thread are made.
+ * Shared clients read cookies and API token from it, so that clients do not depend on a particular request.
+ * Calls must be executed synchronously inside the opened scope.
+ */
+public class ClientRequestContext {
+
+    private static final ThreadLocal<ClientRequestContext> CURRENT = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+    private final String apiToken;
+
+    private ClientRequestContext(HttpServletRequest request, String apiToken) {
+        this.request = request;
+        this.apiToken = apiToken;
+    }
+
+    public static Scope open(HttpServletRequest request) {
+        return open(request, null);
+    }
+
+    public static Scope open(HttpServletRequest request, String apiToken) {
+        ClientRequestContext previous = CURRENT.get();
+        CURRENT.set(new ClientRequestContext(request, apiToken));
+        return new Scope(previous);
+    }
+
+    public static HttpServletRequest getRequest() {
+        ClientRequestContext context = CURRENT.get();
+        return context == null ? null : context.request;
+    }
+
+    public static String getApiToken() {
+        ClientRequestContext context = CURRENT.get();
+        return context == null ? null : context.apiToken;
+    }
+
+    public static class Scope implements AutoCloseable {
+        private final ClientRequestContext previous;
+
+        private Scope(ClientRequestContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
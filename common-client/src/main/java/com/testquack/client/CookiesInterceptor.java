@@ -10,6 +10,13 @@ import java.util.stream.Stream;
 
 public class CookiesInterceptor implements Interceptor {
 
+    /**
+     * Interceptor passing cookies of the request from {@link ClientRequestContext}
+     */
+    public CookiesInterceptor() {
+        this(null);
+    }
+
     public CookiesInterceptor(HttpServletRequest request) {
         this.request = request;
     }
@@ -19,6 +26,7 @@ public class CookiesInterceptor implements Interceptor {
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request.Builder builder = chain.request().newBuilder();
+        HttpServletRequest request = this.request != null ? this.request : ClientRequestContext.getRequest();
         if (request != null && request.getCookies() != null) {
             Stream.of(request.getCookies()).
                     forEach(cookie -> builder.addHeader("Cookie", cookie.getName() + "=" + cookie.getValue()));
@@ -0,0 +1,109 @@
+package com.testquack.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.adapter.java8.Java8CallAdapterFactory;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one client per endpoint, timeout and service interface.
+ * At most MAX_CLIENTS least recently used clients are kept, clients not used for CLIENT_IDLE_MINUTES are dropped,
+ * so launcher and tracker configurations pointing to changing endpoints do not accumulate clients.
+ * All clients share the connection pool and dispatcher, so connections to trackers and launchers are kept alive
+ * between calls instead of being opened for every operation.
+ * Cookies and API token of the incoming request are taken from {@link ClientRequestContext}.
+ */
+public class HttpClientRegistry {
+
+    private static final int MAX_IDLE_CONNECTIONS = 20;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_CLIENTS = 256;
+    private static final long CLIENT_IDLE_MINUTES = 30;
+
+    static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+    private static final OkHttpClient BASE_CLIENT = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .followSslRedirects(true)
+            .build();
+
+    private static final Map<List<Object>, CachedClient> clients = new LinkedHashMap<List<Object>, CachedClient>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedClient> eldest) {
+            return size() > MAX_CLIENTS;
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public static <T> T getClient(String endpoint, long timeout, Class<T> service) {
+        List<Object> key = Arrays.asList(endpoint, timeout, service);
+        long now = System.currentTimeMillis();
+        long expiresAt = now + TimeUnit.MINUTES.toMillis(CLIENT_IDLE_MINUTES);
+        synchronized (clients) {
+            CachedClient cached = clients.get(key);
+            if (cached == null || cached.expiresAt <= now) {
+                // Creating a client only builds a proxy, no connection is opened
+                clients.values().removeIf(client -> client.expiresAt <= now);
+                cached = new CachedClient(createRetrofit(endpoint, timeout).create(service));
+                clients.put(key, cached);
+            }
+            cached.expiresAt = expiresAt;
+            return (T) cached.client;
+        }
+    }
+
+    /**
+     * Client builder sharing the connection pool and dispatcher of all clients
+     */
+    static OkHttpClient.Builder newClientBuilder(long timeout) {
+        return BASE_CLIENT.newBuilder()
+                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                .writeTimeout(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    static Retrofit.Builder newRetrofitBuilder(String endpoint, OkHttpClient client) {
+        return (new Retrofit.Builder()).client(client)
+                .baseUrl(endpoint)
+                .addConverterFactory(JacksonConverterFactory.create(OBJECT_MAPPER))
+                .addCallAdapterFactory(Java8CallAdapterFactory.create());
+    }
+
+    private static Retrofit createRetrofit(String endpoint, long timeout) {
+        OkHttpClient client = newClientBuilder(timeout)
+                .addInterceptor(new CookiesInterceptor())
+                .addInterceptor(new TokenInterceptor())
+                .build();
+        return newRetrofitBuilder(endpoint, client).build();
+    }
+
+    private static class CachedClient {
+        private final Object client;
+        private long expiresAt;
+
+        private CachedClient(Object client) {
+            this.client = client;
+        }
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper jacksonMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .configure(DeserializationFeature.FAIL_ON_INVALID_SUBTYPE, false)
+                .configure(DeserializationFeature.FAIL_ON_MISSING_EXTERNAL_TYPE_ID_PROPERTY, false)
+                .configure(DeserializationFeature.FAIL_ON_UNRESOLVED_OBJECT_IDS, false)
+                .configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL, true);
+        jacksonMapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector());
+        return jacksonMapper;
+    }
+}
@@ -12,6 +12,13 @@ public class TokenInterceptor implements Interceptor {
 
     private final String apiToken;
 
+    /**
+     * Interceptor passing the API token from {@link ClientRequestContext}
+     */
+    public TokenInterceptor() {
+        this(null);
+    }
+
     public TokenInterceptor(String apiToken) {
         this.apiToken = apiToken;
     }
@@ -19,6 +26,7 @@ public class TokenInterceptor implements Interceptor {
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request.Builder builder = chain.request().newBuilder();
+        String apiToken = this.apiToken != null ? this.apiToken : ClientRequestContext.getApiToken();
         if (apiToken != null && !"".equals(apiToken)) {
             builder.addHeader(API_TOKEN_HEADER, apiToken);
         }
@@ -0,0 +1,92 @@
+package com.testquack.dal;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a single chunk of a bulk save
+ */
+public class BulkWriteReport {
+
+    private final int chunk;
+    private final int size;
+    private int inserted;
+    private int matched;
+    private int modified;
+    private int upserted;
+    private final List<String> errors = new ArrayList<>();
+    private DataAccessException failure;
+
+    public BulkWriteReport(int chunk, int size) {
+        this.chunk = chunk;
+        this.size = size;
+    }
+
+    public BulkWriteReport withResult(BulkWriteResult result) {
+        if (result != null && result.wasAcknowledged()) {
+            inserted = result.getInsertedCount();
+            matched = result.getMatchedCount();
+            modified = result.getModifiedCount();
+            upserted = result.getUpserts().size();
+        }
+        return this;
+    }
+
+    /**
+     * Zero based number of the chunk in the saved collection
+     */
+    public int getChunk() {
+        return chunk;
+    }
+
+    /**
+     * Number of entities sent in the chunk
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getModified() {
+        return modified;
+    }
+
+    public int getUpserted() {
+        return upserted;
+    }
+
+    /**
+     * Write errors of the chunk, unordered mode keeps writing entities after an error
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public DataAccessException getFailure() {
+        return failure;
+    }
+
+    public void setFailure(DataAccessException failure) {
+        this.failure = failure;
+    }
+
+    public boolean isSuccessful() {
+        return failure == null && errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "chunk " + chunk + " of " + size + " entities: inserted " + inserted + ", matched " + matched +
+                ", modified " + modified + ", upserted " + upserted + ", errors " + errors;
+    }
+}
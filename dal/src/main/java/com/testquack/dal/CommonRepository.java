@@ -4,11 +4,18 @@ import com.testquack.beans.Filter;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CommonRepository<E> {
 
     List<E> find(String organizationId, String projectId, Filter filter);
 
+    /**
+     * Lazily reads filtered entities with a database cursor.
+     * The stream holds the cursor open and has to be closed by the caller.
+     */
+    Stream<E> stream(String organizationId, String projectId, Filter filter);
+
     long count(String organizationId, String projectId, Filter filter);
 
     E findOne(String organizationId, String projectId, String id);
@@ -17,8 +24,17 @@ public interface CommonRepository<E> {
 
     E save(String organizationId, String projectId, E entity);
 
+    /**
+     * Saves entities with bulk writes, the first failed chunk is rethrown when all chunks are written
+     */
     Collection<E> save(String organizationId, String projectId, Collection<E> entities);
 
+    /**
+     * Saves entities with unordered bulk writes split into chunks.
+     * Write errors do not interrupt saving, they are reported per chunk.
+     */
+    List<BulkWriteReport> bulkSave(String organizationId, String projectId, Collection<E> entities);
+
     void delete(String organizationId, String projectId, String entityId);
 
     void delete(String organizationId, String projectId, Filter filter);
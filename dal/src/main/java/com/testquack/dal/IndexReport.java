@@ -0,0 +1,45 @@
+package com.testquack.dal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index state of a single collection compared to the declared index set
+ */
+public class IndexReport {
+
+    private final String collectionName;
+    private final List<String> missingIndexes = new ArrayList<>();
+    private final List<String> unusedIndexes = new ArrayList<>();
+
+    public IndexReport(String collectionName) {
+        this.collectionName = collectionName;
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * Keys of declared indexes absent in the collection
+     */
+    public List<String> getMissingIndexes() {
+        return missingIndexes;
+    }
+
+    /**
+     * Names of existing indexes which have not been used since the database server start
+     */
+    public List<String> getUnusedIndexes() {
+        return unusedIndexes;
+    }
+
+    public boolean isEmpty() {
+        return missingIndexes.isEmpty() && unusedIndexes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return collectionName + ": missing " + missingIndexes + ", unused " + unusedIndexes;
+    }
+}
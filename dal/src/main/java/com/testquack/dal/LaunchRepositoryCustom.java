@@ -1,5 +1,94 @@
 package com.testquack.dal;
 
 
+import com.testquack.beans.Filter;
+import com.testquack.beans.Launch;
+import com.testquack.beans.LaunchStatistics;
+import com.testquack.beans.LaunchTestcaseStats;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public interface LaunchRepositoryCustom {
+
+    /**
+     * Atomically replaces launch test cases inside the launch tree and moves their
+     * status counters from the previous status to the test case's current status.
+     * The whole batch is applied only if every test case still has its previous status.
+     *
+     * @return true if the launch has been modified
+     */
+    boolean updateLaunchTestCases(String organizationId, String projectId, String launchId,
+                                  List<LaunchTestCasePatch> patches, String modifiedBy, long modifiedTime);
+
+    /**
+     * Loads launch without test cases tree - stats and times only
+     */
+    Launch findLaunchSummary(String organizationId, String projectId, String launchId);
+
+    /**
+     * Loads launch without test cases tree and only the test cases with the given uuids, found at any depth of the tree
+     *
+     * @return the selection or null if there is no such launch
+     */
+    LaunchTestCasesSelection findLaunchTestCases(String organizationId, String projectId, String launchId,
+                                                 Collection<String> uuids);
+
+    /**
+     * Sums durations of the launch test cases in the database without loading the test cases tree
+     */
+    long getLaunchDuration(String organizationId, String projectId, String launchId);
+
+    /**
+     * Loads the filtered launches with only the fields their removal changes in the statistics view:
+     * ids, deletion flags and test case ids, statuses and users at every depth of the tree
+     */
+    List<Launch> findLaunchesForRemoval(String organizationId, String projectId, Filter filter);
+
+    /**
+     * Removes the launches with the given ids
+     *
+     * @return ids of the launches removed by this call, the ones removed concurrently are not included
+     */
+    Set<String> deleteLaunches(String organizationId, String projectId, Collection<String> ids);
+
+    boolean markLaunchStarted(String organizationId, String projectId, String launchId, long startTime);
+
+    boolean markLaunchFinished(String organizationId, String projectId, String launchId, long finishTime, long duration);
+
+    /**
+     * Aggregated times, status counters and per-user test case counts of the filtered launches,
+     * keyed by "all"
+     */
+    Map<String, LaunchStatistics> getLaunchesStatistics(String organizationId, String projectId, Filter filter);
+
+    /**
+     * Per test case status counters over the filtered launches, keyed by test case id
+     */
+    Map<String, LaunchTestcaseStats> getTestcasesStatistics(String organizationId, String projectId, Filter filter);
+
+    /**
+     * Applies a change to the project launch statistics view.
+     * Only the documents of the changed launch, its test cases and users are written.
+     */
+    void updateStatisticsView(String organizationId, String projectId, LaunchStatisticsDelta delta);
+
+    /**
+     * Same as {@link #getLaunchesStatistics} for all not deleted launches, read from the statistics view
+     */
+    Map<String, LaunchStatistics> findLaunchesStatisticsView(String organizationId, String projectId);
+
+    /**
+     * Same as {@link #getTestcasesStatistics} for all not deleted launches, read from the statistics view.
+     * Only the given number of test cases with the highest failure rate are read, in that order.
+     */
+    Map<String, LaunchTestcaseStats> findTestcasesStatisticsView(String organizationId, String projectId, int limit);
+
+    /**
+     * Recomputes the project launch statistics view from the stored launches.
+     * Documents changed by launch updates while it runs are kept as they are.
+     */
+    void rebuildStatisticsView(String organizationId, String projectId);
 }
@@ -0,0 +1,281 @@
+package com.testquack.dal;
+
+import com.testquack.beans.Launch;
+import com.testquack.beans.LaunchStatus;
+import com.testquack.beans.LaunchTestCase;
+import com.testquack.beans.LaunchTestCaseTree;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Change of the per-project launch statistics view caused by a launch modification.
+ * The view keeps a small document per launch, per test case and per user, so a change touches
+ * only the documents of the launch, test cases and users it concerns.
+ * Launch documents are written from the whole launch and removed with it, test case and user counters are incremented.
+ */
+public class LaunchStatisticsDelta {
+
+    public static final String TYPE = "type";
+    public static final String KEY = "key";
+    public static final String VERSION = "version";
+    public static final String LAUNCH = "launch";
+    public static final String TESTCASE = "testcase";
+    public static final String USER = "user";
+
+    public static final String TOTAL = "total";
+    public static final String COUNT = "count";
+    public static final String STATUS_COUNTERS = "statusCounters";
+    public static final String NAME = "name";
+    public static final String START = "start";
+    public static final String FINISH = "finish";
+
+    private final Map<String, DocumentDelta> documents = new HashMap<>();
+    private final Set<String> removals = new HashSet<>();
+
+    public static LaunchStatisticsDelta ofCreatedLaunch(Launch launch) {
+        LaunchStatisticsDelta delta = new LaunchStatisticsDelta();
+        delta.addLaunch(launch, 1);
+        return delta;
+    }
+
+    public static LaunchStatisticsDelta ofRemovedLaunch(Launch launch) {
+        LaunchStatisticsDelta delta = new LaunchStatisticsDelta();
+        delta.addLaunch(launch, -1);
+        return delta;
+    }
+
+    public static LaunchStatisticsDelta ofUpdatedLaunch(Launch previous, Launch current) {
+        LaunchStatisticsDelta delta = new LaunchStatisticsDelta();
+        delta.addLaunch(previous, -1);
+        delta.addLaunch(current, 1);
+        return delta;
+    }
+
+    /**
+     * Launch document of an updated launch, changes of its test cases are added by {@link #withTestCaseChange}
+     */
+    public static LaunchStatisticsDelta ofUpdatedLaunchDocument(Launch launch) {
+        LaunchStatisticsDelta delta = new LaunchStatisticsDelta();
+        delta.addLaunchDocument(launch);
+        return delta;
+    }
+
+    /**
+     * @param launchId - launch containing the test case
+     * @param previous - test case state before the update, must be a copy if the test case has been modified in place
+     * @param current - test case state after the update
+     */
+    public static LaunchStatisticsDelta ofUpdatedTestCase(String launchId, LaunchTestCase previous, LaunchTestCase current) {
+        LaunchStatisticsDelta delta = new LaunchStatisticsDelta();
+        delta.addTestCase(launchId, previous, -1);
+        delta.addTestCase(launchId, current, 1);
+        return delta;
+    }
+
+    public LaunchStatisticsDelta withExecution(String launchId, long startTime, long finishTime) {
+        getDocument(LAUNCH, launchId).
+                set(START, startTime).
+                set(FINISH, finishTime);
+        return this;
+    }
+
+    /**
+     * Changes test case and user counters only, the launch document is expected to be written as a whole
+     *
+     * @param previous - test case state before the update or null if it has been added
+     * @param current - test case state after the update or null if it has been removed
+     */
+    public LaunchStatisticsDelta withTestCaseChange(LaunchTestCase previous, LaunchTestCase current) {
+        if (previous != null) {
+            addTestCaseUsersAndHeat(previous, -1);
+        }
+        if (current != null) {
+            addTestCaseUsersAndHeat(current, 1);
+        }
+        return this;
+    }
+
+    public LaunchStatisticsDelta merge(LaunchStatisticsDelta other) {
+        other.removals.forEach(this::remove);
+        other.documents.forEach((id, document) -> {
+            DocumentDelta merged = documents.computeIfAbsent(id, key -> new DocumentDelta(document.type, document.key));
+            if (document.created) {
+                removals.remove(id);
+                merged.created = true;
+                merged.increments.clear();
+            }
+            document.increments.forEach(merged::increment);
+            document.values.forEach(merged::set);
+        });
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return removals.isEmpty() && documents.values().stream().allMatch(DocumentDelta::isEmpty);
+    }
+
+    /**
+     * Changed documents keyed by their id
+     */
+    public Map<String, DocumentDelta> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Ids of the removed documents
+     */
+    public Set<String> getRemovals() {
+        return removals;
+    }
+
+    public static String getDocumentId(String type, String key) {
+        return type + ":" + key;
+    }
+
+    private void addLaunch(Launch launch, int sign) {
+        if (launch == null || launch.isDeleted()) {
+            return;
+        }
+        if (!StringUtils.isEmpty(launch.getId())) {
+            if (sign > 0) {
+                addLaunchDocument(launch);
+            } else {
+                remove(getDocumentId(LAUNCH, launch.getId()));
+            }
+        }
+        if (launch.getTestCaseTree() != null) {
+            addTestCaseUsersAndHeat(launch.getTestCaseTree(), sign);
+        }
+    }
+
+    private void addLaunchDocument(Launch launch) {
+        if (launch == null || launch.isDeleted() || StringUtils.isEmpty(launch.getId())) {
+            return;
+        }
+        DocumentDelta document = getDocument(LAUNCH, launch.getId());
+        removals.remove(document.getId());
+        document.created = true;
+        document.increments.clear();
+        document.set(TOTAL, launch.getLaunchStats() == null ? 0 : launch.getLaunchStats().getTotal());
+        for (LaunchStatus status : LaunchStatus.values()) {
+            Integer counter = launch.getLaunchStats() == null ? null :
+                    launch.getLaunchStats().getStatusCounters().get(status);
+            document.set(STATUS_COUNTERS + "." + status, counter == null ? 0 : counter);
+        }
+        withExecution(launch.getId(), launch.getStartTime(), launch.getFinishTime());
+    }
+
+    private void addTestCaseUsersAndHeat(LaunchTestCaseTree tree, int sign) {
+        tree.getTestCases().forEach(testCase -> addTestCaseUsersAndHeat(testCase, sign));
+        tree.getChildren().forEach(child -> addTestCaseUsersAndHeat(child, sign));
+    }
+
+    private void addTestCase(String launchId, LaunchTestCase testCase, int sign) {
+        if (testCase.getLaunchStatus() != null && !StringUtils.isEmpty(launchId)) {
+            getDocument(LAUNCH, launchId).increment(STATUS_COUNTERS + "." + testCase.getLaunchStatus(), sign);
+        }
+        addTestCaseUsersAndHeat(testCase, sign);
+    }
+
+    private void addTestCaseUsersAndHeat(LaunchTestCase testCase, int sign) {
+        testCase.getUsers().stream().
+                filter(user -> !StringUtils.isEmpty(user)).
+                forEach(user -> getDocument(USER, user).increment(COUNT, sign));
+        if (StringUtils.isEmpty(testCase.getId())) {
+            return;
+        }
+        DocumentDelta document = getDocument(TESTCASE, testCase.getId());
+        document.increment(TOTAL, sign);
+        LaunchStatus status = testCase.getLaunchStatus();
+        if (status != null) {
+            document.increment(status.toString(), sign);
+        }
+        if (sign > 0) {
+            document.set(NAME, !StringUtils.isEmpty(testCase.getName()) ? testCase.getName() :
+                    StringUtils.isEmpty(testCase.getImportedName()) ? "" : testCase.getImportedName());
+        }
+    }
+
+    private DocumentDelta getDocument(String type, String key) {
+        return documents.computeIfAbsent(getDocumentId(type, key), id -> new DocumentDelta(type, key));
+    }
+
+    private void remove(String id) {
+        documents.remove(id);
+        removals.add(id);
+    }
+
+    /**
+     * Increments and values of a single view document
+     */
+    public static class DocumentDelta {
+        private final String type;
+        private final String key;
+        private final Map<String, Long> increments = new HashMap<>();
+        private final Map<String, Object> values = new HashMap<>();
+        private boolean created;
+
+        DocumentDelta(String type, String key) {
+            this.type = type;
+            this.key = key;
+        }
+
+        public String getId() {
+            return getDocumentId(type, key);
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Map<String, Long> getIncrements() {
+            return increments;
+        }
+
+        public Map<String, Object> getValues() {
+            return values;
+        }
+
+        /**
+         * Launch documents are only created from the whole launch, a change of a launch missing in the view is dropped
+         * instead of creating a partial document. Counters of test cases and users are created by their first change.
+         */
+        public boolean isUpsert() {
+            return created || !LAUNCH.equals(type);
+        }
+
+        public boolean isEmpty() {
+            return increments.isEmpty() && values.isEmpty();
+        }
+
+        private DocumentDelta increment(String field, long value) {
+            Object current = values.get(field);
+            if (current instanceof Number) {
+                values.put(field, ((Number) current).longValue() + value);
+                return this;
+            }
+            long result = increments.getOrDefault(field, 0L) + value;
+            if (result == 0) {
+                increments.remove(field);
+            } else {
+                increments.put(field, result);
+            }
+            return this;
+        }
+
+        private DocumentDelta set(String field, Object value) {
+            increments.remove(field);
+            values.put(field, value);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.testquack.dal;
+
+import com.testquack.beans.LaunchStatus;
+import com.testquack.beans.LaunchTestCase;
+
+/**
+ * Single launch test case replacement applied in place inside the launch tree
+ */
+public class LaunchTestCasePatch {
+
+    private final String testCasesPath;
+    private final LaunchTestCase launchTestCase;
+    private final LaunchStatus previousStatus;
+
+    /**
+     * @param testCasesPath - path to the testCases array holding the test case, e.g. testCaseTree.children.1.testCases
+     * @param launchTestCase - new state of the test case
+     * @param previousStatus - status the test case is expected to have in the database
+     */
+    public LaunchTestCasePatch(String testCasesPath, LaunchTestCase launchTestCase, LaunchStatus previousStatus) {
+        this.testCasesPath = testCasesPath;
+        this.launchTestCase = launchTestCase;
+        this.previousStatus = previousStatus;
+    }
+
+    public String getTestCasesPath() {
+        return testCasesPath;
+    }
+
+    public LaunchTestCase getLaunchTestCase() {
+        return launchTestCase;
+    }
+
+    public LaunchStatus getPreviousStatus() {
+        return previousStatus;
+    }
+}
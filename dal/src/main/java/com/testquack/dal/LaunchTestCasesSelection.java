@@ -0,0 +1,48 @@
+package com.testquack.dal;
+
+import com.testquack.beans.Launch;
+import com.testquack.beans.LaunchTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Launch loaded without its test cases tree together with a few selected test cases
+ * and the paths of the testCases arrays holding them
+ */
+public class LaunchTestCasesSelection {
+
+    private final Launch launch;
+    private final Map<String, LaunchTestCase> testCases = new HashMap<>();
+    private final Map<String, String> testCasesPaths = new HashMap<>();
+
+    public LaunchTestCasesSelection(Launch launch) {
+        this.launch = launch;
+    }
+
+    /**
+     * @param testCasesPath - path to the testCases array holding the test case, e.g. testCaseTree.children.1.testCases
+     */
+    public LaunchTestCasesSelection withTestCase(String testCasesPath, LaunchTestCase testCase) {
+        if (!testCases.containsKey(testCase.getUuid())) {
+            testCases.put(testCase.getUuid(), testCase);
+            testCasesPaths.put(testCase.getUuid(), testCasesPath);
+        }
+        return this;
+    }
+
+    public Launch getLaunch() {
+        return launch;
+    }
+
+    /**
+     * @return the test case or null if it was not selected or there is no test case with such uuid
+     */
+    public LaunchTestCase getTestCase(String uuid) {
+        return testCases.get(uuid);
+    }
+
+    public String getTestCasesPath(String uuid) {
+        return testCasesPaths.get(uuid);
+    }
+}
@@ -1,5 +1,7 @@
 package com.testquack.dal;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoCredential;
 import com.mongodb.MongoClientSettings;
@@ -23,6 +25,8 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
     @Value("${mongo.replicaSet}")
     String replicaSet;
 
@@ -60,10 +64,8 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
                         builder.hosts(addresses)
                 );
 
-System.out.println("MongoConfig::mongoClient - username: " + username );
-System.out.println("MongoConfig::mongoClient - dbname: " + dbname );
-System.out.println("MongoConfig::mongoClient - password: " + password );
-System.out.flush();
+        logger.debug("MongoConfig::mongoClient - username: {}", username);
+        logger.debug("MongoConfig::mongoClient - dbname: {}", dbname);
 
 
         if (!isEmpty(username)){
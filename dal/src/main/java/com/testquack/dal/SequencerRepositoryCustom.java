@@ -0,0 +1,13 @@
+package com.testquack.dal;
+
+import com.testquack.beans.Sequencer;
+
+public interface SequencerRepositoryCustom {
+
+    /**
+     * Atomically advances the sequencer by the given number of indexes, creating it if missing
+     *
+     * @return sequencer holding the last reserved index
+     */
+    Sequencer increment(String sequencerId, long count);
+}
@@ -0,0 +1,7 @@
+package com.testquack.dal;
+
+import org.springframework.data.repository.PagingAndSortingRepository;
+import com.testquack.beans.StoredBlob;
+
+public interface StoredBlobRepository extends StoredBlobRepositoryCustom, PagingAndSortingRepository<StoredBlob, String> {
+}
@@ -0,0 +1,27 @@
+package com.testquack.dal;
+
+import com.testquack.beans.StoredBlob;
+
+public interface StoredBlobRepositoryCustom {
+
+    /**
+     * Adds a reference to the blob, creating it with the url if it doesn't exist
+     *
+     * @return the referenced blob, its url differs from the given one if the blob existed
+     */
+    StoredBlob addReference(String blobId, String url);
+
+    /**
+     * Adds a reference to an existing blob
+     *
+     * @return the referenced blob or null if it doesn't exist
+     */
+    StoredBlob addReference(String blobId);
+
+    /**
+     * Removes a reference to the blob and the blob itself when it is not referenced anymore
+     *
+     * @return the removed blob or null if it is still referenced
+     */
+    StoredBlob removeReference(String blobId);
+}
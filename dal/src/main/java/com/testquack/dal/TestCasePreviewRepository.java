@@ -4,6 +4,6 @@ import com.testquack.beans.TestCase;
 import com.testquack.beans.TestCasePreview;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
-public interface TestCasePreviewRepository extends TestCaseRepositoryCustom,
+public interface TestCasePreviewRepository extends TestCasePreviewRepositoryCustom,
         PagingAndSortingRepository<TestCase, String>, CommonRepository<TestCasePreview> {
 }
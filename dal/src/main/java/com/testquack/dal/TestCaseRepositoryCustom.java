@@ -1,5 +1,28 @@
 package com.testquack.dal;
 
 
+import com.testquack.beans.Filter;
+import com.testquack.beans.TestCasePreview;
+
+import java.util.List;
+import java.util.Map;
+
 public interface TestCaseRepositoryCustom {
+
+    /**
+     * Counts filtered test cases for every node of a tree grouped by the given attributes.
+     * Keys are attribute values from the root down to the node, the empty key holds the total.
+     * A test case is counted once in every group of each of its values,
+     * test cases without values of an attribute are counted in the unknown group.
+     */
+    Map<List<String>, Integer> countByGroups(String organizationId, String projectId, Filter filter,
+                                             List<String> groups, String unknownGroup);
+
+    /**
+     * Filtered test case previews of a single tree node, paged by the filter
+     *
+     * @param groupValues - attribute value of every group from the root down to the node
+     */
+    List<TestCasePreview> findInGroup(String organizationId, String projectId, Filter filter,
+                                      Map<String, String> groupValues, String unknownGroup);
 }
@@ -1,5 +1,7 @@
 package com.testquack.dal;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -12,6 +14,8 @@ import javax.crypto.spec.SecretKeySpec;
 
 public class aes {
 
+  private static final Logger logger = LoggerFactory.getLogger(aes.class);
+
   private static SecretKeySpec secretKey;
   private static byte[] key;
 
@@ -24,7 +28,7 @@ public class aes {
       key = Arrays.copyOf(key, 16);
       secretKey = new SecretKeySpec(key, "AES");
     } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
-      e.printStackTrace();
+      logger.warn("Unable to set encryption key", e);
     }
   }
 
@@ -36,7 +40,7 @@ public class aes {
       return Base64.getEncoder()
         .encodeToString(cipher.doFinal(strToEncrypt.getBytes("UTF-8")));
     } catch (Exception e) {
-      System.out.println("Error while encrypting: " + e.toString());
+        logger.trace("Error while encrypting: {}", e.toString());
     }
     return null;
   }
@@ -49,7 +53,7 @@ public class aes {
       return new String(cipher.doFinal(Base64.getDecoder()
         .decode(strToDecrypt.getBytes("UTF-8"))), Charset.forName("UTF-8"));
     } catch (Exception e) {
-      System.out.println("Error while decrypting: " + e.toString());
+        logger.trace("Error while decrypting: {}", e.toString());
     }
     return null;
   }
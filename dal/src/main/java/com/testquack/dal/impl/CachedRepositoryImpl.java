@@ -0,0 +1,64 @@
+package com.testquack.dal.impl;
+
+import com.testquack.beans.EntityPreview;
+import com.testquack.beans.Filter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Repository of rarely changed entities read through {@link EntityCache}.
+ * Single entities and whole collections requested with an empty filter are cached,
+ * writes made through the repository evict them.
+ */
+public abstract class CachedRepositoryImpl<E extends EntityPreview> extends CommonRepositoryImpl<E> {
+
+    private static final String ALL_ENTITIES_KEY = "*";
+
+    @Autowired
+    EntityCache entityCache;
+
+    protected abstract String getCacheName();
+
+    @Override
+    public E findOne(String organizationId, String projectId, String id) {
+        return entityCache.get(getCacheName(), getCacheKey(organizationId, projectId, id),
+                () -> super.findOne(organizationId, projectId, id));
+    }
+
+    @Override
+    public List<E> find(String organizationId, String projectId, Filter filter) {
+        if (!isUnrestricted(filter)) {
+            return super.find(organizationId, projectId, filter);
+        }
+        return entityCache.get(getCacheName(), getCacheKey(organizationId, projectId, ALL_ENTITIES_KEY), () -> {
+            List<E> entities = super.find(organizationId, projectId, filter);
+            return entities == null ? null : new ArrayList<>(entities);
+        });
+    }
+
+    @Override
+    protected void afterWrite(String organizationId, String projectId, String entityId) {
+        entityCache.evict(getCacheName(), getCacheKey(organizationId, projectId, entityId));
+        entityCache.evict(getCacheName(), getCacheKey(organizationId, projectId, ALL_ENTITIES_KEY));
+    }
+
+    @Override
+    protected void afterFilteredWrite(String organizationId, String projectId) {
+        entityCache.evictAll(getCacheName());
+    }
+
+    private String getCacheKey(String organizationId, String projectId, String id) {
+        return getCollectionName(organizationId, projectId) + ":" + id;
+    }
+
+    private static boolean isUnrestricted(Filter filter) {
+        return filter.getFields().isEmpty() && filter.getNotFields().isEmpty() &&
+                filter.getIncludedFields().isEmpty() && filter.getExcludedFields().isEmpty() &&
+                isEmpty(filter.getSortField()) && isEmpty(filter.getFulltext()) &&
+                filter.getSkip() == 0 && filter.getLimit() == 0;
+    }
+}
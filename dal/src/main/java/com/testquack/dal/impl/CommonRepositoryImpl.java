@@ -2,7 +2,15 @@ package com.testquack.dal.impl;
 
 import com.testquack.beans.Project;
 import com.testquack.beans.EntityPreview;
+import com.testquack.dal.BulkWriteReport;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -12,59 +20,62 @@ import com.testquack.beans.Order;
 import com.testquack.beans.TestcaseSizes;
 import com.testquack.dal.CommonRepository;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.StreamUtils;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 public abstract class CommonRepositoryImpl<E extends EntityPreview> implements CommonRepository<E> {
 
+    private static final Logger logger = LoggerFactory.getLogger(CommonRepositoryImpl.class);
+
     @Autowired
     MongoOperations mongoOperations;
 
+    @Autowired
+    IndexManager indexManager;
+
+    @Value("${mongo.cursor.batch.size:500}")
+    int cursorBatchSize;
+
+    @Value("${mongo.bulk.chunk.size:1000}")
+    int bulkChunkSize;
+
     public abstract Class<E> getEntityClass();
 
     @Override
     public List<E> find(String organizationId, String projectId, Filter filter) {
-System.out.println("CommonRepositoryImpl::find - projectId: " + projectId);
-System.out.println("CommonRepositoryImpl::find - filter: " + filter);
-System.out.flush();
+        logger.debug("CommonRepositoryImpl::find - projectId: {}", projectId);
+        logger.trace("CommonRepositoryImpl::find - filter: {}", filter);
 
         String collName = getCollectionName(organizationId, projectId);
-        System.out.println("collName - " + collName);
-        System.out.println("entity class - " + getEntityClass());
-        System.out.println("query - " + DBUtils.getQuery(getEntityClass(), filter));
-        System.out.flush();
-
-	try {
-
-           List<E> listEntity = mongoOperations.find(DBUtils.getQuery(getEntityClass(), filter),
-                   getEntityClass(),
-                   getCollectionName(organizationId, projectId));
-
-	   return listEntity;
+        logger.debug("collName - {}", collName);
+        logger.debug("entity class - {}", getEntityClass());
+        Query query = DBUtils.getQuery(getEntityClass(), filter);
+        logger.trace("query - {}", query);
 
-	} catch (Exception e) {
-	   e.printStackTrace();
-	}
-System.out.println("End of CommonRepoImpol find");
-System.out.flush();
+        try {
+            return mongoOperations.find(query, getEntityClass(), collName);
+        } catch (Exception e) {
+            logger.warn("Unable to find entities in {}", collName, e);
+        }
+        logger.debug("End of CommonRepoImpol find");
 
         return null;
+    }
 
-/*
-        return mongoOperations.find(DBUtils.getQuery(getEntityClass(), filter),
-                getEntityClass(),
-                getCollectionName(organizationId, projectId));
-*/
-
-
+    @Override
+    public Stream<E> stream(String organizationId, String projectId, Filter filter) {
+        Query query = DBUtils.getQuery(getEntityClass(), filter).cursorBatchSize(cursorBatchSize);
+        return StreamUtils.createStreamFromIterator(
+                mongoOperations.stream(query, getEntityClass(), getCollectionName(organizationId, projectId)));
     }
 
     @Override
     public long count(String organizationId, String projectId, Filter filter) {
-System.out.println("CommonRepositoryImpl::count");
-System.out.flush();
+        logger.debug("CommonRepositoryImpl::count");
 
         return mongoOperations.count(DBUtils.getQuery(getEntityClass(), filter),
                 getEntityClass(),
@@ -74,70 +85,121 @@ System.out.flush();
 
     @Override
     public E save(String organizationId, String projectId, E entity) {
-System.out.println("CommonRepositoryImpl::save - entity: " + entity);
-System.out.flush();
-
-if (entity instanceof Project) {
-   Project proj = (Project)entity;
-   if (proj.getReadWriteUsers() == null || proj.getReadWriteUsers().size() == 0) {
-      System.out.println("CommonRepositoryImpl::save - readWriteUsers: " + proj.getReadWriteUsers());
-      System.out.println("CommonRepositoryImpl::save - collectionName: " + getCollectionName(null, projectId));
-      System.out.println("CommonRepositoryImpl::save - entity class: " +  getEntityClass());
-      System.out.flush();
-   }
-}
+        logger.trace("CommonRepositoryImpl::save - entity: {}", entity);
+
+        if (logger.isTraceEnabled() && entity instanceof Project) {
+            Project proj = (Project) entity;
+            if (proj.getReadWriteUsers() == null || proj.getReadWriteUsers().size() == 0) {
+                logger.trace("CommonRepositoryImpl::save - readWriteUsers: {}", proj.getReadWriteUsers());
+                logger.trace("CommonRepositoryImpl::save - entity class: {}", getEntityClass());
+            }
+        }
         mongoOperations.save(entity, getCollectionName(organizationId, projectId));
+        afterWrite(organizationId, projectId, entity.getId());
         return entity;
     }
 
     @Override
     public void delete(String organizationId, String projectId, String entityId) {
-System.out.println("CommonRepositoryImpl::delete");
-System.out.flush();
+        logger.debug("CommonRepositoryImpl::delete");
 
         E entity = findOne(organizationId, projectId, entityId);
         mongoOperations.remove(entity, getCollectionName(organizationId, projectId));
+        afterWrite(organizationId, projectId, entityId);
     }
 
     public static String getCollectionName(String organizationId, String projectId, Class clazz) {
-System.out.println("CommonRepositoryImpl::getCollectionName");
-System.out.flush();
+        logger.debug("CommonRepositoryImpl::getCollectionName");
 
         return isEmpty(organizationId) ?
                 projectId + "_" + clazz.getSimpleName() :
                 organizationId + "_" + projectId + "_" + clazz.getSimpleName();
     }
 
+    /**
+     * Called after the entity has been saved or deleted, repositories caching entities evict them here
+     */
+    protected void afterWrite(String organizationId, String projectId, String entityId) {
+    }
+
+    /**
+     * Called after entities matching a filter have been modified
+     */
+    protected void afterFilteredWrite(String organizationId, String projectId) {
+    }
+
     protected String getCollectionName(String organizationId, String projectId){
-System.out.println("CommonRepositoryImpl::getCollectionName");
-System.out.flush();
+        logger.debug("CommonRepositoryImpl::getCollectionName");
 
-        return getCollectionName(organizationId, projectId, getEntityClass());
+        String collectionName = getCollectionName(organizationId, projectId, getEntityClass());
+        indexManager.ensureIndexes(collectionName, getEntityClass());
+        return collectionName;
     }
 
     @Override
     public E findOne(String organizationId, String projectId, String id) {
 
-System.out.println("CommonRepositoryImpl::findOne - getCollectionName: " + getCollectionName(organizationId, projectId));
-System.out.println("CommonRepositoryImpl::findOne - getEntityClass: " + getEntityClass());
-System.out.println("CommonRepositoryImpl::findOne - id: " + id);
-System.out.flush();
-        E e = mongoOperations.findOne(new Query(Criteria.where("id").is(id)), getEntityClass(), getCollectionName(organizationId, projectId));
-System.out.println("CommonRepositoryImpl::findOne - after findOne, entity: " + e);
-System.out.flush();
+        String collectionName = getCollectionName(organizationId, projectId);
+        logger.trace("CommonRepositoryImpl::findOne - getCollectionName: {}", collectionName);
+        logger.debug("CommonRepositoryImpl::findOne - getEntityClass: {}", getEntityClass());
+        logger.debug("CommonRepositoryImpl::findOne - id: {}", id);
+        E e = mongoOperations.findOne(new Query(Criteria.where("id").is(id)), getEntityClass(), collectionName);
+        logger.trace("CommonRepositoryImpl::findOne - after findOne, entity: {}", e);
         return e;
-        //return mongoOperations.findOne(new Query(Criteria.where("id").is(id)), getEntityClass(), getCollectionName(organizationId, projectId));
     }
 
     @Override
     public Collection<E> save(String organizationId, String projectId, Collection<E> entities) {
-System.out.println("CommonRepositoryImpl::save");
-System.out.flush();
-
-        entities.forEach(element -> mongoOperations.save(element, getCollectionName(organizationId, projectId)));
+        bulkSave(organizationId, projectId, entities).stream().
+                filter(report -> report.getFailure() != null).
+                findFirst().
+                ifPresent(report -> {
+                    throw report.getFailure();
+                });
         return entities;
     }
 
+    @Override
+    public List<BulkWriteReport> bulkSave(String organizationId, String projectId, Collection<E> entities) {
+        String collectionName = getCollectionName(organizationId, projectId);
+        List<BulkWriteReport> reports = new ArrayList<>();
+        Iterator<E> iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            BulkOperations operations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, getEntityClass(), collectionName);
+            List<String> chunkIds = new ArrayList<>();
+            while (iterator.hasNext() && chunkIds.size() < bulkChunkSize) {
+                E entity = iterator.next();
+                addSave(operations, entity);
+                chunkIds.add(entity.getId());
+            }
+
+            BulkWriteReport report = new BulkWriteReport(reports.size(), chunkIds.size());
+            try {
+                report.withResult(operations.execute());
+            } catch (BulkOperationException e) {
+                report.withResult(e.getResult());
+                e.getErrors().forEach(error -> report.getErrors().add(error.getIndex() + ": " + error.getMessage()));
+                report.setFailure(e);
+                logger.warn("Bulk save into {} failed, {}", collectionName, report);
+            }
+            // Unordered writes of a failed chunk are partially applied
+            chunkIds.forEach(entityId -> afterWrite(organizationId, projectId, entityId));
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    private void addSave(BulkOperations operations, E entity) {
+        if (isEmpty(entity.getId())) {
+            // Bulk inserts do not return generated ids, so the id is assigned the same way MongoOperations.save does
+            entity.setId(new ObjectId().toHexString());
+            operations.insert(entity);
+        } else {
+            operations.replaceOne(new Query(Criteria.where("id").is(entity.getId())), entity,
+                    FindAndReplaceOptions.options().upsert());
+        }
+    }
+
     @Override
     public boolean exists(String organizationId, String projectId, String id) {
         return mongoOperations.exists(new Query(Criteria.where("id").is(id)), getEntityClass(), getCollectionName(organizationId, projectId));
@@ -148,8 +210,7 @@ System.out.flush();
         Query query = DBUtils.getQuery(getEntityClass(), filter);
         Update update = new Update().set("deleted", true);
         mongoOperations.updateMulti(query, update, getCollectionName(organizationId, projectId));
-        //mongoOperations.remove(entity, getCollectionName(organizationId, projectId));
-System.out.println("CommonRepositoryImpl - end of delete without entity");
-System.out.flush();
+        afterFilteredWrite(organizationId, projectId);
+        logger.debug("CommonRepositoryImpl - end of delete without entity");
     }
 }
@@ -2,24 +2,17 @@ package com.testquack.dal.impl;
 
 import com.testquack.beans.Filter;
 import com.testquack.beans.Order;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
-import org.bson.Document;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.mapreduce.MapReduceResults;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
-import ru.greatbit.utils.serialize.JsonSerializer;
 
-import java.io.IOException;
 import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -28,32 +21,63 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 @Component
 public class DBUtils {
 
-    public static final String MAPREDUCE_PATH = "/map-reduce/";
+    public static Query getQuery(Class entityClass, Filter filter) {
+        return toQuery(filter, getCriteria(entityClass, filter));
+    }
+
+    /**
+     * Same as {@link #getQuery(Class, Filter)} with documents additionally matching the given criteria
+     */
+    public static Query getQuery(Class entityClass, Filter filter, Criteria additionalCriteria) {
+        return toQuery(filter, new Criteria().andOperator(getCriteria(entityClass, filter), additionalCriteria));
+    }
+
+    private static Query toQuery(Filter filter, Criteria criteria) {
+        // Add paging
+        Query query = Query.query(criteria).skip(filter.getSkip()).limit(filter.getLimit());
+
+        // Add included and excluded fields
+        if (!filter.getIncludedFieldsForQuery().isEmpty()) {
+            filter.getIncludedFieldsForQuery().forEach(field -> query.fields().include(field));
+        }
+        if (!filter.getExcludedFieldsForQuery().isEmpty()) {
+            filter.getExcludedFieldsForQuery().forEach(field -> query.fields().exclude(field));
+        }
 
-    @Autowired
-    MongoTemplate mongoTemplate;
+        // Add ordering
+        if (!isEmpty(filter.getSortField())) {
+            query.with(getSort(filter));
+        }
 
-    public MapReduceResults<Document> mapReduce(Class entityClass, String collectionName, String mapFileName, String reduceFileName, Filter filter)
-            throws IOException {
-        return mongoTemplate.mapReduce(getQuery(entityClass, filter), collectionName,
-                IOUtils.toString(getClass().getResourceAsStream(MAPREDUCE_PATH + mapFileName), "UTF-8"),
-                IOUtils.toString(getClass().getResourceAsStream(MAPREDUCE_PATH + reduceFileName), "UTF-8"),
-                Document.class);
+        return query;
     }
 
-    public <T> Map<String, T> mapReduce(Class entityClass, String collectionName, String mapFileName, String reduceFileName, Filter filter, Class<T> t)
-            throws Exception {
-        Map<String, T> result = new HashMap<>();
-        for (Document document : mapReduce(entityClass, collectionName, mapFileName, reduceFileName, filter)) {
-            if (document != null && document.get("_id") != null && document.get("value") != null) {
-                result.put(document.get("_id").toString(),
-                        JsonSerializer.unmarshal(((Document) document.get("value")).toJson(), t));
-            }
+    /**
+     * Leading aggregation stages selecting the same documents as {@link #getQuery(Class, Filter)}.
+     * Matching goes first so the pipeline can use collection indexes.
+     */
+    public static List<AggregationOperation> getAggregationOperations(Class entityClass, Filter filter) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(getCriteria(entityClass, filter)));
+        if (!isEmpty(filter.getSortField())) {
+            operations.add(Aggregation.sort(getSort(filter)));
+        }
+        if (filter.getSkip() > 0) {
+            operations.add(Aggregation.skip((long) filter.getSkip()));
+        }
+        if (filter.getLimit() > 0) {
+            operations.add(Aggregation.limit(filter.getLimit()));
         }
-        return result;
+        return operations;
     }
 
-    public static Query getQuery(Class entityClass, Filter filter) {
+    static Sort getSort(Filter filter) {
+        return filter.getOrder() != null && filter.getOrder().equals(Order.DESC) ?
+                Sort.by(Sort.Direction.DESC, filter.getSortField()) :
+                Sort.by(Sort.Direction.ASC, filter.getSortField());
+    }
+
+    public static Criteria getCriteria(Class entityClass, Filter filter) {
         Criteria criteria = new Criteria();
 
         // Add AND fields criterias
@@ -82,28 +106,7 @@ public class DBUtils {
             criteria.norOperator(notFieldsCriteria.toArray(new Criteria[notFieldsCriteria.size()]));
         }
 
-
-
-        // Add paging
-        Query query = Query.query(criteria).skip(filter.getSkip()).limit(filter.getLimit());
-
-        // Add included and excluded fields
-        if (!filter.getIncludedFieldsForQuery().isEmpty()) {
-            filter.getIncludedFieldsForQuery().forEach(field -> query.fields().include(field));
-        }
-        if (!filter.getExcludedFieldsForQuery().isEmpty()) {
-            filter.getExcludedFieldsForQuery().forEach(field -> query.fields().exclude(field));
-        }
-
-        // Add ordering
-        if (!isEmpty(filter.getSortField())) {
-            Sort sort = filter.getOrder() != null && filter.getOrder().equals(Order.DESC) ?
-                    Sort.by(Sort.Direction.DESC, filter.getSortField()) :
-                    Sort.by(Sort.Direction.ASC, filter.getSortField());
-            query.with(sort);
-        }
-
-        return query;
+        return criteria;
     }
 
     private static Criteria getFieldCriteris(Class entityClass, String key, Set<Object> values) {
@@ -0,0 +1,78 @@
+package com.testquack.dal.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of rarely changed entities shared by all cluster members.
+ * Near cache, TTL and eviction of the maps are set in the Hazelcast configuration.
+ * Entries are removed by repositories on writes, near caches of other members are invalidated by Hazelcast.
+ * Every eviction bumps a cluster-wide version of the key or the whole map, a value loaded while it changed
+ * is removed again since it may have been read before the write.
+ * Without a Hazelcast instance in the context values are always loaded from the database.
+ */
+@Component
+public class EntityCache {
+
+    public static final String ORGANIZATIONS = "quack-entities-organizations";
+    public static final String USERS = "quack-entities-users";
+    public static final String ROLE_CAPABILITIES = "quack-entities-rolecapabilities";
+
+    // Not matching the entity maps configuration, versions must neither expire nor be read from a near cache
+    private static final String VERSIONS = "quack-entity-versions";
+
+    @Autowired(required = false)
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Returns a cached copy of the value or loads it. Absent values are not cached.
+     */
+    public <V> V get(String mapName, String key, Supplier<V> loader) {
+        if (hazelcastInstance == null) {
+            return loader.get();
+        }
+        IMap<String, V> map = hazelcastInstance.getMap(mapName);
+        V value = map.get(key);
+        if (value != null) {
+            return value;
+        }
+        IMap<String, Long> versions = hazelcastInstance.getMap(VERSIONS);
+        String versionKey = getVersionKey(mapName, key);
+        Long mapVersion = versions.get(mapName);
+        Long keyVersion = versions.get(versionKey);
+        value = loader.get();
+        if (value != null && map.putIfAbsent(key, value) == null &&
+                (!Objects.equals(mapVersion, versions.get(mapName)) || !Objects.equals(keyVersion, versions.get(versionKey)))) {
+            // Evicted during the load, an eviction after this check deletes the value itself
+            map.remove(key, value);
+        }
+        return value;
+    }
+
+    public void evict(String mapName, String key) {
+        if (hazelcastInstance != null) {
+            incrementVersion(getVersionKey(mapName, key));
+            hazelcastInstance.getMap(mapName).delete(key);
+        }
+    }
+
+    public void evictAll(String mapName) {
+        if (hazelcastInstance != null) {
+            incrementVersion(mapName);
+            hazelcastInstance.getMap(mapName).clear();
+        }
+    }
+
+    private void incrementVersion(String versionKey) {
+        hazelcastInstance.<String, Long>getMap(VERSIONS).merge(versionKey, 1L, Long::sum);
+    }
+
+    private static String getVersionKey(String mapName, String key) {
+        return mapName + ":" + key;
+    }
+}
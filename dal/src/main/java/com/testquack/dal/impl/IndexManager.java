@@ -0,0 +1,203 @@
+package com.testquack.dal.impl;
+
+import com.testquack.beans.Attribute;
+import com.testquack.beans.Comment;
+import com.testquack.beans.Event;
+import com.testquack.beans.Launch;
+import com.testquack.beans.LaunchStatistics;
+import com.testquack.beans.TestCase;
+import com.testquack.beans.TestSuite;
+import com.testquack.dal.IndexReport;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.WildcardIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Keeps the declared index set on per-project entity collections.
+ * Indexes are ensured when a collection is touched for the first time, when a project is created
+ * and for all existing project collections on startup.
+ */
+@Component
+public class IndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
+
+    private static final Map<Class<?>, List<IndexDefinition>> DECLARED_INDEXES = new LinkedHashMap<>();
+    static {
+        DECLARED_INDEXES.put(TestCase.class, Arrays.asList(
+                new Index().on("deleted", Sort.Direction.ASC),
+                new Index().on("alias", Sort.Direction.ASC),
+                new Index().on("createdTime", Sort.Direction.DESC),
+                new WildcardIndex("attributes")
+        ));
+        DECLARED_INDEXES.put(Launch.class, Arrays.asList(
+                new Index().on("deleted", Sort.Direction.ASC).on("createdTime", Sort.Direction.DESC),
+                new Index().on("launchGroup", Sort.Direction.ASC),
+                new Index().on("createdTime", Sort.Direction.DESC)
+        ));
+        // Statistics view documents of launches are read sorted by execution times, test cases by failure rate
+        DECLARED_INDEXES.put(LaunchStatistics.class, Arrays.asList(
+                new Index().on("type", Sort.Direction.ASC).on("start", Sort.Direction.ASC),
+                new Index().on("type", Sort.Direction.ASC).on("finish", Sort.Direction.ASC),
+                new Index().on("type", Sort.Direction.ASC).on("failureRate", Sort.Direction.DESC)
+        ));
+        DECLARED_INDEXES.put(Event.class, Arrays.asList(
+                new Index().on("deleted", Sort.Direction.ASC),
+                new Index().on("entityId", Sort.Direction.ASC),
+                new Index().on("createdTime", Sort.Direction.DESC)
+        ));
+        DECLARED_INDEXES.put(Comment.class, Arrays.asList(
+                new Index().on("deleted", Sort.Direction.ASC),
+                new Index().on("entityId", Sort.Direction.ASC)
+        ));
+        DECLARED_INDEXES.put(TestSuite.class, singletonList(
+                new Index().on("deleted", Sort.Direction.ASC)
+        ));
+        DECLARED_INDEXES.put(Attribute.class, singletonList(
+                new Index().on("deleted", Sort.Direction.ASC)
+        ));
+    }
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Value("${mongo.indexes.reconcile:true}")
+    private boolean reconcileOnStartup;
+
+    private final Set<String> ensuredCollections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates declared indexes of the entity class once per collection and application run
+     */
+    public void ensureIndexes(String collectionName, Class<?> entityClass) {
+        List<IndexDefinition> indexes = DECLARED_INDEXES.getOrDefault(entityClass, emptyList());
+        if (indexes.isEmpty() || ensuredCollections.contains(collectionName)) {
+            return;
+        }
+        indexes.forEach(index -> ensureIndex(collectionName, index));
+        ensuredCollections.add(collectionName);
+    }
+
+    public void ensureProjectIndexes(String organizationId, String projectId) {
+        DECLARED_INDEXES.keySet().forEach(entityClass ->
+                ensureIndexes(CommonRepositoryImpl.getCollectionName(organizationId, projectId, entityClass), entityClass));
+    }
+
+    /**
+     * Reports missing and unused indexes of all project collections and creates the missing ones
+     */
+    public List<IndexReport> reconcile() {
+        List<IndexReport> reports = getIndexReport();
+        for (String collectionName : mongoOperations.getCollectionNames()) {
+            Class<?> entityClass = getEntityClass(collectionName);
+            if (entityClass != null) {
+                ensuredCollections.remove(collectionName);
+                ensureIndexes(collectionName, entityClass);
+            }
+        }
+        return reports;
+    }
+
+    public List<IndexReport> getIndexReport() {
+        List<IndexReport> reports = new ArrayList<>();
+        for (String collectionName : mongoOperations.getCollectionNames()) {
+            Class<?> entityClass = getEntityClass(collectionName);
+            if (entityClass != null) {
+                reports.add(getIndexReport(collectionName, entityClass));
+            }
+        }
+        return reports;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void reconcileOnStartup() {
+        if (!reconcileOnStartup) {
+            return;
+        }
+        // Index builds on big collections take a while, startup should not wait for them
+        Thread reconciler = new Thread(() -> {
+            try {
+                reconcile().stream().
+                        filter(report -> !report.isEmpty()).
+                        forEach(report -> logger.info("Index report {}", report));
+            } catch (Exception e) {
+                logger.warn("Unable to reconcile collection indexes", e);
+            }
+        }, "quack-index-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    private IndexReport getIndexReport(String collectionName, Class<?> entityClass) {
+        IndexReport report = new IndexReport(collectionName);
+        List<Document> indexStats = mongoOperations.getCollection(collectionName).
+                aggregate(singletonList(new Document("$indexStats", new Document()))).
+                into(new ArrayList<>());
+
+        Set<String> existingKeys = indexStats.stream().
+                map(stats -> getKeysDescription((Document) stats.get("key"))).
+                collect(Collectors.toSet());
+        DECLARED_INDEXES.get(entityClass).stream().
+                map(index -> getKeysDescription(index.getIndexKeys())).
+                filter(keys -> !existingKeys.contains(keys)).
+                forEach(report.getMissingIndexes()::add);
+
+        indexStats.stream().
+                filter(stats -> !"_id_".equals(stats.getString("name"))).
+                filter(stats -> {
+                    Document accesses = (Document) stats.get("accesses");
+                    return accesses == null || !(accesses.get("ops") instanceof Number) ||
+                            ((Number) accesses.get("ops")).longValue() == 0;
+                }).
+                forEach(stats -> report.getUnusedIndexes().add(stats.getString("name")));
+        return report;
+    }
+
+    private void ensureIndex(String collectionName, IndexDefinition index) {
+        try {
+            mongoOperations.indexOps(collectionName).ensureIndex(index);
+        } catch (Exception e) {
+            // Conflicting manually created index or unsupported index type must not break data access
+            logger.warn("Unable to create index {} on {}", getKeysDescription(index.getIndexKeys()), collectionName, e);
+        }
+    }
+
+    private static Class<?> getEntityClass(String collectionName) {
+        return DECLARED_INDEXES.keySet().stream().
+                filter(entityClass -> collectionName.endsWith("_" + entityClass.getSimpleName())).
+                findFirst().orElse(null);
+    }
+
+    // Existing indexes may store directions as doubles, so keys are compared by their int values
+    private static String getKeysDescription(Document keys) {
+        if (keys == null) {
+            return "";
+        }
+        return keys.entrySet().stream().
+                map(key -> key.getKey() + ":" + (key.getValue() instanceof Number ?
+                        String.valueOf(((Number) key.getValue()).intValue()) : String.valueOf(key.getValue()))).
+                collect(Collectors.joining(","));
+    }
+}
@@ -1,13 +1,848 @@
 package com.testquack.dal.impl;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import com.testquack.beans.Filter;
 import com.testquack.beans.Launch;
-import com.testquack.dal.AttributeRepositoryCustom;
+import com.testquack.beans.LaunchStatistics;
+import com.testquack.beans.LaunchStatus;
+import com.testquack.beans.LaunchTestCase;
+import com.testquack.beans.LaunchTestcaseStats;
+import com.testquack.beans.LaunchTimes;
+import com.mongodb.client.model.ReplaceOptions;
+import com.testquack.dal.LaunchRepositoryCustom;
+import com.testquack.dal.LaunchStatisticsDelta;
+import com.testquack.dal.LaunchStatisticsDelta.DocumentDelta;
+import com.testquack.dal.LaunchTestCasePatch;
+import com.testquack.dal.LaunchTestCasesSelection;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.nin;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Sorts.descending;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.set;
+import static com.testquack.dal.LaunchStatisticsDelta.COUNT;
+import static com.testquack.dal.LaunchStatisticsDelta.FINISH;
+import static com.testquack.dal.LaunchStatisticsDelta.KEY;
+import static com.testquack.dal.LaunchStatisticsDelta.LAUNCH;
+import static com.testquack.dal.LaunchStatisticsDelta.NAME;
+import static com.testquack.dal.LaunchStatisticsDelta.START;
+import static com.testquack.dal.LaunchStatisticsDelta.STATUS_COUNTERS;
+import static com.testquack.dal.LaunchStatisticsDelta.TESTCASE;
+import static com.testquack.dal.LaunchStatisticsDelta.TOTAL;
+import static com.testquack.dal.LaunchStatisticsDelta.TYPE;
+import static com.testquack.dal.LaunchStatisticsDelta.USER;
+import static com.testquack.dal.LaunchStatisticsDelta.VERSION;
+import static com.testquack.dal.impl.DBUtils.getAggregationOperations;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregationOptions;
 
 public class LaunchRepositoryCustomImpl extends CommonRepositoryImpl<Launch>
-        implements AttributeRepositoryCustom {
+        implements LaunchRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaunchRepositoryCustomImpl.class);
+
+    private final static String LAUNCH_STATUS_COUNTERS = "launchStats.statusCounters.";
+    private final static String TESTCASE_FILTER_ID = "tc";
+    private final static String ALL_LAUNCHES_KEY = "all";
+    private final static String VIEW_ID = "view";
+    private final static int VIEW_FORMAT = 2;
+    private final static String TOTALS_ID = "totals";
+    private final static String LAUNCH_COUNT = "launchCount";
+    private final static String START_SUM = "startSum";
+    private final static String UNSTARTED = "unstarted";
+    private final static String FINISH_SUM = "finishSum";
+    private final static String UNFINISHED = "unfinished";
+    private final static String STARTED_UNFINISHED = "startedUnfinished";
+    private final static String EXECUTIONS_VERSION = "executionsVersion";
+    private final static String IDLE = "idle";
+    private final static String IDLE_VERSION = "idleVersion";
+    private final static String FAILURE_RATE = "failureRate";
+    private final static int REBUILD_BATCH_SIZE = 1000;
+    private final static int MAX_TREE_DEPTH = 32;
+    private final static String TEST_CASES = "testCases";
+    private final static String TREE_NODES = "treeNodes";
+    private final static String SELECTED_TEST_CASES = "selectedTestCases";
 
     @Override
     public Class getEntityClass() {
         return Launch.class;
     }
+
+    @Override
+    public boolean updateLaunchTestCases(String organizationId, String projectId, String launchId,
+                                         List<LaunchTestCasePatch> patches, String modifiedBy, long modifiedTime) {
+        if (patches.isEmpty()) {
+            return false;
+        }
+        List<Criteria> expectedStates = new ArrayList<>(patches.size());
+        Update update = new Update().
+                set("lastModifiedTime", modifiedTime).
+                set("lastModifiedBy", modifiedBy);
+        Map<LaunchStatus, Integer> counterDeltas = new EnumMap<>(LaunchStatus.class);
+
+        for (int i = 0; i < patches.size(); i++) {
+            LaunchTestCasePatch patch = patches.get(i);
+            LaunchTestCase launchTestCase = patch.getLaunchTestCase();
+            String filterId = TESTCASE_FILTER_ID + i;
+
+            expectedStates.add(Criteria.where(patch.getTestCasesPath()).elemMatch(
+                    Criteria.where("uuid").is(launchTestCase.getUuid()).
+                            and("launchStatus").is(patch.getPreviousStatus().toString())
+            ));
+
+            Document launchTestCaseDocument = new Document();
+            mongoOperations.getConverter().write(launchTestCase, launchTestCaseDocument);
+            launchTestCaseDocument.remove("_class");
+            update.set(patch.getTestCasesPath() + ".$[" + filterId + "]", launchTestCaseDocument).
+                    filterArray(Criteria.where(filterId + ".uuid").is(launchTestCase.getUuid()));
+
+            counterDeltas.merge(patch.getPreviousStatus(), -1, Integer::sum);
+            counterDeltas.merge(launchTestCase.getLaunchStatus(), 1, Integer::sum);
+        }
+        counterDeltas.forEach((status, delta) -> {
+            if (delta != 0) {
+                update.inc(LAUNCH_STATUS_COUNTERS + status, delta);
+            }
+        });
+
+        Query query = new Query(Criteria.where("id").is(launchId).
+                andOperator(expectedStates.toArray(new Criteria[expectedStates.size()])));
+        UpdateResult result = mongoOperations.updateFirst(query, update, Launch.class, getCollectionName(organizationId, projectId));
+        return result.getModifiedCount() > 0;
+    }
+
+    @Override
+    public Launch findLaunchSummary(String organizationId, String projectId, String launchId) {
+        Query query = new Query(Criteria.where("id").is(launchId));
+        query.fields().exclude("testCaseTree");
+        return mongoOperations.findOne(query, Launch.class, getCollectionName(organizationId, projectId));
+    }
+
+    @Override
+    public LaunchTestCasesSelection findLaunchTestCases(String organizationId, String projectId, String launchId,
+                                                        Collection<String> uuids) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(match(Criteria.where("id").is(launchId)));
+        operations.addAll(selectTestCases(new ArrayList<>(uuids)));
+
+        Document document = aggregate(organizationId, projectId, operations).getUniqueMappedResult();
+        if (document == null) {
+            return null;
+        }
+        List<Document> selectedTestCases = (List<Document>) document.remove(SELECTED_TEST_CASES);
+        LaunchTestCasesSelection selection = new LaunchTestCasesSelection(
+                mongoOperations.getConverter().read(Launch.class, document));
+        for (Document selected : selectedTestCases) {
+            StringBuilder testCasesPath = new StringBuilder("testCaseTree");
+            for (Object childIndex : (List<Object>) selected.get("path")) {
+                testCasesPath.append(".children.").append(((Number) childIndex).intValue());
+            }
+            selection.withTestCase(testCasesPath.append(".testCases").toString(),
+                    mongoOperations.getConverter().read(LaunchTestCase.class, (Document) selected.get("testCase")));
+        }
+        return selection;
+    }
+
+    @Override
+    public long getLaunchDuration(String organizationId, String projectId, String launchId) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(match(Criteria.where("id").is(launchId)));
+        operations.addAll(flattenTestCases());
+        operations.add(context -> new Document("$project", new Document("duration", new Document("$sum",
+                new Document("$map", new Document("input", "$" + TEST_CASES).
+                        append("as", "testCase").
+                        append("in", "$$testCase.duration"))))));
+
+        Document document = aggregate(organizationId, projectId, operations).getUniqueMappedResult();
+        return document == null ? 0 : getLong(document, "duration");
+    }
+
+    @Override
+    public List<Launch> findLaunchesForRemoval(String organizationId, String projectId, Filter filter) {
+        Query query = new Query(DBUtils.getCriteria(Launch.class, filter)).skip(filter.getSkip()).limit(filter.getLimit());
+        if (!isEmpty(filter.getSortField())) {
+            query.with(DBUtils.getSort(filter));
+        }
+        query.fields().include("deleted");
+        String node = "testCaseTree";
+        for (int depth = 0; depth <= MAX_TREE_DEPTH; depth++) {
+            for (String field : asList("_id", "launchStatus", "users")) {
+                query.fields().include(node + ".testCases." + field);
+            }
+            node += ".children";
+        }
+        return mongoOperations.find(query, Launch.class, getCollectionName(organizationId, projectId));
+    }
+
+    @Override
+    public Set<String> deleteLaunches(String organizationId, String projectId, Collection<String> ids) {
+        Set<String> removed = new HashSet<>();
+        for (String id : ids) {
+            if (mongoOperations.remove(new Query(Criteria.where("id").is(id)), Launch.class,
+                    getCollectionName(organizationId, projectId)).getDeletedCount() > 0) {
+                removed.add(id);
+            }
+        }
+        afterFilteredWrite(organizationId, projectId);
+        return removed;
+    }
+
+    @Override
+    public boolean markLaunchStarted(String organizationId, String projectId, String launchId, long startTime) {
+        Query query = new Query(Criteria.where("id").is(launchId).and("startTime").is(0L));
+        return mongoOperations.updateFirst(query, new Update().set("startTime", startTime),
+                Launch.class, getCollectionName(organizationId, projectId)).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean markLaunchFinished(String organizationId, String projectId, String launchId, long finishTime, long duration) {
+        Query query = new Query(Criteria.where("id").is(launchId).and("finishTime").is(0L));
+        return mongoOperations.updateFirst(query, new Update().set("finishTime", finishTime).set("duration", duration),
+                Launch.class, getCollectionName(organizationId, projectId)).getModifiedCount() > 0;
+    }
+
+    @Override
+    public Map<String, LaunchStatistics> getLaunchesStatistics(String organizationId, String projectId, Filter filter) {
+        long now = Instant.now().toEpochMilli();
+        Document startTime = timeOrNow("$startTime", now);
+        Document finishTime = timeOrNow("$finishTime", now);
+
+        Document launchesGroup = new Document("_id", null).
+                append("launchCount", new Document("$sum", 1)).
+                append("duration", new Document("$sum", new Document("$subtract", asList("$finishTime", "$startTime")))).
+                append("firstStart", new Document("$min", "$startTime")).
+                append("lastStart", new Document("$max", "$startTime")).
+                append("lastFinish", new Document("$max", "$finishTime")).
+                append("total", new Document("$sum", "$launchStats.total")).
+                append("executions", new Document("$push",
+                        new Document("start", "$startTime").append("finish", "$finishTime")));
+        for (LaunchStatus status : LaunchStatus.values()) {
+            launchesGroup.append(status.toString(), new Document("$sum", "$launchStats.statusCounters." + status));
+        }
+
+        List<AggregationOperation> operations = getAggregationOperations(Launch.class, filter);
+        operations.addAll(flattenTestCases());
+        operations.add(context -> new Document("$project", new Document("startTime", startTime).
+                append("finishTime", finishTime).
+                append("launchStats", 1).
+                append(TEST_CASES, 1)));
+        operations.add(context -> new Document("$facet", new Document("launches", singletonList(
+                new Document("$group", launchesGroup)
+        )).append("users", asList(
+                new Document("$unwind", "$testCases"),
+                new Document("$unwind", "$testCases.users"),
+                new Document("$match", new Document("testCases.users", new Document("$nin", asList(null, "")))),
+                new Document("$group", new Document("_id", "$testCases.users").append("count", new Document("$sum", 1)))
+        ))));
+
+        Document result = aggregate(organizationId, projectId, operations).getUniqueMappedResult();
+        if (result == null || result.getList("launches", Document.class).isEmpty()) {
+            return emptyMap();
+        }
+        Document launches = result.getList("launches", Document.class).get(0);
+
+        LaunchStatistics statistics = new LaunchStatistics();
+        statistics.setLaunchCount(getInt(launches, "launchCount"));
+        statistics.setLaunchTimes(new LaunchTimes().
+                withDuration(getLong(launches, "duration")).
+                withFirstStart(getLong(launches, "firstStart")).
+                withLastStart(getLong(launches, "lastStart")).
+                withLastFinish(getLong(launches, "lastFinish")).
+                withIdle(getIdleTime(launches.getList("executions", Document.class))));
+        statistics.getLaunchStats().setTotal(getInt(launches, "total"));
+        for (LaunchStatus status : LaunchStatus.values()) {
+            statistics.getLaunchStats().getStatusCounters().put(status, getInt(launches, status.toString()));
+        }
+        for (Document user : result.getList("users", Document.class)) {
+            statistics.getUsers().put(user.get("_id").toString(), getInt(user, "count"));
+        }
+        return singletonMap(ALL_LAUNCHES_KEY, statistics);
+    }
+
+    @Override
+    public Map<String, LaunchTestcaseStats> getTestcasesStatistics(String organizationId, String projectId, Filter filter) {
+        Document name = new Document("$cond", asList(
+                new Document("$gt", asList(new Document("$ifNull", asList("$testCases.name", "")), "")),
+                "$testCases.name",
+                new Document("$ifNull", asList("$testCases.importedName", ""))
+        ));
+        Document testcasesGroup = new Document("_id", "$testCases._id").
+                append("name", new Document("$first", name)).
+                append("total", new Document("$sum", 1));
+        for (LaunchStatus status : LaunchStatus.values()) {
+            testcasesGroup.append(status.toString(), new Document("$sum", new Document("$cond", asList(
+                    new Document("$eq", asList("$testCases.launchStatus", status.toString())), 1, 0
+            ))));
+        }
+
+        List<AggregationOperation> operations = getAggregationOperations(Launch.class, filter);
+        operations.addAll(flattenTestCases());
+        operations.add(context -> new Document("$project", new Document(TEST_CASES, 1)));
+        operations.add(context -> new Document("$unwind", "$testCases"));
+        operations.add(context -> new Document("$group", testcasesGroup));
+
+        Map<String, LaunchTestcaseStats> statsMap = new HashMap<>();
+        for (Document document : aggregate(organizationId, projectId, operations)) {
+            if (document.get("_id") == null) {
+                continue;
+            }
+            LaunchTestcaseStats stats = new LaunchTestcaseStats();
+            stats.setId(document.get("_id").toString());
+            stats.setName(document.getString("name"));
+            stats.setTotal(getInt(document, "total"));
+            for (LaunchStatus status : LaunchStatus.values()) {
+                stats.getStatusCounters().put(status, getInt(document, status.toString()));
+            }
+            statsMap.put(stats.getId(), stats);
+        }
+        return statsMap;
+    }
+
+    /**
+     * Launch documents are changed one by one, their previous state gives the change of the project totals.
+     * Test case and user counters and the totals are then written in a single bulk.
+     */
+    @Override
+    public void updateStatisticsView(String organizationId, String projectId, LaunchStatisticsDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        String collectionName = getStatisticsViewCollectionName(organizationId, projectId);
+        MongoCollection<Document> view = mongoOperations.getCollection(collectionName);
+        Map<String, Long> totals = new HashMap<>();
+        boolean executionsChanged = false;
+        for (String id : delta.getRemovals()) {
+            Document removed = view.findOneAndDelete(eq("_id", id));
+            if (removed != null && LAUNCH.equals(removed.getString(TYPE))) {
+                addLaunchTotals(totals, path -> getLong(removed, path), -1);
+                executionsChanged = true;
+            }
+        }
+
+        BulkOperations operations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+        boolean bulkWrites = false;
+        List<String> testcaseIds = new ArrayList<>();
+        for (DocumentDelta document : delta.getDocuments().values()) {
+            if (document.isEmpty()) {
+                continue;
+            }
+            Query query = new Query(Criteria.where("_id").is(document.getId()));
+            Update update = new Update().
+                    inc(VERSION, 1).
+                    setOnInsert(TYPE, document.getType()).
+                    setOnInsert(KEY, document.getKey());
+            document.getIncrements().forEach(update::inc);
+            document.getValues().forEach(update::set);
+            if (LAUNCH.equals(document.getType())) {
+                Document previous = mongoOperations.findAndModify(query, update,
+                        FindAndModifyOptions.options().upsert(document.isUpsert()), Document.class, collectionName);
+                if (previous == null && !document.isUpsert()) {
+                    continue;
+                }
+                if (previous != null) {
+                    addLaunchTotals(totals, path -> getLong(previous, path), -1);
+                }
+                addLaunchTotals(totals, path -> document.getValues().containsKey(path) ?
+                        ((Number) document.getValues().get(path)).longValue() :
+                        (previous == null ? 0 : getLong(previous, path)) + document.getIncrements().getOrDefault(path, 0L), 1);
+                executionsChanged |= previous == null ||
+                        document.getValues().containsKey(START) || document.getValues().containsKey(FINISH);
+                continue;
+            }
+            if (TESTCASE.equals(document.getType())) {
+                testcaseIds.add(document.getId());
+            }
+            if (document.isUpsert()) {
+                operations.upsert(query, update);
+            } else {
+                operations.updateOne(query, update);
+            }
+            bulkWrites = true;
+        }
+
+        Update totalsUpdate = new Update().setOnInsert(TYPE, TOTALS_ID);
+        totals.forEach((field, value) -> {
+            if (value != 0) {
+                totalsUpdate.inc(field, value);
+            }
+        });
+        if (executionsChanged) {
+            totalsUpdate.inc(EXECUTIONS_VERSION, 1);
+        }
+        if (executionsChanged || totals.values().stream().anyMatch(value -> value != 0)) {
+            operations.upsert(new Query(Criteria.where("_id").is(TOTALS_ID)), totalsUpdate);
+            bulkWrites = true;
+        }
+        if (bulkWrites) {
+            operations.execute();
+        }
+        updateFailureRates(view, testcaseIds);
+    }
+
+    /**
+     * Totals are kept in a single document, only the first start, last start and finish are read
+     * from the launch documents through the indexes and the idle time is recomputed after launches start or finish
+     */
+    @Override
+    public Map<String, LaunchStatistics> findLaunchesStatisticsView(String organizationId, String projectId) {
+        MongoCollection<Document> view = getStatisticsView(organizationId, projectId);
+        Document totals = view.find(eq("_id", TOTALS_ID)).first();
+        if (totals == null || getLong(totals, LAUNCH_COUNT) <= 0) {
+            return emptyMap();
+        }
+        long now = Instant.now().toEpochMilli();
+        long launchCount = getLong(totals, LAUNCH_COUNT);
+        long unstarted = getLong(totals, UNSTARTED);
+        long unfinished = getLong(totals, UNFINISHED);
+        // Times of launches not started or not finished yet are taken as now
+        long duration = getLong(totals, FINISH_SUM) + unfinished * now - getLong(totals, START_SUM) - unstarted * now;
+        long firstStart = unstarted < launchCount ? getLong(findStartedLaunch(view, ascending(START)), START) : now;
+        long lastStart = unstarted > 0 ? now : getLong(findStartedLaunch(view, descending(START)), START);
+        long lastFinish = unfinished > 0 ? now : getLong(view.find(eq(TYPE, LAUNCH)).sort(descending(FINISH)).first(), FINISH);
+
+        LaunchStatistics statistics = new LaunchStatistics();
+        statistics.setLaunchCount((int) launchCount);
+        statistics.setLaunchTimes(new LaunchTimes().
+                withDuration(duration).
+                withFirstStart(firstStart).
+                withLastStart(lastStart).
+                withLastFinish(lastFinish).
+                withIdle(getIdleTime(view, totals, now)));
+        statistics.getLaunchStats().setTotal(getInt(totals, TOTAL));
+        Document statusCounters = totals.get(STATUS_COUNTERS, Document.class);
+        for (LaunchStatus status : LaunchStatus.values()) {
+            statistics.getLaunchStats().getStatusCounters().put(status,
+                    statusCounters == null ? 0 : getInt(statusCounters, status.toString()));
+        }
+        for (Document user : view.find(and(eq(TYPE, USER), gt(COUNT, 0)))) {
+            statistics.getUsers().put(user.getString(KEY), getInt(user, COUNT));
+        }
+        return singletonMap(ALL_LAUNCHES_KEY, statistics);
+    }
+
+    @Override
+    public Map<String, LaunchTestcaseStats> findTestcasesStatisticsView(String organizationId, String projectId, int limit) {
+        Map<String, LaunchTestcaseStats> statsMap = new LinkedHashMap<>();
+        for (Document testcase : getStatisticsView(organizationId, projectId).
+                find(and(eq(TYPE, TESTCASE), gt(TOTAL, 0))).
+                sort(descending(FAILURE_RATE)).
+                limit(limit)) {
+            LaunchTestcaseStats stats = new LaunchTestcaseStats();
+            stats.setId(testcase.getString(KEY));
+            stats.setName(testcase.getString(NAME));
+            stats.setTotal(getInt(testcase, TOTAL));
+            for (LaunchStatus status : LaunchStatus.values()) {
+                stats.getStatusCounters().put(status, getInt(testcase, status.toString()));
+            }
+            statsMap.put(stats.getId(), stats);
+        }
+        return statsMap;
+    }
+
+    private static Document findStartedLaunch(MongoCollection<Document> view, Bson sort) {
+        return view.find(and(eq(TYPE, LAUNCH), gt(START, 0L))).sort(sort).first();
+    }
+
+    /**
+     * Gaps between executions of the started launches are cached in the totals until a launch starts, finishes,
+     * is added or removed. Launches still running end now, that only extends the last execution and opens no gaps.
+     * Launches not started yet start now, so the time since the last finish is added on every read.
+     */
+    private static long getIdleTime(MongoCollection<Document> view, Document totals, long now) {
+        Object executionsVersion = totals.get(EXECUTIONS_VERSION);
+        long idle;
+        if (totals.containsKey(IDLE) && Objects.equals(totals.get(IDLE_VERSION), executionsVersion)) {
+            idle = getLong(totals, IDLE);
+        } else {
+            idle = getIdleTime(view.aggregate(asList(
+                    new Document("$match", new Document(TYPE, LAUNCH).append(START, new Document("$gt", 0L))),
+                    new Document("$project", new Document(START, 1).append(FINISH, timeOrNow("$" + FINISH, now))),
+                    new Document("$sort", new Document(START, 1))
+            )).allowDiskUse(true));
+            view.updateOne(and(eq("_id", TOTALS_ID), eq(EXECUTIONS_VERSION, executionsVersion)),
+                    combine(set(IDLE, idle), set(IDLE_VERSION, executionsVersion)));
+        }
+        long launchCount = getLong(totals, LAUNCH_COUNT);
+        long unstarted = getLong(totals, UNSTARTED);
+        if (unstarted > 0 && unstarted < launchCount) {
+            long lastFinish = getLong(totals, STARTED_UNFINISHED) > 0 ? now :
+                    getLong(view.find(and(eq(TYPE, LAUNCH), gt(START, 0L))).sort(descending(FINISH)).first(), FINISH);
+            idle += Math.max(0, now - lastFinish);
+        }
+        return idle;
+    }
+
+    /**
+     * Adds what a launch document contributes to the project totals
+     *
+     * @param launch - value of a launch document field by its path
+     */
+    private static void addLaunchTotals(Map<String, Long> totals, ToLongFunction<String> launch, int sign) {
+        long start = launch.applyAsLong(START);
+        long finish = launch.applyAsLong(FINISH);
+        totals.merge(LAUNCH_COUNT, (long) sign, Long::sum);
+        totals.merge(TOTAL, sign * launch.applyAsLong(TOTAL), Long::sum);
+        for (LaunchStatus status : LaunchStatus.values()) {
+            String counter = STATUS_COUNTERS + "." + status;
+            totals.merge(counter, sign * launch.applyAsLong(counter), Long::sum);
+        }
+        totals.merge(START_SUM, sign * start, Long::sum);
+        totals.merge(UNSTARTED, start > 0 ? 0L : sign, Long::sum);
+        totals.merge(FINISH_SUM, sign * finish, Long::sum);
+        totals.merge(UNFINISHED, finish > 0 ? 0L : sign, Long::sum);
+        totals.merge(STARTED_UNFINISHED, start > 0 && finish <= 0 ? sign : 0L, Long::sum);
+    }
+
+    /**
+     * Stores the failure rate the heat map is sorted by. Rates are written for the version they were computed from,
+     * a concurrent change of the counters writes its own rate after that.
+     */
+    private static void updateFailureRates(MongoCollection<Document> view, List<String> testcaseIds) {
+        if (testcaseIds.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Document testcase : view.find(in("_id", testcaseIds)).
+                projection(include(VERSION, TOTAL, FAILURE_RATE, LaunchStatus.FAILED.toString(), LaunchStatus.BROKEN.toString()))) {
+            int failureRate = getFailureRate(testcase);
+            if (!testcase.containsKey(FAILURE_RATE) || getInt(testcase, FAILURE_RATE) != failureRate) {
+                writes.add(new UpdateOneModel<>(and(eq("_id", testcase.get("_id")), eq(VERSION, testcase.get(VERSION))),
+                        set(FAILURE_RATE, failureRate)));
+            }
+        }
+        if (!writes.isEmpty()) {
+            view.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        }
+    }
+
+    // Percent of failed and broken runs, the order of the test cases heat map
+    private static int getFailureRate(Document testcase) {
+        int total = getInt(testcase, TOTAL);
+        return total == 0 ? 0 :
+                (getInt(testcase, LaunchStatus.FAILED.toString()) + getInt(testcase, LaunchStatus.BROKEN.toString())) * 100 / total;
+    }
+
+    /**
+     * Documents are replaced only if their version has not changed since the rebuild started,
+     * the ones changed by concurrent launch updates keep their incrementally maintained values
+     */
+    @Override
+    public void rebuildStatisticsView(String organizationId, String projectId) {
+        String collectionName = getStatisticsViewCollectionName(organizationId, projectId);
+        MongoCollection<Document> view = mongoOperations.getCollection(collectionName);
+        Map<Object, Object> versions = new HashMap<>();
+        for (Document document : view.find(nin("_id", VIEW_ID, TOTALS_ID)).projection(include(VERSION))) {
+            versions.put(document.get("_id"), document.get(VERSION));
+        }
+
+        LaunchStatisticsDelta delta = new LaunchStatisticsDelta();
+        try (CloseableIterator<Launch> launches = mongoOperations.stream(new Query(), Launch.class, getCollectionName(organizationId, projectId))) {
+            launches.forEachRemaining(launch -> delta.merge(LaunchStatisticsDelta.ofCreatedLaunch(launch)));
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        int skipped = 0;
+        for (DocumentDelta document : delta.getDocuments().values()) {
+            Document rebuilt = new Document("_id", document.getId()).
+                    append(TYPE, document.getType()).
+                    append(KEY, document.getKey());
+            document.getIncrements().forEach((path, value) -> putPath(rebuilt, path, value));
+            document.getValues().forEach((path, value) -> putPath(rebuilt, path, value));
+            if (TESTCASE.equals(document.getType())) {
+                rebuilt.append(FAILURE_RATE, getFailureRate(rebuilt));
+            }
+            if (!versions.containsKey(document.getId())) {
+                writes.add(new InsertOneModel<>(rebuilt.append(VERSION, 0L)));
+            } else {
+                Object version = versions.remove(document.getId());
+                writes.add(new ReplaceOneModel<>(and(eq("_id", document.getId()), eq(VERSION, version)),
+                        rebuilt.append(VERSION, version instanceof Number ? ((Number) version).longValue() + 1 : 0L)));
+            }
+            if (writes.size() >= REBUILD_BATCH_SIZE) {
+                skipped += write(view, writes);
+            }
+        }
+        // Launches, test cases and users which are not in the launches anymore
+        for (Map.Entry<Object, Object> version : versions.entrySet()) {
+            writes.add(new DeleteOneModel<>(and(eq("_id", version.getKey()), eq(VERSION, version.getValue()))));
+            if (writes.size() >= REBUILD_BATCH_SIZE) {
+                skipped += write(view, writes);
+            }
+        }
+        skipped += write(view, writes);
+        if (skipped > 0) {
+            logger.info("{} launch statistics documents of project {} changed during the rebuild and were kept", skipped, projectId);
+        }
+        rebuildTotals(view);
+        view.replaceOne(eq("_id", VIEW_ID), new Document("_id", VIEW_ID).append(TYPE, VIEW_ID).
+                append("format", VIEW_FORMAT).
+                append("builtTime", Instant.now().toEpochMilli()), new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Recomputes the project totals from the launch documents. Changes applied between the read of the launch
+     * documents and the replacement of the totals are lost, the same as the ones during the rest of the rebuild.
+     */
+    private static void rebuildTotals(MongoCollection<Document> view) {
+        Document group = new Document("_id", null).
+                append(LAUNCH_COUNT, new Document("$sum", 1)).
+                append(TOTAL, new Document("$sum", "$" + TOTAL)).
+                append(START_SUM, new Document("$sum", "$" + START)).
+                append(UNSTARTED, countIf(new Document("$lte", asList("$" + START, 0)))).
+                append(FINISH_SUM, new Document("$sum", "$" + FINISH)).
+                append(UNFINISHED, countIf(new Document("$lte", asList("$" + FINISH, 0)))).
+                append(STARTED_UNFINISHED, countIf(new Document("$and", asList(
+                        new Document("$gt", asList("$" + START, 0)),
+                        new Document("$lte", asList("$" + FINISH, 0))
+                ))));
+        for (LaunchStatus status : LaunchStatus.values()) {
+            group.append(status.toString(), new Document("$sum", "$" + STATUS_COUNTERS + "." + status));
+        }
+        Document sums = view.aggregate(asList(
+                new Document("$match", new Document(TYPE, LAUNCH)),
+                new Document("$group", group)
+        )).first();
+
+        Document totals = new Document("_id", TOTALS_ID).append(TYPE, TOTALS_ID);
+        for (String field : asList(LAUNCH_COUNT, TOTAL, START_SUM, UNSTARTED, FINISH_SUM, UNFINISHED, STARTED_UNFINISHED)) {
+            totals.append(field, getLong(sums, field));
+        }
+        Document statusCounters = new Document();
+        for (LaunchStatus status : LaunchStatus.values()) {
+            statusCounters.append(status.toString(), getLong(sums, status.toString()));
+        }
+        // A new executions version drops the cached idle time
+        Document previous = view.find(eq("_id", TOTALS_ID)).first();
+        totals.append(STATUS_COUNTERS, statusCounters).
+                append(EXECUTIONS_VERSION, getLong(previous, EXECUTIONS_VERSION) + 1);
+        view.replaceOne(eq("_id", TOTALS_ID), totals, new ReplaceOptions().upsert(true));
+    }
+
+    private static Document countIf(Document condition) {
+        return new Document("$sum", new Document("$cond", asList(condition, 1, 0)));
+    }
+
+    /**
+     * @return number of documents not written because they were changed concurrently
+     */
+    private static int write(MongoCollection<Document> view, List<WriteModel<Document>> writes) {
+        if (writes.isEmpty()) {
+            return 0;
+        }
+        BulkWriteResult result;
+        try {
+            result = view.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // Documents inserted concurrently by deltas are the only expected errors
+            if (!e.getWriteErrors().stream().allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY)) {
+                throw e;
+            }
+            result = e.getWriteResult();
+        }
+        int skipped = writes.size() - result.getInsertedCount() - result.getMatchedCount() - result.getDeletedCount();
+        writes.clear();
+        return skipped;
+    }
+
+    /**
+     * The view is built from the stored launches on the first read, the changes applied before are overwritten then
+     */
+    private MongoCollection<Document> getStatisticsView(String organizationId, String projectId) {
+        String collectionName = getStatisticsViewCollectionName(organizationId, projectId);
+        indexManager.ensureIndexes(collectionName, LaunchStatistics.class);
+        if (!mongoOperations.exists(new Query(Criteria.where("_id").is(VIEW_ID).and("format").is(VIEW_FORMAT)), collectionName)) {
+            rebuildStatisticsView(organizationId, projectId);
+        }
+        return mongoOperations.getCollection(collectionName);
+    }
+
+    private static String getStatisticsViewCollectionName(String organizationId, String projectId) {
+        return CommonRepositoryImpl.getCollectionName(organizationId, projectId, LaunchStatistics.class);
+    }
+
+    private static void putPath(Document document, String path, Object value) {
+        String[] keys = path.split("\\.");
+        Document current = document;
+        for (int i = 0; i < keys.length - 1; i++) {
+            current = (Document) current.computeIfAbsent(keys[i], key -> new Document());
+        }
+        current.put(keys[keys.length - 1], value);
+    }
+
+    private AggregationResults<Document> aggregate(String organizationId, String projectId, List<AggregationOperation> operations) {
+        return mongoOperations.aggregate(
+                newAggregation(Launch.class, operations).withOptions(newAggregationOptions().allowDiskUse(true).build()),
+                getCollectionName(organizationId, projectId), Document.class);
+    }
+
+    /**
+     * Collects launch test cases from every level of the tree into the testCases field and drops the tree.
+     * Aggregation expressions can't recurse, so there is a stage per level: it moves the test cases of the current
+     * level nodes to the field and descends to their children. Unlike an expression unrolled down to the maximal depth,
+     * the nesting of the command does not grow with the depth.
+     */
+    private static List<AggregationOperation> flattenTestCases() {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(context -> new Document("$addFields", new Document(TEST_CASES, ifNullEmpty("$testCaseTree.testCases")).
+                append(TREE_NODES, ifNullEmpty("$testCaseTree.children"))));
+        operations.add(context -> new Document("$project", new Document("testCaseTree", 0)));
+        Document level = new Document("$addFields", new Document(TEST_CASES,
+                new Document("$concatArrays", asList("$" + TEST_CASES, concatNodeArrays("testCases")))).
+                append(TREE_NODES, concatNodeArrays("children")));
+        for (int depth = 0; depth < MAX_TREE_DEPTH; depth++) {
+            operations.add(context -> level);
+        }
+        operations.add(context -> new Document("$project", new Document(TREE_NODES, 0)));
+        return operations;
+    }
+
+    // Concatenates the given array of every current level node
+    private static Document concatNodeArrays(String field) {
+        return new Document("$reduce", new Document("input", "$" + TREE_NODES).
+                append("initialValue", emptyList()).
+                append("in", new Document("$concatArrays", asList("$$value", ifNullEmpty("$$this." + field)))));
+    }
+
+    private static Document ifNullEmpty(String array) {
+        return new Document("$ifNull", asList(array, emptyList()));
+    }
+
+    /**
+     * Collects launch test cases with the given uuids from every level of the tree as {path, testCase} documents
+     * into the selected test cases field and drops the tree. The path holds the indexes of the children leading
+     * to the testCases array holding the test case. There is a stage per level, same as in {@link #flattenTestCases}.
+     */
+    private static List<AggregationOperation> selectTestCases(List<String> uuids) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(context -> new Document("$addFields",
+                new Document(SELECTED_TEST_CASES, selectNodeTestCases("$testCaseTree", emptyList(), uuids)).
+                        append(TREE_NODES, getChildNodes("$testCaseTree", emptyList()))));
+        operations.add(context -> new Document("$project", new Document("testCaseTree", 0)));
+        Document level = new Document("$addFields", new Document(SELECTED_TEST_CASES,
+                new Document("$concatArrays", asList("$" + SELECTED_TEST_CASES, new Document("$reduce",
+                        new Document("input", "$" + TREE_NODES).
+                                append("initialValue", emptyList()).
+                                append("in", new Document("$concatArrays", asList("$$value",
+                                        selectNodeTestCases("$$this.node", "$$this.path", uuids)))))))).
+                append(TREE_NODES, new Document("$reduce", new Document("input", "$" + TREE_NODES).
+                        append("initialValue", emptyList()).
+                        append("in", new Document("$concatArrays", asList("$$value",
+                                getChildNodes("$$this.node", "$$this.path")))))));
+        for (int depth = 0; depth < MAX_TREE_DEPTH; depth++) {
+            operations.add(context -> level);
+        }
+        operations.add(context -> new Document("$project", new Document(TREE_NODES, 0)));
+        return operations;
+    }
+
+    private static Document selectNodeTestCases(String node, Object path, List<String> uuids) {
+        return new Document("$map", new Document("input",
+                new Document("$filter", new Document("input", ifNullEmpty(node + ".testCases")).
+                        append("as", "testCase").
+                        append("cond", new Document("$in", asList("$$testCase.uuid", uuids))))).
+                append("as", "testCase").
+                append("in", new Document("path", path).append("testCase", "$$testCase")));
+    }
+
+    // Children of a node as {node, path} documents
+    private static Document getChildNodes(String node, Object path) {
+        return new Document("$map", new Document("input",
+                new Document("$range", asList(0, new Document("$size", ifNullEmpty(node + ".children"))))).
+                append("as", "index").
+                append("in", new Document("node", new Document("$arrayElemAt", asList(node + ".children", "$$index"))).
+                        append("path", new Document("$concatArrays", asList(path, singletonList("$$index"))))));
+    }
+
+    private static Document timeOrNow(String field, long now) {
+        return new Document("$cond", asList(
+                new Document("$gt", asList(new Document("$ifNull", asList(field, 0L)), 0L)), field, now
+        ));
+    }
+
+    // Time between launches when nothing was running
+    private static long getIdleTime(List<Document> executions) {
+        List<Document> sortedExecutions = new ArrayList<>(executions);
+        sortedExecutions.sort(Comparator.comparingLong(execution -> getLong(execution, "start")));
+        return getIdleTime((Iterable<Document>) sortedExecutions);
+    }
+
+    private static long getIdleTime(Iterable<Document> sortedExecutions) {
+        long idle = 0;
+        Long lastFinish = null;
+        for (Document execution : sortedExecutions) {
+            long start = getLong(execution, "start");
+            if (lastFinish == null) {
+                lastFinish = getLong(execution, "finish");
+            }
+            if (start > lastFinish) {
+                idle += start - lastFinish;
+            }
+            lastFinish = Math.max(getLong(execution, "finish"), lastFinish);
+        }
+        return idle;
+    }
+
+    /**
+     * @param path - field name or a dotted path of a nested field, the document may be null
+     */
+    private static long getLong(Document document, String path) {
+        Object value = document;
+        for (String key : path.split("\\.")) {
+            value = value instanceof Document ? ((Document) value).get(key) : null;
+        }
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static int getInt(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
 }
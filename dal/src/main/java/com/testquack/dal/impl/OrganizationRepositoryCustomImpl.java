@@ -6,7 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoOperations;
 
 
-public class OrganizationRepositoryCustomImpl extends CommonRepositoryImpl<Organization>
+public class OrganizationRepositoryCustomImpl extends CachedRepositoryImpl<Organization>
         implements OrganizationRepositoryCustom {
 
     @Autowired
@@ -17,6 +17,11 @@ public class OrganizationRepositoryCustomImpl extends CommonRepositoryImpl<Organ
         return Organization.class;
     }
 
+    @Override
+    protected String getCacheName() {
+        return EntityCache.ORGANIZATIONS;
+    }
+
     @Override
     protected String getCollectionName(String organizationId, String projectId) {
         return "organizations";
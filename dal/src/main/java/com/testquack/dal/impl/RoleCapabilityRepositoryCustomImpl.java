@@ -10,7 +10,7 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 import java.util.List;
 
-public class RoleCapabilityRepositoryCustomImpl extends CommonRepositoryImpl<RoleCapability>
+public class RoleCapabilityRepositoryCustomImpl extends CachedRepositoryImpl<RoleCapability>
         implements RoleCapabilityRepositoryCustom {
 
     @Override
@@ -18,6 +18,11 @@ public class RoleCapabilityRepositoryCustomImpl extends CommonRepositoryImpl<Rol
         return RoleCapability.class;
     }
 
+    @Override
+    protected String getCacheName() {
+        return EntityCache.ROLE_CAPABILITIES;
+    }
+
     @Override
     protected String getCollectionName(String organizationId, String projectId) {
         return isEmpty(organizationId) ? "RoleCapability" : organizationId + "_rolecapability";
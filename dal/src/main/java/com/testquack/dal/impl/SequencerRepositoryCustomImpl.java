@@ -0,0 +1,25 @@
+package com.testquack.dal.impl;
+
+import com.testquack.beans.Sequencer;
+import com.testquack.dal.SequencerRepositoryCustom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class SequencerRepositoryCustomImpl implements SequencerRepositoryCustom {
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Override
+    public Sequencer increment(String sequencerId, long count) {
+        return mongoOperations.findAndModify(
+                new Query(Criteria.where("id").is(sequencerId)),
+                new Update().inc("index", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Sequencer.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.testquack.dal.impl;
+
+import com.testquack.beans.StoredBlob;
+import com.testquack.dal.StoredBlobRepositoryCustom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class StoredBlobRepositoryCustomImpl implements StoredBlobRepositoryCustom {
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Override
+    public StoredBlob addReference(String blobId, String url) {
+        return mongoOperations.findAndModify(
+                new Query(Criteria.where("id").is(blobId)),
+                new Update().inc("references", 1).setOnInsert("url", url),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                StoredBlob.class);
+    }
+
+    @Override
+    public StoredBlob addReference(String blobId) {
+        return mongoOperations.findAndModify(
+                new Query(Criteria.where("id").is(blobId).and("references").gt(0)),
+                new Update().inc("references", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                StoredBlob.class);
+    }
+
+    @Override
+    public StoredBlob removeReference(String blobId) {
+        StoredBlob blob = mongoOperations.findAndModify(
+                new Query(Criteria.where("id").is(blobId).and("references").gt(0)),
+                new Update().inc("references", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                StoredBlob.class);
+        if (blob == null || blob.getReferences() > 0) {
+            return null;
+        }
+        // Removed only if no upload of the same content referenced it again meanwhile
+        return mongoOperations.findAndRemove(
+                new Query(Criteria.where("id").is(blobId).and("references").lte(0)),
+                StoredBlob.class);
+    }
+}
@@ -1,13 +1,106 @@
 package com.testquack.dal.impl;
 
+import com.testquack.beans.Filter;
 import com.testquack.beans.TestCase;
+import com.testquack.beans.TestCasePreview;
 import com.testquack.dal.TestCaseRepositoryCustom;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.testquack.dal.impl.DBUtils.getAggregationOperations;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregationOptions;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 public class TestCaseRepositoryCustomImpl extends CommonRepositoryImpl<TestCase>
         implements TestCaseRepositoryCustom {
 
+    private final static String ATTRIBUTES = "attributes.";
+    private final static String GROUP_FIELD = "g";
+    private final static String LEVEL_FACET = "l";
+
     @Override
     public Class getEntityClass() {
         return TestCase.class;
     }
+
+    @Override
+    public Map<List<String>, Integer> countByGroups(String organizationId, String projectId, Filter filter,
+                                                    List<String> groups, String unknownGroup) {
+        // Every test case gets its values of each group, the unknown group if it has none.
+        // Unwinding the first n groups gives one document per test case per node at depth n.
+        Document groupValues = new Document("_id", 0);
+        for (int i = 0; i < groups.size(); i++) {
+            String attribute = "$" + ATTRIBUTES + groups.get(i);
+            groupValues.append(GROUP_FIELD + i, new Document("$cond", asList(
+                    new Document("$gt", asList(new Document("$size", new Document("$ifNull", asList(attribute, emptyList()))), 0)),
+                    attribute,
+                    singletonList(unknownGroup)
+            )));
+        }
+        Document levels = new Document();
+        for (int level = 0; level <= groups.size(); level++) {
+            List<Document> stages = new ArrayList<>();
+            Document nodeId = new Document();
+            for (int i = 0; i < level; i++) {
+                stages.add(new Document("$unwind", "$" + GROUP_FIELD + i));
+                nodeId.append(GROUP_FIELD + i, "$" + GROUP_FIELD + i);
+            }
+            stages.add(new Document("$group", new Document("_id", level == 0 ? null : nodeId).
+                    append("count", new Document("$sum", 1))));
+            levels.append(LEVEL_FACET + level, stages);
+        }
+
+        List<AggregationOperation> operations = getAggregationOperations(TestCase.class, filter);
+        operations.add(context -> new Document("$project", groupValues));
+        operations.add(context -> new Document("$facet", levels));
+
+        Document result = mongoOperations.aggregate(
+                newAggregation(TestCase.class, operations).withOptions(newAggregationOptions().allowDiskUse(true).build()),
+                getCollectionName(organizationId, projectId), Document.class).getUniqueMappedResult();
+
+        Map<List<String>, Integer> counts = new HashMap<>();
+        if (result == null) {
+            return counts;
+        }
+        for (int level = 0; level <= groups.size(); level++) {
+            for (Document node : result.getList(LEVEL_FACET + level, Document.class)) {
+                List<String> path = new ArrayList<>(level);
+                Document nodeId = level == 0 ? null : node.get("_id", Document.class);
+                for (int i = 0; i < level; i++) {
+                    path.add(String.valueOf(nodeId.get(GROUP_FIELD + i)));
+                }
+                counts.put(path, ((Number) node.get("count")).intValue());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public List<TestCasePreview> findInGroup(String organizationId, String projectId, Filter filter,
+                                             Map<String, String> groupValues, String unknownGroup) {
+        if (groupValues.isEmpty()) {
+            return mongoOperations.find(DBUtils.getQuery(TestCase.class, filter),
+                    TestCasePreview.class, getCollectionName(organizationId, projectId));
+        }
+        List<Criteria> groupCriteria = new ArrayList<>(groupValues.size());
+        groupValues.forEach((groupId, value) -> {
+            String attribute = ATTRIBUTES + groupId;
+            groupCriteria.add(unknownGroup.equals(value) ?
+                    new Criteria().orOperator(where(attribute).is(value), where(attribute).is(null), where(attribute).size(0)) :
+                    where(attribute).is(value));
+        });
+        return mongoOperations.find(
+                DBUtils.getQuery(TestCase.class, filter, new Criteria().andOperator(groupCriteria.toArray(new Criteria[0]))),
+                TestCasePreview.class, getCollectionName(organizationId, projectId));
+    }
 }
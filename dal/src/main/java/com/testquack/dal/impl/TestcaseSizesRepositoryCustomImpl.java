@@ -1,5 +1,7 @@
 package com.testquack.dal.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.testquack.beans.TestcaseSizes;
 import com.testquack.dal.TestcaseSizesRepositoryCustom;
 
@@ -13,6 +15,8 @@ import java.util.List;
 public class TestcaseSizesRepositoryCustomImpl extends CommonRepositoryImpl<TestcaseSizes>
         implements TestcaseSizesRepositoryCustom {
 
+    private static final Logger logger = LoggerFactory.getLogger(TestcaseSizesRepositoryCustomImpl.class);
+
     @Override
     public Class getEntityClass() {
         return TestcaseSizes.class;
@@ -24,15 +28,13 @@ public class TestcaseSizesRepositoryCustomImpl extends CommonRepositoryImpl<Test
 
         String collName = isEmpty(organizationId) ? "TestcaseSizes" : organizationId + "_testcaseSizes";
 
-System.out.println("TestcaseSizesRepositoryCustomImpl::getCollectionName - " + collName);
-System.out.flush();
+        logger.debug("TestcaseSizesRepositoryCustomImpl::getCollectionName - {}", collName);
         return collName;
     }
 
     @Override
     public List<TestcaseSizes> suggestTestcaseSizes(String organizationId, String literal) {
-System.out.println("TestcaseSizesRepositoryCustomImpl::suggestTestcaseSizes");
-System.out.flush();
+        logger.debug("TestcaseSizesRepositoryCustomImpl::suggestTestcaseSizes");
         Criteria criteria = new Criteria();
         criteria.orOperator(
                 Criteria.where("small").regex(literal, "i"),
@@ -9,7 +9,7 @@ import java.util.List;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
-public class UserRepositoryCustomImpl extends CommonRepositoryImpl<User>
+public class UserRepositoryCustomImpl extends CachedRepositoryImpl<User>
         implements UserRepositoryCustom {
 
     @Override
@@ -17,6 +17,11 @@ public class UserRepositoryCustomImpl extends CommonRepositoryImpl<User>
         return User.class;
     }
 
+    @Override
+    protected String getCacheName() {
+        return EntityCache.USERS;
+    }
+
     @Override
     protected String getCollectionName(String organizationId, String projectId) {
         return isEmpty(organizationId) ? "users" : organizationId + "_users";
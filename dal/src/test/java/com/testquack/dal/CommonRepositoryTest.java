@@ -4,7 +4,9 @@ import com.testquack.beans.Filter;
 import com.testquack.beans.TestCase;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.is;
@@ -85,5 +87,35 @@ public class CommonRepositoryTest extends DalBaseTest {
                 containsInAnyOrder(tc1.getId(), tc2.getId()));
     }
 
+    @Test
+    public void streamTest() {
+        TestCase tc1 = testCaseRepository.save(null, project1.getId(), (TestCase) new TestCase().withCreatedTime(1L));
+        TestCase tc2 = testCaseRepository.save(null, project1.getId(), (TestCase) new TestCase().withCreatedTime(2L));
+        testCaseRepository.save(null, project1.getId(), (TestCase) new TestCase().withCreatedTime(3L));
+
+        Filter filter = new Filter();
+        filter.addFields("to_createdTime", "2");
+
+        try (Stream<TestCase> testCases = testCaseRepository.stream(null, project1.getId(), filter)) {
+            assertThat(testCases.map(TestCase::getId).collect(toList()),
+                    containsInAnyOrder(tc1.getId(), tc2.getId()));
+        }
+    }
+
+    @Test
+    public void bulkSaveTest() {
+        TestCase existing = testCaseRepository.save(null, project1.getId(), (TestCase) new TestCase().withName("old"));
+        existing.setName("new");
+        TestCase created = (TestCase) new TestCase().withName("created");
+
+        List<BulkWriteReport> reports = testCaseRepository.bulkSave(null, project1.getId(), Arrays.asList(existing, created));
+        assertThat(reports.size(), is(1));
+        assertThat(reports.get(0).isSuccessful(), is(true));
+        assertThat(reports.get(0).getInserted(), is(1));
+        assertThat(reports.get(0).getModified(), is(1));
+
+        assertThat(testCaseRepository.findOne(null, project1.getId(), existing.getId()).getName(), is("new"));
+        assertThat(testCaseRepository.findOne(null, project1.getId(), created.getId()).getName(), is("created"));
+    }
 
 }
@@ -0,0 +1,46 @@
+package com.testquack.dal;
+
+import com.testquack.beans.TestCase;
+import com.testquack.dal.impl.IndexManager;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.testquack.dal.impl.CommonRepositoryImpl.getCollectionName;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.Assert.assertThat;
+
+public class IndexManagerTest extends DalBaseTest {
+
+    @Autowired
+    private IndexManager indexManager;
+
+    @Test
+    public void indexesAreCreatedOnFirstTouch() {
+        testCaseRepository.save(null, project1.getId(), (TestCase) new TestCase().withAlias("alias"));
+
+        List<String> indexedFields = mongoOperations.indexOps(getCollectionName(null, project1.getId(), TestCase.class)).
+                getIndexInfo().stream().
+                flatMap(index -> index.getIndexFields().stream()).
+                map(field -> field.getKey()).
+                collect(toList());
+        assertThat(indexedFields, hasItems("deleted", "alias", "createdTime"));
+    }
+
+    @Test
+    public void reportHasNoMissingIndexesAfterReconcile() {
+        mongoOperations.createCollection(getCollectionName(null, project2.getId(), TestCase.class));
+        indexManager.reconcile();
+
+        Optional<IndexReport> report = indexManager.getIndexReport().stream().
+                filter(collectionReport -> collectionReport.getCollectionName().
+                        equals(getCollectionName(null, project2.getId(), TestCase.class))).
+                findFirst();
+        assertThat(report.isPresent(), is(true));
+        assertThat(report.get().getMissingIndexes().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,109 @@
+package com.testquack.dal;
+
+import com.testquack.beans.Launch;
+import com.testquack.beans.LaunchStats;
+import com.testquack.beans.LaunchStatus;
+import com.testquack.beans.LaunchTestCase;
+import com.testquack.beans.LaunchTestCaseTree;
+import com.testquack.dal.LaunchStatisticsDelta.DocumentDelta;
+import org.junit.Test;
+
+import static com.testquack.dal.LaunchStatisticsDelta.LAUNCH;
+import static com.testquack.dal.LaunchStatisticsDelta.STATUS_COUNTERS;
+import static com.testquack.dal.LaunchStatisticsDelta.TESTCASE;
+import static com.testquack.dal.LaunchStatisticsDelta.TOTAL;
+import static com.testquack.dal.LaunchStatisticsDelta.getDocumentId;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LaunchStatisticsDeltaTest {
+
+    @Test
+    public void testCaseUpdateChangesLaunchAndTestCaseDocuments() {
+        LaunchStatisticsDelta delta = LaunchStatisticsDelta.ofUpdatedTestCase("launch1",
+                createTestCase(LaunchStatus.RUNNABLE), createTestCase(LaunchStatus.FAILED));
+
+        DocumentDelta launch = delta.getDocuments().get(getDocumentId(LAUNCH, "launch1"));
+        assertThat(launch.isUpsert(), is(false));
+        assertThat(launch.getIncrements().get(STATUS_COUNTERS + "." + LaunchStatus.RUNNABLE), is(-1L));
+        assertThat(launch.getIncrements().get(STATUS_COUNTERS + "." + LaunchStatus.FAILED), is(1L));
+
+        DocumentDelta testCase = delta.getDocuments().get(getDocumentId(TESTCASE, "tc1"));
+        assertThat(testCase.isUpsert(), is(true));
+        assertThat(testCase.getIncrements().containsKey(TOTAL), is(false));
+        assertThat(testCase.getIncrements().get(LaunchStatus.FAILED.toString()), is(1L));
+    }
+
+    @Test
+    public void createdLaunchAbsorbsLaterIncrements() {
+        LaunchStatisticsDelta delta = LaunchStatisticsDelta.ofCreatedLaunch(createLaunch()).merge(
+                LaunchStatisticsDelta.ofUpdatedTestCase("launch1",
+                        createTestCase(LaunchStatus.RUNNABLE), createTestCase(LaunchStatus.PASSED)));
+
+        DocumentDelta launch = delta.getDocuments().get(getDocumentId(LAUNCH, "launch1"));
+        assertThat(launch.isUpsert(), is(true));
+        assertThat(launch.getIncrements().isEmpty(), is(true));
+        assertThat(launch.getValues().get(STATUS_COUNTERS + "." + LaunchStatus.RUNNABLE), is(0L));
+        assertThat(launch.getValues().get(STATUS_COUNTERS + "." + LaunchStatus.PASSED), is(1L));
+    }
+
+    @Test
+    public void removedLaunchDropsItsDocument() {
+        LaunchStatisticsDelta delta = LaunchStatisticsDelta.ofRemovedLaunch(createLaunch());
+
+        assertThat(delta.getRemovals().contains(getDocumentId(LAUNCH, "launch1")), is(true));
+        assertThat(delta.getDocuments().containsKey(getDocumentId(LAUNCH, "launch1")), is(false));
+        assertThat(delta.getDocuments().get(getDocumentId(TESTCASE, "tc1")).getIncrements().get(TOTAL), is(-1L));
+    }
+
+    @Test
+    public void updatedLaunchIsWrittenWhole() {
+        Launch deleted = createLaunch();
+        deleted.setDeleted(true);
+
+        assertThat(LaunchStatisticsDelta.ofUpdatedLaunch(createLaunch(), deleted).
+                getRemovals().contains(getDocumentId(LAUNCH, "launch1")), is(true));
+        LaunchStatisticsDelta delta = LaunchStatisticsDelta.ofUpdatedLaunch(createLaunch(), createLaunch());
+        assertThat(delta.getRemovals().isEmpty(), is(true));
+        assertThat(delta.getDocuments().get(getDocumentId(LAUNCH, "launch1")).getValues().get(TOTAL), is(1));
+        assertThat(delta.getDocuments().get(getDocumentId(TESTCASE, "tc1")).getIncrements().isEmpty(), is(true));
+    }
+
+    @Test
+    public void changedTestCasesKeepLaunchDocumentWhole() {
+        LaunchStatisticsDelta delta = LaunchStatisticsDelta.ofUpdatedLaunchDocument(createLaunch()).
+                withTestCaseChange(createTestCase(LaunchStatus.RUNNABLE), createTestCase(LaunchStatus.BROKEN));
+
+        DocumentDelta launch = delta.getDocuments().get(getDocumentId(LAUNCH, "launch1"));
+        assertThat(launch.isUpsert(), is(true));
+        assertThat(launch.getIncrements().isEmpty(), is(true));
+        assertThat(launch.getValues().get(STATUS_COUNTERS + "." + LaunchStatus.RUNNABLE), is(1));
+
+        DocumentDelta testCase = delta.getDocuments().get(getDocumentId(TESTCASE, "tc1"));
+        assertThat(testCase.getIncrements().containsKey(TOTAL), is(false));
+        assertThat(testCase.getIncrements().get(LaunchStatus.RUNNABLE.toString()), is(-1L));
+        assertThat(testCase.getIncrements().get(LaunchStatus.BROKEN.toString()), is(1L));
+
+        assertThat(LaunchStatisticsDelta.ofUpdatedLaunchDocument(createLaunch()).
+                withTestCaseChange(createTestCase(LaunchStatus.PASSED), null).
+                getDocuments().get(getDocumentId(TESTCASE, "tc1")).getIncrements().get(TOTAL), is(-1L));
+    }
+
+    private Launch createLaunch() {
+        LaunchStats stats = new LaunchStats();
+        stats.setTotal(1);
+        stats.getStatusCounters().put(LaunchStatus.RUNNABLE, 1);
+        Launch launch = new Launch();
+        launch.setId("launch1");
+        launch.setLaunchStats(stats);
+        launch.setTestCaseTree(new LaunchTestCaseTree().withTestCases(createTestCase(LaunchStatus.RUNNABLE)));
+        return launch;
+    }
+
+    private LaunchTestCase createTestCase(LaunchStatus status) {
+        LaunchTestCase testCase = new LaunchTestCase();
+        testCase.setId("tc1");
+        testCase.setLaunchStatus(status);
+        return testCase;
+    }
+}
@@ -1,6 +1,7 @@
 package com.testquack.tracker;
 
-import com.testquack.client.HttpClientBuilder;
+import com.testquack.client.ClientRequestContext;
+import com.testquack.client.HttpClientRegistry;
 import com.testquack.tracker.jira.IssuesSearchResults;
 import com.testquack.tracker.jira.JiraField;
 import com.testquack.tracker.jira.JiraIssue;
@@ -13,12 +14,14 @@ import com.testquack.beans.IssuePriority;
 import com.testquack.beans.IssueType;
 import com.testquack.beans.TrackerProject;
 import com.testquack.tracker.jira.CreateJiraIssueFields;
+import retrofit2.Call;
 import ru.greatbit.whoru.auth.Session;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -41,13 +44,13 @@ public class JiraTracker implements Tracker {
 
     @Override
     public Issue getIssue(HttpServletRequest request, Session userSession, String issueId) throws IOException {
-        return convertIssue(getClient(request).getIssue(issueId).execute().body());
+        return convertIssue(execute(request, client -> client.getIssue(issueId)));
     }
 
     @Override
     public Issue createIssue(HttpServletRequest request, Session userSession, Issue issue) throws IOException {
         validateIssue(issue);
-        JiraIssue emptyIssue = getClient(request).createIssue(convertToCreateIssue(issue)).execute().body();
+        JiraIssue emptyIssue = execute(request, client -> client.createIssue(convertToCreateIssue(issue)));
         return getIssue(request, userSession, emptyIssue.getId());
     }
 
@@ -69,7 +72,7 @@ public class JiraTracker implements Tracker {
 
     @Override
     public List<Issue> suggestIssue(HttpServletRequest request, Session userSession, String issueProject, String text) throws IOException {
-        IssuesSearchResults searchResults = getClient(request).suggestIssues(getSearchIssueJql(text)).execute().body();
+        IssuesSearchResults searchResults = execute(request, client -> client.suggestIssues(getSearchIssueJql(text)));
         if (searchResults == null) {
             return Collections.emptyList();
         }
@@ -79,7 +82,7 @@ public class JiraTracker implements Tracker {
 
     @Override
     public List<TrackerProject> suggestProjects(HttpServletRequest request, Session userSession, String project, String text) throws IOException {
-        List<JiraProject> jiraProjects = getClient(request).getProjects().execute().body();
+        List<JiraProject> jiraProjects = execute(request, JiraRestClient::getProjects);
         if (jiraProjects == null) {
             return Collections.emptyList();
         }
@@ -88,7 +91,7 @@ public class JiraTracker implements Tracker {
 
     @Override
     public List<IssueType> getIssueTypes(HttpServletRequest request, Session userSession, String issueProject) throws Exception {
-        JiraProject jiraProject = getClient(request).getProject(issueProject).execute().body();
+        JiraProject jiraProject = execute(request, client -> client.getProject(issueProject));
         if (jiraProject == null) {
             return Collections.emptyList();
         }
@@ -103,7 +106,7 @@ public class JiraTracker implements Tracker {
 
     @Override
     public List<IssuePriority> getIssuePriorities(HttpServletRequest request, Session userSession, String issueProject) throws Exception {
-        return getClient(request).getPriorities().execute().body().stream().map(this::convertPriority).collect(toList());
+        return execute(request, JiraRestClient::getPriorities).stream().map(this::convertPriority).collect(toList());
     }
 
     private IssuePriority convertPriority(JiraField jiraField) {
@@ -112,12 +115,14 @@ public class JiraTracker implements Tracker {
 
     @Override
     public List<TrackerProject> getAllProjects(HttpServletRequest request, Session userSession, String project) throws Exception {
-        return getClient(request).getProjects().execute().body().stream().map(this::convertProject).collect(Collectors.toList());
+        return execute(request, JiraRestClient::getProjects).stream().map(this::convertProject).collect(Collectors.toList());
     }
 
-    private JiraRestClient getClient(HttpServletRequest request) {
-        return HttpClientBuilder.builder(jiraApiEndpoint, jiraApiTimeout, request).build().
-                create(JiraRestClient.class);
+    private <T> T execute(HttpServletRequest request, Function<JiraRestClient, Call<T>> call) throws IOException {
+        try (ClientRequestContext.Scope scope = ClientRequestContext.open(request)) {
+            return call.apply(HttpClientRegistry.getClient(jiraApiEndpoint, jiraApiTimeout, JiraRestClient.class)).
+                    execute().body();
+        }
     }
 
     private Issue convertIssue(JiraIssue jiraIssue) {
@@ -4,7 +4,8 @@ import com.testquack.liken.beans.Testcase;
 import com.testquack.beans.Launch;
 import com.testquack.beans.LaunchTestCase;
 import com.testquack.beans.Property;
-import com.testquack.client.HttpClientBuilder;
+import com.testquack.client.ClientRequestContext;
+import com.testquack.client.HttpClientRegistry;
 import com.testquack.launcher.error.LauncherException;
 import org.springframework.beans.factory.annotation.Value;
 import retrofit2.Response;
@@ -36,7 +37,10 @@ public class LikenLauncher extends BaseLauncher<LikenLauncherConfig> {
     public Launch launch(Launch launch, String projectId, HttpServletRequest request) throws Exception {
         LikenLauncherConfig config = getPluginConfig(new LikenLauncherConfig(), launch.getLauncherConfig());
         com.testquack.liken.beans.Launch likenLaunch = convert(config, launch, projectId);
-        Response<com.testquack.liken.beans.Launch> response = getClient(config, request).createLaunch(likenLaunch).execute();
+        Response<com.testquack.liken.beans.Launch> response;
+        try (ClientRequestContext.Scope scope = ClientRequestContext.open(request)) {
+            response = getClient(config).createLaunch(likenLaunch).execute();
+        }
         if (response.code() != 200) {
             throw new LauncherException(format("Unable to launch Liken, got response code %s", response.code()));
         }
@@ -96,8 +100,7 @@ public class LikenLauncher extends BaseLauncher<LikenLauncherConfig> {
         return emptyIfNull(prefix) + replacedValue + emptyIfNull(params);
     }
 
-    private LikenClient getClient(LikenLauncherConfig config, HttpServletRequest request) {
-        return HttpClientBuilder.builder(config.getApiEndpoint(), config.getTimeout(), request).build().
-                create(LikenClient.class);
+    private LikenClient getClient(LikenLauncherConfig config) {
+        return HttpClientRegistry.getClient(config.getApiEndpoint(), config.getTimeout(), LikenClient.class);
     }
 }
@@ -4,25 +4,26 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.*;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import com.testquack.beans.Attachment;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.jvnet.jaxb2_commons.lang.StringUtils.isEmpty;
 
@@ -48,11 +49,22 @@ public class S3Storage implements Storage {
     @Value("${storage.amazons3.max.retry}")
     private int AMAZON_STORAGE_RETRIES;
 
-    @Value("${storage.amazons3.temp.folder}")
-    private String AMAZON_STORAGE_TRMP_FOLDER;
+    @Value("${storage.amazons3.endpoint:}")
+    private String AMAZON_STORAGE_ENDPOINT; // Set to use an S3 compatible storage instead of Amazon S3
+
+    @Value("${storage.amazons3.upload.part.size:8388608}")
+    private int AMAZON_STORAGE_UPLOAD_PART_SIZE;
+
+    @Value("${storage.amazons3.upload.threads:4}")
+    private int AMAZON_STORAGE_UPLOAD_THREADS;
+
+    @Value("${storage.amazons3.upload.buffers:8}")
+    private int AMAZON_STORAGE_UPLOAD_BUFFERS; // Part buffers shared by all concurrent uploads
 
 
     private AmazonS3 client;
+    private ExecutorService uploadExecutor;
+    private S3StreamUploader uploader;
     private Bucket bucket;
     private String AMAZON_FILE_PATH_FLAG = "amazonS3://";
     private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM_dd_yyyy_hh_mm_");
@@ -65,11 +77,22 @@ public class S3Storage implements Storage {
                 .withSocketTimeout(AMAZON_STORAGE_TIMEOUT)
                 .withTcpKeepAlive(true)
                 .withMaxErrorRetry(AMAZON_STORAGE_RETRIES);
-        client = AmazonS3ClientBuilder.standard()
+        AmazonS3ClientBuilder clientBuilder = AmazonS3ClientBuilder.standard()
                 .withCredentials(new AWSStaticCredentialsProvider(awsCreds))
-                .withClientConfiguration(configuration)
-                .withRegion(AMAZON_STORAGE_REGION)
-                .build();
+                .withClientConfiguration(configuration);
+        if (isEmpty(AMAZON_STORAGE_ENDPOINT)) {
+            clientBuilder.withRegion(AMAZON_STORAGE_REGION);
+        } else {
+            clientBuilder.withEndpointConfiguration(new EndpointConfiguration(AMAZON_STORAGE_ENDPOINT, AMAZON_STORAGE_REGION))
+                    .withPathStyleAccessEnabled(true);
+        }
+        client = clientBuilder.build();
+
+        // Buffered parts bound the upload memory of the whole storage, parts are read from requests while others are uploaded
+        uploadExecutor = Executors.newFixedThreadPool(AMAZON_STORAGE_UPLOAD_THREADS);
+        uploader = new S3StreamUploader(client, uploadExecutor,
+                Math.max(AMAZON_STORAGE_UPLOAD_PART_SIZE, S3StreamUploader.MIN_PART_SIZE),
+                Math.max(AMAZON_STORAGE_UPLOAD_BUFFERS, 1));
 
         if (!isBucketExists()) {
             try {
@@ -84,16 +107,11 @@ public class S3Storage implements Storage {
     @Override
     public Attachment upload(String organizationId, String projectId, InputStream uploadedInputStream, String fileName, long size) throws IOException {
         String fileNameInCloud = createFileS3key(organizationId, projectId, fileName);
-        File tempFile = new File(AMAZON_STORAGE_TRMP_FOLDER + File.separator + fileNameInCloud);
-        FileUtils.copyInputStreamToFile(uploadedInputStream, tempFile);
-        long fileSize = tempFile.length() / 1024;
+        long fileSize;
         try {
-            client.putObject(new PutObjectRequest(AMAZON_STORAGE_BUCKET_NAME, fileNameInCloud, tempFile));
-        } catch (AmazonServiceException e) {
-            logger.error(e.getErrorMessage());
-            throw new IOException(e);
+            fileSize = uploader.upload(AMAZON_STORAGE_BUCKET_NAME, fileNameInCloud, uploadedInputStream) / 1024;
         } finally {
-            tempFile.delete();
+            uploadedInputStream.close();
         }
         return new Attachment()
                 .withUrl(AMAZON_FILE_PATH_FLAG + fileNameInCloud)
@@ -101,6 +119,13 @@ public class S3Storage implements Storage {
                 .withDataSize(fileSize);
     }
 
+    @PreDestroy
+    public void destroy() {
+        if (uploadExecutor != null) {
+            uploadExecutor.shutdown();
+        }
+    }
+
     private String createFileS3key(String organizationId, String projectId, String fileName){
         String key = projectId + "/" + LocalDateTime.now().format(formatter) + fileName;
         return isEmpty(organizationId) ? key : organizationId + "/" + key;
@@ -109,8 +134,7 @@ public class S3Storage implements Storage {
     @Override
     public void remove(Attachment attachment) throws IOException {
         try {
-            client.deleteObject(AMAZON_STORAGE_BUCKET_NAME,
-                    attachment.getUrl().replace(AMAZON_FILE_PATH_FLAG, ""));
+            client.deleteObject(AMAZON_STORAGE_BUCKET_NAME, getFileS3Key(attachment));
         } catch (AmazonServiceException e) {
             logger.error(e.getErrorMessage());
         }
@@ -118,25 +142,45 @@ public class S3Storage implements Storage {
 
     @Override
     public InputStream get(Attachment attachment) throws IOException {
-        byte[] content = null;
+        return getObjectContent(new GetObjectRequest(AMAZON_STORAGE_BUCKET_NAME, getFileS3Key(attachment)));
+    }
+
+    @Override
+    public InputStream get(Attachment attachment, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        return getObjectContent(new GetObjectRequest(AMAZON_STORAGE_BUCKET_NAME, getFileS3Key(attachment))
+                .withRange(offset, offset + length - 1));
+    }
+
+    @Override
+    public ContentInfo getContentInfo(Attachment attachment) throws IOException {
         try {
-            S3Object o = client.getObject(AMAZON_STORAGE_BUCKET_NAME,
-                    attachment.getUrl().replace(AMAZON_FILE_PATH_FLAG, ""));
-            S3ObjectInputStream s3is = o.getObjectContent();
-            content = IOUtils.toByteArray(s3is);
-            s3is.close();
+            ObjectMetadata metadata = client.getObjectMetadata(AMAZON_STORAGE_BUCKET_NAME, getFileS3Key(attachment));
+            return new ContentInfo(metadata.getContentLength(), metadata.getETag(), metadata.getLastModified());
         } catch (AmazonServiceException e) {
             logger.error(e.getErrorMessage());
             throw new IOException(e);
-        } catch (IOException e) {
-            logger.error(e.getMessage());
-            throw e;
         }
-
-        return new ByteArrayInputStream(content);
     }
 
+    /**
+     * The content is read from the open HTTP connection.
+     * Closing the stream releases the connection, or aborts it if the content was not read to the end.
+     */
+    private InputStream getObjectContent(GetObjectRequest request) throws IOException {
+        try {
+            return client.getObject(request).getObjectContent();
+        } catch (AmazonServiceException e) {
+            logger.error(e.getErrorMessage());
+            throw new IOException(e);
+        }
+    }
 
+    private String getFileS3Key(Attachment attachment) {
+        return attachment.getUrl().replace(AMAZON_FILE_PATH_FLAG, "");
+    }
 
     private boolean isBucketExists() {
         List<Bucket> buckets = client.listBuckets();
@@ -0,0 +1,218 @@
+package com.testquack.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.util.Md5Utils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams content to S3 with a multipart upload without spooling it to disk.
+ * Parts are read into buffers and uploaded in parallel by the executor,
+ * every part is sent with its Content-MD5 so S3 rejects the parts corrupted on the way.
+ * Content smaller than a part is stored with a single put request.
+ * All uploads of the uploader share at most maxBufferedParts buffers, so concurrent uploads
+ * wait for a buffer instead of holding a part size of memory each without a bound.
+ */
+class S3StreamUploader {
+
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AmazonS3 client;
+    private final ExecutorService executor;
+    private final int partSize;
+    private final Semaphore buffers;
+
+    S3StreamUploader(AmazonS3 client, ExecutorService executor, int partSize, int maxBufferedParts) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException(String.format("Part size should be at least %s bytes", MIN_PART_SIZE));
+        }
+        if (maxBufferedParts < 1) {
+            throw new IllegalArgumentException("At least one part buffer is required");
+        }
+        this.client = client;
+        this.executor = executor;
+        this.partSize = partSize;
+        this.buffers = new Semaphore(maxBufferedParts, true);
+    }
+
+    /**
+     * @return number of uploaded bytes
+     */
+    long upload(String bucketName, String key, InputStream content) throws IOException {
+        PartBuffer buffer = acquireBuffer(key);
+        try {
+            byte[] part = readPart(content);
+            if (part.length < partSize) {
+                putObject(bucketName, key, part);
+                return part.length;
+            }
+            return uploadParts(bucketName, key, content, part, buffer);
+        } catch (AmazonClientException e) {
+            logger.error(e.getMessage());
+            throw new IOException(e);
+        } finally {
+            // Parts are uploaded or aborted by now, the first part may have released its buffer already
+            buffer.release();
+        }
+    }
+
+    private void putObject(String bucketName, String key, byte[] content) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        metadata.setContentMD5(Md5Utils.md5AsBase64(content));
+        client.putObject(new PutObjectRequest(bucketName, key, new ByteArrayInputStream(content), metadata));
+    }
+
+    private long uploadParts(String bucketName, String key, InputStream content, byte[] firstPart,
+                             PartBuffer firstBuffer) throws IOException {
+        List<Future<PartETag>> parts = new ArrayList<>();
+        List<PartBuffer> partBuffers = new ArrayList<>();
+        String uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, key)).getUploadId();
+        try {
+            long size = 0;
+            byte[] part = firstPart;
+            PartBuffer buffer = firstBuffer;
+            while (true) {
+                size += part.length;
+                partBuffers.add(buffer);
+                parts.add(submitPart(bucketName, key, uploadId, parts.size() + 1, part, buffer));
+                if (part.length < partSize) {
+                    break;
+                }
+                buffer = acquireBuffer(key);
+                try {
+                    checkUploadedParts(parts);
+                    part = readPart(content);
+                } catch (ExecutionException | InterruptedException | IOException | RuntimeException e) {
+                    buffer.release();
+                    throw e;
+                }
+                if (part.length == 0) {
+                    buffer.release();
+                    break;
+                }
+            }
+
+            List<PartETag> partETags = new ArrayList<>(parts.size());
+            for (Future<PartETag> uploadedPart : parts) {
+                partETags.add(uploadedPart.get());
+            }
+            client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+            return size;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucketName, key, uploadId, parts, partBuffers);
+            throw new InterruptedIOException("Upload of " + key + " was interrupted");
+        } catch (ExecutionException e) {
+            abort(bucketName, key, uploadId, parts, partBuffers);
+            throw new IOException(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abort(bucketName, key, uploadId, parts, partBuffers);
+            throw e;
+        }
+    }
+
+    private Future<PartETag> submitPart(String bucketName, String key, String uploadId, int partNumber,
+                                        byte[] part, PartBuffer buffer) {
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(part.length)
+                .withMD5Digest(Md5Utils.md5AsBase64(part))
+                .withInputStream(new ByteArrayInputStream(part));
+        try {
+            return executor.submit(() -> {
+                try {
+                    return client.uploadPart(request).getPartETag();
+                } finally {
+                    buffer.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops reading the content as soon as a part failed
+     */
+    private void checkUploadedParts(List<Future<PartETag>> parts) throws ExecutionException, InterruptedException {
+        for (Future<PartETag> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+
+    private void abort(String bucketName, String key, String uploadId, List<Future<PartETag>> parts,
+                       List<PartBuffer> partBuffers) {
+        for (int i = 0; i < parts.size(); i++) {
+            // Parts cancelled before they started never release their buffers themselves
+            if (parts.get(i).cancel(true)) {
+                partBuffers.get(i).release();
+            }
+        }
+        try {
+            client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        } catch (AmazonClientException e) {
+            logger.error("Unable to abort multipart upload of {}: {}", key, e.getMessage());
+        }
+    }
+
+    private PartBuffer acquireBuffer(String key) throws InterruptedIOException {
+        try {
+            buffers.acquire();
+            return new PartBuffer();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Upload of " + key + " was interrupted");
+        }
+    }
+
+    private byte[] readPart(InputStream content) throws IOException {
+        byte[] part = new byte[partSize];
+        int length = IOUtils.read(content, part);
+        return length == partSize ? part : Arrays.copyOf(part, length);
+    }
+
+    /**
+     * Permit of a single part buffer, returned once whether the upload of the part ran or was cancelled
+     */
+    private class PartBuffer {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                buffers.release();
+            }
+        }
+    }
+}
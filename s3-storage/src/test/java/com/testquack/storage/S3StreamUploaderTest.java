@@ -0,0 +1,196 @@
+package com.testquack.storage;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.util.Md5Utils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class S3StreamUploaderTest {
+
+    private static final int PART_SIZE = S3StreamUploader.MIN_PART_SIZE;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final InMemoryS3 s3 = new InMemoryS3();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void smallContentIsPutAtOnce() throws IOException {
+        byte[] content = createContent(1024);
+        long size = new S3StreamUploader(s3, executor, PART_SIZE, 3).upload("bucket", "small", new ByteArrayInputStream(content));
+
+        assertThat(size, is(1024L));
+        assertThat(s3.objects.get("small"), is(content));
+        assertThat(s3.uploadedParts.get(), is(0));
+    }
+
+    @Test
+    public void largeContentIsUploadedInParts() throws IOException {
+        byte[] content = createContent(2 * PART_SIZE + 100);
+        long size = new S3StreamUploader(s3, executor, PART_SIZE, 3).upload("bucket", "large", new ByteArrayInputStream(content));
+
+        assertThat(size, is((long) content.length));
+        assertThat(s3.objects.get("large"), is(content));
+        assertThat(s3.uploadedParts.get(), is(3));
+    }
+
+    @Test(timeout = 30000)
+    public void failedPartAbortsUpload() throws IOException {
+        S3StreamUploader uploader = new S3StreamUploader(s3, executor, PART_SIZE, 1);
+        s3.failingPart = 2;
+        try {
+            uploader.upload("bucket", "failed", new ByteArrayInputStream(createContent(3 * PART_SIZE)));
+            fail("Upload should fail");
+        } catch (IOException e) {
+            assertThat(s3.objects.containsKey("failed"), is(false));
+            assertThat(s3.parts.isEmpty(), is(true));
+        }
+
+        // Buffers of the failed upload are released
+        s3.failingPart = 0;
+        byte[] content = createContent(2 * PART_SIZE);
+        uploader.upload("bucket", "retried", new ByteArrayInputStream(content));
+        assertThat(s3.objects.get("retried"), is(content));
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentUploadsShareBuffers() throws Exception {
+        S3StreamUploader uploader = new S3StreamUploader(s3, executor, PART_SIZE, 2);
+        ExecutorService requests = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Long>> uploads = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String key = "concurrent" + i;
+                uploads.add(requests.submit(() ->
+                        uploader.upload("bucket", key, new ByteArrayInputStream(createContent(3 * PART_SIZE)))));
+            }
+            for (Future<Long> upload : uploads) {
+                assertThat(upload.get(), is(3L * PART_SIZE));
+            }
+            // Parts of all uploads in flight never exceed the shared buffers
+            assertThat(s3.maxConcurrentParts.get() <= 2, is(true));
+            assertThat(s3.uploadedParts.get(), is(9));
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    private byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Keeps objects in memory and checks the Content-MD5 of the parts the same way S3 does
+     */
+    private static class InMemoryS3 extends AbstractAmazonS3 {
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, byte[]>> parts = new ConcurrentHashMap<>();
+        private final AtomicInteger uploadedParts = new AtomicInteger();
+        private final AtomicInteger concurrentParts = new AtomicInteger();
+        private final AtomicInteger maxConcurrentParts = new AtomicInteger();
+        private volatile int failingPart;
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest request) {
+            byte[] content = read(request.getInputStream());
+            checkMD5(content, request.getMetadata().getContentMD5());
+            objects.put(request.getKey(), content);
+            return new PutObjectResult();
+        }
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId(request.getKey());
+            parts.put(request.getKey(), new ConcurrentHashMap<>());
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(UploadPartRequest request) {
+            if (request.getPartNumber() == failingPart) {
+                throw new AmazonServiceException("Part upload failed");
+            }
+            maxConcurrentParts.accumulateAndGet(concurrentParts.incrementAndGet(), Math::max);
+            byte[] content;
+            try {
+                content = read(request.getInputStream());
+            } finally {
+                concurrentParts.decrementAndGet();
+            }
+            checkMD5(content, request.getMd5Digest());
+            parts.get(request.getUploadId()).put(request.getPartNumber(), content);
+            uploadedParts.incrementAndGet();
+
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag(Md5Utils.md5AsBase64(content));
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            Map<Integer, byte[]> uploaded = parts.remove(request.getUploadId());
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (PartETag partETag : request.getPartETags()) {
+                content.write(uploaded.get(partETag.getPartNumber()), 0, uploaded.get(partETag.getPartNumber()).length);
+            }
+            objects.put(request.getKey(), content.toByteArray());
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+            parts.remove(request.getUploadId());
+        }
+
+        private byte[] read(InputStream input) {
+            try {
+                return IOUtils.toByteArray(input);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void checkMD5(byte[] content, String md5) {
+            if (!Md5Utils.md5AsBase64(content).equals(md5)) {
+                throw new AmazonServiceException("Content-MD5 mismatch");
+            }
+        }
+    }
+}
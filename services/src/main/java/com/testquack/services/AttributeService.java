@@ -1,5 +1,6 @@
 package com.testquack.services;
 
+import com.google.common.collect.Iterators;
 import com.testquack.beans.AttributeValue;
 import com.testquack.beans.TestCase;
 import com.testquack.beans.TestcaseFilter;
@@ -18,8 +19,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -27,6 +30,8 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 @Service
 public class AttributeService extends BaseService<Attribute> {
 
+    private static final int TESTCASES_UPDATE_CHUNK_SIZE = 500;
+
     @Autowired
     private TestCaseService testCaseService;
 
@@ -98,15 +103,13 @@ public class AttributeService extends BaseService<Attribute> {
         );
 
 
-        List<TestCase> affectedTestcases = testCaseService.findFiltered(session, projectId, testcaseFilter);
-        affectedTestcases.forEach(testCase -> {
+        updateTestcases(session, projectId, testcaseFilter, testCase -> {
             Set<String> newTestcaseAttributeValues = testCase.getAttributes().get(entity.getId()).stream()
                     .map(value -> changedValues.getOrDefault(value, value))
                     .filter(value -> !removedValues.containsKey(value))
                     .collect(Collectors.toSet());
             testCase.getAttributes().put(entity.getId(), newTestcaseAttributeValues);
         });
-        testCaseService.save(session, projectId, affectedTestcases);
     }
 
 
@@ -120,12 +123,23 @@ public class AttributeService extends BaseService<Attribute> {
                                 .withAttrValues(attributeToDelete.getAttrValues())
                 )
         );
-        List<TestCase> affectedTestcases = testCaseService.findFiltered(session, projectId, testcaseFilter);
-        affectedTestcases.forEach(testCase -> testCase.getAttributes().remove(id));
-        testCaseService.save(session, projectId, affectedTestcases);
+        updateTestcases(session, projectId, testcaseFilter, testCase -> testCase.getAttributes().remove(id));
         super.delete(session, projectId, id);
     }
 
+    /**
+     * Test cases are read with a cursor and saved in chunks so that attributes used
+     * in big projects could be changed without loading all test cases into memory
+     */
+    private void updateTestcases(Session session, String projectId, TestcaseFilter filter, Consumer<TestCase> update) {
+        try (Stream<TestCase> affectedTestcases = testCaseService.streamFiltered(session, projectId, filter)) {
+            Iterators.partition(affectedTestcases.iterator(), TESTCASES_UPDATE_CHUNK_SIZE).forEachRemaining(chunk -> {
+                chunk.forEach(update);
+                testCaseService.save(session, projectId, chunk);
+            });
+        }
+    }
+
     /**
      *
      * Attribute values migrated from strings to objects
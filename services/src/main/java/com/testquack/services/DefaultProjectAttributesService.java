@@ -31,10 +31,9 @@ public class DefaultProjectAttributesService extends BaseService<DefaultProjectA
 
     @Override
     public List<DefaultProjectAttributes> findFiltered(Session session, String projectId, Filter filter) {
-System.out.println("DefaultProjectAttributesService.findFiltered - session: " + session);
-System.out.println("DefaultProjectAttributesService.findFiltered - projectId: " + projectId);
-System.out.println("DefaultProjectAttributesService.findFiltered - filter: " + filter);
-System.out.flush();
+        logger.trace("DefaultProjectAttributesService.findFiltered - session: {}", session);
+        logger.debug("DefaultProjectAttributesService.findFiltered - projectId: {}", projectId);
+        logger.trace("DefaultProjectAttributesService.findFiltered - filter: {}", filter);
         return getRepository().find(getCurrOrganizationId(session), projectId, filter);
     }
 
@@ -5,6 +5,9 @@ import com.testquack.dal.CommonRepository;
 import com.testquack.dal.EventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.greatbit.whoru.auth.Session;
+
+import java.util.Collection;
 
 @Service
 public class EventService extends BaseService<Event> {
@@ -17,5 +20,15 @@ public class EventService extends BaseService<Event> {
         return repository;
     }
 
+    /**
+     * Creates several events with a single repository call
+     */
+    public Collection<Event> createAll(Session session, String projectId, Collection<Event> events) {
+        events.forEach(event -> {
+            beforeCreate(session, projectId, event);
+            beforeSave(session, projectId, event);
+        });
+        return save(session, projectId, events);
+    }
 
 }
@@ -1,7 +1,6 @@
 package com.testquack.services;
 
 import com.google.common.collect.MinMaxPriorityQueue;
-import com.hazelcast.cp.lock.FencedLock;
 import com.testquack.beans.Event;
 import com.testquack.beans.FailureDetails;
 import com.testquack.beans.Filter;
@@ -11,39 +10,51 @@ import com.testquack.beans.LaunchStatistics;
 import com.testquack.beans.LaunchStats;
 import com.testquack.beans.LaunchStatus;
 import com.testquack.beans.LaunchTestCase;
+import com.testquack.beans.LaunchTestCaseStatusUpdate;
+import com.testquack.beans.LaunchTestCaseStatusUpdateResult;
 import com.testquack.beans.LaunchTestCaseTree;
 import com.testquack.beans.LaunchTestcaseStats;
 import com.testquack.beans.TestCase;
 import com.testquack.beans.TestCaseTree;
 import com.testquack.beans.TestSuite;
 import com.testquack.beans.TestcaseFilter;
-import com.testquack.dal.impl.DBUtils;
+import com.testquack.services.errors.EntityAccessDeniedException;
 import com.testquack.services.errors.EntityNotFoundException;
+import com.testquack.services.errors.EntityValidationException;
 import com.testquack.tracker.Tracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.testquack.dal.CommonRepository;
 import com.testquack.dal.LaunchRepository;
+import com.testquack.dal.LaunchStatisticsDelta;
+import com.testquack.dal.LaunchTestCasePatch;
+import com.testquack.dal.LaunchTestCasesSelection;
 import ru.greatbit.whoru.auth.Session;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.time.Instant;
 
-import static com.testquack.dal.impl.CommonRepositoryImpl.getCollectionName;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.springframework.util.StringUtils.isEmpty;
@@ -70,42 +81,66 @@ public class LaunchService extends BaseService<Launch> {
     @Autowired
     private EventService eventService;
 
-    @Autowired
-    DBUtils dbUtils;
-
     private final String FAILURE_DETAILS_TYPE = "failureDetails";
 
+    // Cross-checks incrementally maintained launch stats against a full recount, meant for tests
+    @Value("${quack.launch.stats.verify:false}")
+    private boolean verifyLaunchStats;
+
     @Override
     protected CommonRepository<Launch> getRepository() {
         return repository;
     }
 
+    private final static int STATUS_UPDATE_ATTEMPTS = 10;
+
     private final static Set<LaunchStatus> NON_FAILED_STATUSES = Stream.of(RUNNING, RUNNABLE, PASSED).collect(toSet());
 
     public LaunchTestCase updateLaunchTestCaseStatus(HttpServletRequest request,
                                                      Session session, String projectId,
                                                      String launchId, String testCaseUUID,
                                                      LaunchStatus status, FailureDetails failureDetails) throws Exception {
-        FencedLock lock = hazelcastInstance.getCPSubsystem().getLock(Launch.class + launchId + "updateLaunchTestCaseStatus");
-        try{
-            lock.tryLock(lockTtl, TimeUnit.MINUTES);
-            Launch launch = findOne(session, projectId, launchId);
-            LaunchTestCase launchTestCase = findLaunchTestCaseInTree(launch.getTestCaseTree(), testCaseUUID);
+        String organizationId = getCurrOrganizationId(session);
+        for (int attempt = 0; attempt < STATUS_UPDATE_ATTEMPTS; attempt++) {
+            LaunchTestCasesSelection selection = findLaunchTestCases(session, projectId, launchId, singletonList(testCaseUUID));
+            Launch launch = selection.getLaunch();
+            if (!userCanUpdate(session, projectId, launch)) {
+                throw new EntityAccessDeniedException(getAccessDeniedMessage(session, launch, "UPDATE"));
+            }
+            LaunchTestCase launchTestCase = selection.getTestCase(testCaseUUID);
             if (launchTestCase == null){
                 throw new EntityNotFoundException(
                         format("Launch Test Case with UUID %s not found in Launch with id %s", testCaseUUID, launchId)
                 );
             }
-            if (isFailedStatus(status) && failureDetails != null && isFailureDetailsValid(failureDetails)) {
+            String testCasesPath = selection.getTestCasesPath(testCaseUUID);
+            LaunchStatus previousStatus = launchTestCase.getLaunchStatus();
+            LaunchTestCase previousTestCase = (LaunchTestCase) launchTestCase.clone();
+            boolean hasFailureDetails = isFailedStatus(status) && failureDetails != null && isFailureDetailsValid(failureDetails);
+            if (hasFailureDetails) {
                 launchTestCase.setFailureDetails(failureDetails);
-                addFailureDetails(request, session, projectId, launchTestCase, failureDetails);
             }
             updateStatus(session.getPerson().getLogin(), launchTestCase, status);
-            update(session, projectId, launch);
+
+            // Patch only the test case, the status is compared-and-set so concurrent reporters do not need a lock
+            if (!repository.updateLaunchTestCases(organizationId, projectId, launchId,
+                    singletonList(new LaunchTestCasePatch(testCasesPath, launchTestCase, previousStatus)),
+                    session.getLogin(), Instant.now().toEpochMilli())) {
+                continue;
+            }
+            verifyStoredLaunchStats(organizationId, projectId, launchId);
+            LaunchStatisticsDelta statisticsDelta = LaunchStatisticsDelta.ofUpdatedTestCase(launchId, previousTestCase, launchTestCase);
+            updateLaunchTimes(organizationId, projectId, launchId, statisticsDelta);
+            if (!launch.isDeleted()) {
+                updateStatisticsView(organizationId, projectId, statisticsDelta);
+            }
+
+            if (hasFailureDetails) {
+                addFailureDetails(request, session, projectId, launchTestCase, failureDetails);
+            }
 
             //Emit audit on terminal status
             if (isTerminalStatus(status)) {
-                System.out.println("Insert New Event : " + status);
                 eventService.create(session, projectId,
                         new Event().withEventType(status.toString()).
                                 withTime(Instant.now().toEpochMilli()).
@@ -115,12 +150,148 @@ public class LaunchService extends BaseService<Launch> {
                                 withDuration(launchTestCase.getDuration())
                 );
             }
-            System.out.println("Update Launch TestCase : " + launchTestCase);
             return launchTestCase;
-        } finally {
-            lock.unlock();
         }
+        throw new EntityValidationException(
+                format("Launch Test Case with UUID %s in Launch with id %s is being concurrently modified", testCaseUUID, launchId)
+        );
+    }
 
+    /**
+     * Applies a batch of status reports to a launch in a single database write.
+     * Reports for unknown test cases are rejected individually, the rest are applied together.
+     * Several reports for the same test case are applied in the order they were sent.
+     */
+    public List<LaunchTestCaseStatusUpdateResult> updateLaunchTestCasesStatuses(HttpServletRequest request,
+                                                                                Session session, String projectId, String launchId,
+                                                                                List<LaunchTestCaseStatusUpdate> updates) throws Exception {
+        String organizationId = getCurrOrganizationId(session);
+        for (int attempt = 0; attempt < STATUS_UPDATE_ATTEMPTS; attempt++) {
+            LaunchTestCasesSelection selection = findLaunchTestCases(session, projectId, launchId,
+                    updates.stream().map(LaunchTestCaseStatusUpdate::getUuid).filter(Objects::nonNull).collect(toSet()));
+            Launch launch = selection.getLaunch();
+            if (!userCanUpdate(session, projectId, launch)) {
+                throw new EntityAccessDeniedException(getAccessDeniedMessage(session, launch, "UPDATE"));
+            }
+
+            List<LaunchTestCaseStatusUpdateResult> results = new ArrayList<>(updates.size());
+            Map<String, LaunchTestCasePatch> patches = new LinkedHashMap<>();
+            Map<String, LaunchTestCase> previousTestCases = new HashMap<>();
+            for (LaunchTestCaseStatusUpdate update : updates) {
+                LaunchTestCaseStatusUpdateResult result = new LaunchTestCaseStatusUpdateResult().
+                        withUuid(update.getUuid()).
+                        withStatus(update.getStatus());
+                results.add(result);
+                if (update.getStatus() == null) {
+                    result.setError(format("Status for Launch Test Case with UUID %s is not set", update.getUuid()));
+                    continue;
+                }
+                LaunchTestCasePatch patch = patches.get(update.getUuid());
+                if (patch == null) {
+                    LaunchTestCase launchTestCase = selection.getTestCase(update.getUuid());
+                    if (launchTestCase == null) {
+                        result.setError(format("Launch Test Case with UUID %s not found in Launch with id %s", update.getUuid(), launchId));
+                        continue;
+                    }
+                    patch = new LaunchTestCasePatch(selection.getTestCasesPath(update.getUuid()), launchTestCase,
+                            launchTestCase.getLaunchStatus());
+                    patches.put(update.getUuid(), patch);
+                    previousTestCases.put(update.getUuid(), (LaunchTestCase) launchTestCase.clone());
+                }
+                LaunchTestCase launchTestCase = patch.getLaunchTestCase();
+                if (hasFailureDetails(update)) {
+                    launchTestCase.setFailureDetails(update.getFailureDetails());
+                }
+                updateStatus(session.getPerson().getLogin(), launchTestCase, update.getStatus());
+                result.setLaunchTestCase((LaunchTestCase) launchTestCase.clone());
+            }
+
+            if (patches.isEmpty()) {
+                return results;
+            }
+            if (!repository.updateLaunchTestCases(organizationId, projectId, launchId, new ArrayList<>(patches.values()),
+                    session.getLogin(), Instant.now().toEpochMilli())) {
+                continue;
+            }
+            verifyStoredLaunchStats(organizationId, projectId, launchId);
+            LaunchStatisticsDelta statisticsDelta = new LaunchStatisticsDelta();
+            patches.forEach((uuid, patch) -> statisticsDelta.merge(
+                    LaunchStatisticsDelta.ofUpdatedTestCase(launchId, previousTestCases.get(uuid), patch.getLaunchTestCase())));
+            updateLaunchTimes(organizationId, projectId, launchId, statisticsDelta);
+            if (!launch.isDeleted()) {
+                updateStatisticsView(organizationId, projectId, statisticsDelta);
+            }
+
+            List<Event> events = new ArrayList<>();
+            for (int i = 0; i < updates.size(); i++) {
+                LaunchTestCaseStatusUpdate update = updates.get(i);
+                LaunchTestCaseStatusUpdateResult result = results.get(i);
+                if (result.getError() != null) {
+                    continue;
+                }
+                result.setUpdated(true);
+                LaunchTestCase launchTestCase = result.getLaunchTestCase();
+                if (hasFailureDetails(update)) {
+                    try {
+                        addFailureDetails(request, session, projectId, launchTestCase, update.getFailureDetails());
+                    } catch (Exception e) {
+                        result.setError(format("Unable to link failure details for Launch Test Case with UUID %s: %s",
+                                update.getUuid(), e.getMessage()));
+                    }
+                }
+                if (isTerminalStatus(update.getStatus())) {
+                    events.add(new Event().withEventType(update.getStatus().toString()).
+                            withTime(Instant.now().toEpochMilli()).
+                            withUser(session.getLogin()).
+                            withEntityId(launchTestCase.getId()).
+                            withEntityType(TestCase.class.getSimpleName()).
+                            withDuration(launchTestCase.getDuration()));
+                }
+            }
+            if (!events.isEmpty()) {
+                eventService.createAll(session, projectId, events);
+            }
+            return results;
+        }
+        throw new EntityValidationException(
+                format("Launch with id %s is being concurrently modified", launchId)
+        );
+    }
+
+    private boolean hasFailureDetails(LaunchTestCaseStatusUpdate update) {
+        return isFailedStatus(update.getStatus()) && update.getFailureDetails() != null &&
+                isFailureDetailsValid(update.getFailureDetails());
+    }
+
+    private void updateLaunchTimes(String organizationId, String projectId, String launchId, LaunchStatisticsDelta statisticsDelta) {
+        Launch launch = repository.findLaunchSummary(organizationId, projectId, launchId);
+        if (launch == null) {
+            return;
+        }
+        if (isLaunchFinished(launch)) {
+            if (launch.getFinishTime() == 0) {
+                long finishTime = Instant.now().toEpochMilli();
+                if (repository.markLaunchFinished(organizationId, projectId, launchId,
+                        finishTime, repository.getLaunchDuration(organizationId, projectId, launchId))) {
+                    statisticsDelta.withExecution(launchId, launch.getStartTime(), finishTime);
+                }
+            }
+        } else if (launch.getLaunchStats().getStatusCounters().getOrDefault(RUNNABLE, 0) != launch.getLaunchStats().getTotal() &&
+                launch.getStartTime() == 0) {
+            long startTime = Instant.now().toEpochMilli();
+            if (repository.markLaunchStarted(organizationId, projectId, launchId, startTime)) {
+                statisticsDelta.withExecution(launchId, startTime, launch.getFinishTime());
+            }
+        }
+    }
+
+    private void updateStatisticsView(String organizationId, String projectId, LaunchStatisticsDelta statisticsDelta) {
+        // The view is derived data - a failed update is repaired by a rebuild and must not fail the launch change
+        try {
+            repository.updateStatisticsView(organizationId, projectId, statisticsDelta);
+        } catch (Exception e) {
+            logger.warn("Unable to update launch statistics view of project {}", projectId, e);
+        }
     }
 
     private boolean isTerminalStatus(LaunchStatus status) {
@@ -163,6 +334,7 @@ public class LaunchService extends BaseService<Launch> {
         launch.setStatus(RUNNABLE);
         removeTestcasesWithNullId(launch.getTestCaseTree());
         prepareLaunchTestCasesForCreate(launch.getTestCaseTree(), launch);
+        launch.setLaunchStats(countLaunchStats(launch.getTestCaseTree()));
         super.beforeCreate(session, projectId, launch);
     }
 
@@ -177,12 +349,78 @@ public class LaunchService extends BaseService<Launch> {
         }
     }
 
+    @Override
+    protected void beforeUpdate(Session session, String projectId, Launch existingLaunch, Launch launch) {
+        super.beforeUpdate(session, projectId, existingLaunch, launch);
+        launch.setLaunchStats(updateLaunchStats(existingLaunch, launch));
+    }
+
     @Override
     protected void beforeSave(Session session, String projectId, Launch launch) {
         super.beforeSave(session, projectId, launch);
+        if (launch.getLaunchStats() == null) {
+            launch.setLaunchStats(countLaunchStats(launch.getTestCaseTree()));
+        }
+        verifyLaunchStats(launch);
         updateLaunchStatus(launch);
     }
 
+    @Override
+    protected void afterCreate(Session session, String projectId, Launch launch) {
+        super.afterCreate(session, projectId, launch);
+        updateStatisticsView(getCurrOrganizationId(session), projectId, LaunchStatisticsDelta.ofCreatedLaunch(launch));
+    }
+
+    @Override
+    protected void afterUpdate(Session session, String projectId, Launch previousLaunch, Launch launch) {
+        super.afterUpdate(session, projectId, previousLaunch, launch);
+        LaunchStatisticsDelta statisticsDelta;
+        if (canCompareTestCases(previousLaunch, launch) && !launch.isDeleted() && !previousLaunch.isDeleted()) {
+            statisticsDelta = LaunchStatisticsDelta.ofUpdatedLaunchDocument(launch);
+            forEachChangedTestCase(previousLaunch, launch, statisticsDelta::withTestCaseChange);
+        } else {
+            statisticsDelta = LaunchStatisticsDelta.ofUpdatedLaunch(previousLaunch, launch);
+        }
+        updateStatisticsView(getCurrOrganizationId(session), projectId, statisticsDelta);
+    }
+
+    @Override
+    public void delete(Session session, String projectId, String id) {
+        Launch launch = findOneUnfiltered(session, projectId, id);
+        super.delete(session, projectId, id);
+        updateStatisticsViewForRemoved(session, projectId, singletonList(launch));
+    }
+
+    @Override
+    public void delete(Session session, String projectId, Filter filter) {
+        logger.debug("LaunchService.delete - projectId: {}", projectId);
+        if (!userCanReadProject(session, projectId)) {
+            return;
+        }
+        String organizationId = getCurrOrganizationId(session);
+        // Only the fields the statistics view delta needs are loaded
+        List<Launch> launches = repository.findLaunchesForRemoval(organizationId, projectId, filter);
+        if (!userCanUpdateProject(session, projectId, launches)) {
+            return;
+        }
+        Set<String> removedIds = repository.deleteLaunches(organizationId, projectId,
+                launches.stream().map(Launch::getId).collect(Collectors.toList()));
+        LaunchStatisticsDelta statisticsDelta = new LaunchStatisticsDelta();
+        launches.stream().
+                filter(launch -> removedIds.contains(launch.getId())).
+                forEach(launch -> statisticsDelta.merge(LaunchStatisticsDelta.ofRemovedLaunch(launch)));
+        updateStatisticsView(organizationId, projectId, statisticsDelta);
+    }
+
+    private void updateStatisticsViewForRemoved(Session session, String projectId, List<Launch> launches) {
+        String organizationId = getCurrOrganizationId(session);
+        LaunchStatisticsDelta statisticsDelta = new LaunchStatisticsDelta();
+        launches.stream().
+                filter(launch -> !repository.exists(organizationId, projectId, launch.getId())).
+                forEach(launch -> statisticsDelta.merge(LaunchStatisticsDelta.ofRemovedLaunch(launch)));
+        updateStatisticsView(organizationId, projectId, statisticsDelta);
+    }
+
     private boolean isLaunchTescasesTreeEmpty(Launch launch) {
         return launch.getTestCaseTree() == null ||
                 (launch.getTestCaseTree().getChildren().isEmpty() && launch.getTestCaseTree().getTestCases().isEmpty());
@@ -197,28 +435,9 @@ public class LaunchService extends BaseService<Launch> {
     }
 
     private void updateLaunchStatus(Launch launch) {
-        launch.setLaunchStats(new LaunchStats());
-        updateLaunchStatus(launch.getLaunchStats(), launch.getTestCaseTree());
         if (isLaunchFinished(launch) && launch.getFinishTime() == 0){
             launch.setFinishTime(Instant.now().toEpochMilli());
-            //update the total duration here 
-           long totalLaunchDuration =0;
-            if(launch.getTestCaseTree().getTestCases().size() >0){
-                totalLaunchDuration = launch.getTestCaseTree().getTestCases().stream().mapToLong(LaunchTestCase::getDuration).sum();
-            }
-            if(launch.getTestCaseTree().getChildren().size() >0 ){
-                List<LaunchTestCaseTree> launchTCTreeList = launch.getTestCaseTree().getChildren();
-                if(launchTCTreeList!=null && launchTCTreeList.size() > 0)
-                {
-                    for(LaunchTestCaseTree ltree : launchTCTreeList){
-
-                           totalLaunchDuration = totalLaunchDuration + ltree.getTestCases().stream().mapToLong(LaunchTestCase::getDuration).sum();
-
-                    }
-                }
-
-            }
-            launch.setDuration(totalLaunchDuration);
+            launch.setDuration(getLaunchDuration(launch));
         }
         if (!isLaunchFinished(launch) &&
                 launch.getLaunchStats().getStatusCounters().getOrDefault(RUNNABLE, 0) != launch.getLaunchStats().getTotal() &&
@@ -227,27 +446,104 @@ public class LaunchService extends BaseService<Launch> {
         }
     }
 
+    private long getLaunchDuration(Launch launch) {
+        if (launch.getTestCaseTree() == null) {
+            return 0;
+        }
+        long[] totalLaunchDuration = {0};
+        launch.getTestCaseTree().forEachTestCase(testCase -> totalLaunchDuration[0] += testCase.getDuration());
+        return totalLaunchDuration[0];
+    }
+
     private boolean isLaunchFinished(Launch launch) {
         Map<LaunchStatus, Integer> statusCounters = launch.getLaunchStats().getStatusCounters();
         return launch.getLaunchStats().getTotal() == statusCounters.get(PASSED) +
                 statusCounters.get(FAILED) + statusCounters.get(BROKEN);
     }
 
-    private void updateLaunchStatus(LaunchStats launchStats, LaunchTestCaseTree testCaseTree) {
+    private LaunchStats countLaunchStats(LaunchTestCaseTree testCaseTree) {
+        LaunchStats launchStats = new LaunchStats();
+        if (testCaseTree != null) {
+            testCaseTree.forEachTestCase(testCase -> launchStats.add(testCase.getLaunchStatus()));
+        }
+        return launchStats;
+    }
 
-        updateLaunchStatus(launchStats, testCaseTree.getTestCases());
-        testCaseTree.getChildren().forEach(child -> updateLaunchStatus(launchStats, child));
+    /**
+     * Applies status transitions of the changed test cases to the stored stats,
+     * the full recount is only done when launch stats verification is enabled
+     */
+    private LaunchStats updateLaunchStats(Launch existingLaunch, Launch launch) {
+        if (!canCompareTestCases(existingLaunch, launch)) {
+            return countLaunchStats(launch.getTestCaseTree());
+        }
+        LaunchStats launchStats = existingLaunch.getLaunchStats().copy();
+        forEachChangedTestCase(existingLaunch, launch, (previousTestCase, testCase) -> {
+            if (previousTestCase == null) {
+                launchStats.add(testCase.getLaunchStatus());
+            } else if (testCase == null) {
+                launchStats.remove(previousTestCase.getLaunchStatus());
+            } else {
+                launchStats.transition(previousTestCase.getLaunchStatus(), testCase.getLaunchStatus());
+            }
+        });
+        return launchStats;
+    }
+
+    private boolean canCompareTestCases(Launch existingLaunch, Launch launch) {
+        return existingLaunch != null && existingLaunch.getLaunchStats() != null &&
+                existingLaunch.getTestCaseTree() != null && launch.getTestCaseTree() != null;
+    }
+
+    /**
+     * Passes test cases added (null previous), removed (null current) or changed in a way the launch statistics
+     * depend on. Test cases are matched by uuid through the index of the stored tree,
+     * the stored tree is walked again only if some of its test cases are not matched.
+     */
+    private void forEachChangedTestCase(Launch existingLaunch, Launch launch,
+                                        BiConsumer<LaunchTestCase, LaunchTestCase> consumer) {
+        LaunchTestCaseTree existingTree = existingLaunch.getTestCaseTree();
+        Set<LaunchTestCase> matchedTestCases = Collections.newSetFromMap(new IdentityHashMap<>());
+        launch.getTestCaseTree().forEachTestCase(testCase -> {
+            LaunchTestCase previousTestCase = existingTree.findTestCase(testCase.getUuid());
+            if (previousTestCase == null || !matchedTestCases.add(previousTestCase)) {
+                consumer.accept(null, testCase);
+            } else if (!isSameForStatistics(previousTestCase, testCase)) {
+                consumer.accept(previousTestCase, testCase);
+            }
+        });
+        if (matchedTestCases.size() != existingLaunch.getLaunchStats().getTotal()) {
+            existingTree.forEachTestCase(testCase -> {
+                if (!matchedTestCases.contains(testCase)) {
+                    consumer.accept(testCase, null);
+                }
+            });
+        }
+    }
 
+    private static boolean isSameForStatistics(LaunchTestCase previousTestCase, LaunchTestCase testCase) {
+        return previousTestCase.getLaunchStatus() == testCase.getLaunchStatus() &&
+                Objects.equals(previousTestCase.getId(), testCase.getId()) &&
+                Objects.equals(previousTestCase.getUsers(), testCase.getUsers()) &&
+                Objects.equals(previousTestCase.getName(), testCase.getName()) &&
+                Objects.equals(previousTestCase.getImportedName(), testCase.getImportedName());
     }
 
-    private void updateLaunchStatus(LaunchStats launchStats, List<LaunchTestCase> testCases) {
-        
-        testCases.forEach(testCase -> {
-            launchStats.setTotal(launchStats.getTotal() + 1);
-            int counter = launchStats.getStatusCounters().get(testCase.getLaunchStatus());
-            launchStats.getStatusCounters().put(testCase.getLaunchStatus(), counter+1);
-        });
-        
+    private void verifyLaunchStats(Launch launch) {
+        if (!verifyLaunchStats) {
+            return;
+        }
+        LaunchStats countedStats = countLaunchStats(launch.getTestCaseTree());
+        if (!countedStats.equals(launch.getLaunchStats())) {
+            throw new IllegalStateException(format("Launch stats %s of launch %s differ from recounted %s",
+                    launch.getLaunchStats(), launch.getId(), countedStats));
+        }
+    }
+
+    private void verifyStoredLaunchStats(String organizationId, String projectId, String launchId) {
+        if (verifyLaunchStats) {
+            verifyLaunchStats(repository.findOne(organizationId, projectId, launchId));
+        }
     }
 
     private Launch fillLaunchByFilter(Session session, String projectId, Launch launch) {
@@ -255,26 +551,34 @@ public class LaunchService extends BaseService<Launch> {
         filter.getExcludedFields().clear();
         filter.getIncludedFields().clear();
         filter.withField("deleted", false);
-        TestCaseTree tcTree = testCaseService.findFilteredTreeFullCase(session, projectId, filter);
-        launch.setTestCaseTree(convertToLaunchTestCases(tcTree));
+        TestCaseTree tcTree = testCaseService.findFilteredTreeFullCase(session, projectId, filter,
+                this::convertToLaunchTestCase);
+        launch.setTestCaseTree(convertToLaunchTestCases(tcTree, Collections.newSetFromMap(new IdentityHashMap<>())));
         return launch;
     }
 
-    private LaunchTestCaseTree convertToLaunchTestCases(TestCaseTree tcTree){
+    private LaunchTestCase convertToLaunchTestCase(TestCase testCase){
+        LaunchTestCase launchTestCase = new LaunchTestCase();
+        testCase.copyTo(launchTestCase);
+        launchTestCase.getAttributes().putAll(testCase.getAttributes());
+        return launchTestCase.withLaunchStatus(RUNNABLE);
+    }
+
+    private LaunchTestCaseTree convertToLaunchTestCases(TestCaseTree tcTree, Set<TestCase> placedTestCases){
+        // Tree contains test cases already converted while streaming.
+        // A test case grouped by several attribute values is copied, each occurrence gets its own uuid.
         List<LaunchTestCase> launchTestCases = tcTree.getTestCases().stream().map(testCase ->
                 {
-                    LaunchTestCase launchTestCase = new LaunchTestCase();
-                    testCase.copyTo(launchTestCase);
-                    launchTestCase.getAttributes().putAll(testCase.getAttributes());
-                    return launchTestCase.withUuid(UUID.randomUUID().toString()).
-                            withLaunchStatus(RUNNABLE);
-
+                    LaunchTestCase launchTestCase = placedTestCases.add(testCase) ?
+                            (LaunchTestCase) testCase :
+                            convertToLaunchTestCase(testCase);
+                    return launchTestCase.withUuid(UUID.randomUUID().toString());
                 }
         ).collect(Collectors.toList());
         LaunchTestCaseTree launchTestCaseTree = new LaunchTestCaseTree();
         launchTestCaseTree.getTestCases().addAll(launchTestCases);
         launchTestCaseTree.getChildren().addAll(
-                tcTree.getChildren().stream().map(this::convertToLaunchTestCases).
+                tcTree.getChildren().stream().map(child -> convertToLaunchTestCases(child, placedTestCases)).
                         collect(Collectors.toList())
         );
         launchTestCaseTree.setTitle(tcTree.getTitle());
@@ -299,19 +603,21 @@ public class LaunchService extends BaseService<Launch> {
         return fillLaunchByFilter(session, projectId, launch);
     }
 
-    private LaunchTestCase findLaunchTestCaseInTree(LaunchTestCaseTree tree, String uuid){
-        LaunchTestCase testCase = tree.getTestCases().stream().
-                filter(testcase -> testcase.getUuid().equals(uuid)).
-                findFirst().orElse(null);
-        if (testCase == null){
-            for (LaunchTestCaseTree child : tree.getChildren()) {
-                testCase = findLaunchTestCaseInTree(child, uuid);
-                if (testCase != null) {
-                    return testCase;
-                }
-            }
+    /**
+     * Reads the launch with only the test cases about to be updated, a status report does not need the whole tree
+     */
+    private LaunchTestCasesSelection findLaunchTestCases(Session session, String projectId, String launchId,
+                                                         Collection<String> uuids) {
+        LaunchTestCasesSelection selection = repository.findLaunchTestCases(getCurrOrganizationId(session), projectId, launchId, uuids);
+        if (selection == null) {
+            throw new EntityNotFoundException();
+        }
+        if (!userCanRead(session, projectId, selection.getLaunch())) {
+            throw new EntityAccessDeniedException(
+                    format("User %s can't read entity %s", session.getPerson().getLogin(), launchId)
+            );
         }
-        return testCase;
+        return selection;
     }
 
     private void updateStatus(String userId, LaunchTestCase launchTestCase, LaunchStatus status) {
@@ -330,7 +636,7 @@ public class LaunchService extends BaseService<Launch> {
         if(launchTestCase.getStartTime() !=0 && launchTestCase.getFinishTime()!=0 )
         {
             long tempDuration = launchTestCase.getFinishTime() - launchTestCase.getStartTime();
-            System.out.println(" Time Duration for exe" + tempDuration);
+            logger.trace(" Time Duration for exe{}", tempDuration);
             launchTestCase.setDuration(tempDuration);
         }
 
@@ -338,8 +644,9 @@ public class LaunchService extends BaseService<Launch> {
 
     public Map<String, LaunchStatistics> getLaunchesStatistics(Session session, String projectId, Filter filter) throws Exception {
         if (userCanReadProject(session, projectId)) {
-            return dbUtils.mapReduce(Launch.class, getCollectionName(getCurrOrganizationId(session), projectId, Launch.class),
-                    "launchStatsMap.js", "launchStatsReduce.js", filter, LaunchStatistics.class);
+            return isNotDeletedLaunchesFilter(filter) ?
+                    repository.findLaunchesStatisticsView(getCurrOrganizationId(session), projectId) :
+                    repository.getLaunchesStatistics(getCurrOrganizationId(session), projectId, filter);
         }
         return emptyMap();
     }
@@ -351,16 +658,34 @@ public class LaunchService extends BaseService<Launch> {
         return launch;
     }
 
+    /**
+     * Recomputes the project launch statistics view from the stored launches
+     */
+    public void rebuildStatistics(Session session, String projectId) {
+        if (!isAdmin(session)) {
+            throw new EntityAccessDeniedException(
+                    format("User %s can't rebuild launch statistics", session.getPerson().getLogin()));
+        }
+        repository.rebuildStatisticsView(getCurrOrganizationId(session), projectId);
+    }
+
+    // Statistics view covers all not deleted launches of the project
+    private boolean isNotDeletedLaunchesFilter(Filter filter) {
+        return filter.getSkip() == 0 && filter.getLimit() == 0 && isEmpty(filter.getFulltext()) &&
+                filter.getNotFieldsForQuery().isEmpty() &&
+                filter.getFieldsForQuery().keySet().equals(singleton("deleted")) &&
+                filter.getFieldsForQuery().get("deleted").stream().allMatch(value -> "false".equals(String.valueOf(value)));
+    }
+
     public Collection<LaunchTestcaseStats> getTestCasesHeatMap(Session session, String projectId, Filter filter, int statsTopLimit) throws Exception {
-        System.out.println("LaunchService::getTestCasesHeatMap - projectId, statsTopLimit: " + projectId + ", " + statsTopLimit);
-        System.out.flush();
+        logger.trace("LaunchService::getTestCasesHeatMap - projectId, statsTopLimit: {}, {}", projectId, statsTopLimit);
         statsTopLimit = statsTopLimit == 0 ? 100 : statsTopLimit;
         if (userCanReadProject(session, projectId)) {
-            Map<String, LaunchTestcaseStats> unsortedMap = dbUtils.mapReduce(Launch.class, getCollectionName(getCurrOrganizationId(session), projectId, Launch.class),
-                    "testcaseHeatMap.js", "testcaseHeatReduce.js", filter, LaunchTestcaseStats.class);
+            Map<String, LaunchTestcaseStats> unsortedMap = isNotDeletedLaunchesFilter(filter) ?
+                    repository.findTestcasesStatisticsView(getCurrOrganizationId(session), projectId, statsTopLimit) :
+                    repository.getTestcasesStatistics(getCurrOrganizationId(session), projectId, filter);
 
-                System.out.println("LaunchService::getTestCasesHeatMap - unsortedMap: " + unsortedMap);
-                System.out.flush();
+            logger.trace("LaunchService::getTestCasesHeatMap - unsortedMap: {}", unsortedMap);
 
             MinMaxPriorityQueue<LaunchTestcaseStats> topStats = MinMaxPriorityQueue.
                     orderedBy(new LaunchTestcaseStatsComparator()).
@@ -368,15 +693,13 @@ public class LaunchService extends BaseService<Launch> {
                     create();
             topStats.addAll(unsortedMap.values());
 
-            System.out.println("LaunchService::getTestCasesHeatMap - topStats: " + topStats);
-            System.out.flush();
+            logger.trace("LaunchService::getTestCasesHeatMap - topStats: {}", topStats);
 
             Map<String, LaunchTestcaseStats> statsMap =
                     topStats.stream().collect(toMap(LaunchTestcaseStats::getId, Function.identity()));
 
 
-            System.out.println("LaunchService::getTestCasesHeatMap - statsMap: " + statsMap);
-            System.out.flush();
+            logger.trace("LaunchService::getTestCasesHeatMap - statsMap: {}", statsMap);
 
 
             //Get current broken flag state
@@ -388,12 +711,12 @@ public class LaunchService extends BaseService<Launch> {
                             withIncludedField("importedName").
                             withField("id", statsMap.keySet().toArray()));
 
-            System.out.println("LaunchService::getTestCasesHeatMap - actualTestcases with filter: ");
-            for (TestCase tc : actualTestcases) {
-            System.out.println("testcase: " + tc);
-            System.out.flush();
+            logger.debug("LaunchService::getTestCasesHeatMap - actualTestcases with filter:");
+            if (logger.isTraceEnabled()) {
+                for (TestCase tc : actualTestcases) {
+                    logger.trace("testcase: {}", tc);
+                }
             }
-            System.out.flush();
 
 
             actualTestcases.forEach(actualTestcase -> {
@@ -404,28 +727,28 @@ public class LaunchService extends BaseService<Launch> {
             statsToUpdate.setBroken(actualTestcase.isBroken());
             statsToUpdate.setLaunchBroken(actualTestcase.isLaunchBroken());
             });
-            System.out.println("LaunchService::getTestCasesHeatMap - actualTestcases with filter 2: ");
-            for (TestCase tc : actualTestcases) {
-            System.out.println("testcase: " + tc);
-            System.out.flush();
+            logger.debug("LaunchService::getTestCasesHeatMap - actualTestcases with filter 2:");
+            if (logger.isTraceEnabled()) {
+                for (TestCase tc : actualTestcases) {
+                    logger.trace("testcase: {}", tc);
+                }
             }
-            System.out.flush();
 
 
             //Sort stats by most broken
             List<LaunchTestcaseStats> sortedStats = new ArrayList<>(topStats.size());
             sortedStats.addAll(topStats);
             sortedStats.sort(new LaunchTestcaseStatsComparator());
-            System.out.println("LaunchService::getTestCasesHeatMap - sortedStats: " + sortedStats);
-            for (LaunchTestcaseStats ts : sortedStats) {
-            System.out.println("launchstats");
-            System.out.println("name: " + ts.getName());
-            System.out.println("id: " + ts.getId());
-            System.out.println("broken: " + ts.isBroken());
-            System.out.println("launchBroken: " + ts.isLaunchBroken());
-            System.out.flush();
+            logger.trace("LaunchService::getTestCasesHeatMap - sortedStats: {}", sortedStats);
+            if (logger.isTraceEnabled()) {
+                for (LaunchTestcaseStats ts : sortedStats) {
+                    logger.trace("launchstats");
+                    logger.trace("name: {}", ts.getName());
+                    logger.trace("id: {}", ts.getId());
+                    logger.trace("broken: {}", ts.isBroken());
+                    logger.trace("launchBroken: {}", ts.isLaunchBroken());
+                }
             }
-            System.out.flush();
 
             return sortedStats;
         }
@@ -96,4 +96,16 @@ public class OrganizationService extends BaseService<Organization> {
         }
         super.beforeUpdate(session, projectId, existingEntity, entity);
     }
+
+    @Override
+    protected void afterSave(Session session, String projectId, Organization entity) {
+        super.afterSave(session, projectId, entity);
+        permissionCache.invalidate();
+    }
+
+    @Override
+    protected void afterDelete(Session session, String projectId, String id) {
+        super.afterDelete(session, projectId, id);
+        permissionCache.invalidate();
+    }
 }
@@ -0,0 +1,128 @@
+package com.testquack.services;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.testquack.dal.RoleCapabilityRepository;
+import com.testquack.dal.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps resolved user permissions, so that access checks are in-memory lookups.
+ * Organizations, users and role capabilities themselves are cached by their repositories.
+ * Entries are dropped on all cluster members when users, role capabilities or organizations change.
+ * Entries also expire after a TTL, which covers changes made bypassing services.
+ */
+@Service
+public class PermissionCache {
+
+    private static final String INVALIDATION_TOPIC = "quack-permissions-invalidation";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleCapabilityRepository roleCapRepository;
+
+    @Value("${quack.permissions.cache.ttl.sec:60}")
+    private long ttlSec;
+
+    private final Map<PermissionKey, CachedValue<ProjectPermissions>> permissions = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private ITopic<String> invalidationTopic;
+
+    @PostConstruct
+    public void init() {
+        invalidationTopic = hazelcastInstance.getTopic(INVALIDATION_TOPIC);
+        invalidationTopic.addMessageListener(message -> clear());
+    }
+
+    public ProjectPermissions getPermissions(String organizationId, String projectId, String login) {
+        return get(permissions, new PermissionKey(organizationId, projectId, login), () ->
+                UserSecurity.resolvePermissions(organizationId, userRepository, roleCapRepository, projectId, login));
+    }
+
+    /**
+     * Drops all cached permissions on every cluster member
+     */
+    public void invalidate() {
+        // The local cache is cleared synchronously, topic delivery is asynchronous
+        clear();
+        invalidationTopic.publish(INVALIDATION_TOPIC);
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        permissions.clear();
+    }
+
+    private <K, V> V get(Map<K, CachedValue<V>> cache, K key, Supplier<V> loader) {
+        long now = System.currentTimeMillis();
+        CachedValue<V> cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+        long loadGeneration = generation.get();
+        V value = loader.get();
+        // Absent entities are not cached, they could be created at any moment.
+        // A value loaded while the cache was being invalidated may be stale, so it is not cached either.
+        if (value != null && loadGeneration == generation.get()) {
+            cache.put(key, new CachedValue<>(value, now + TimeUnit.SECONDS.toMillis(ttlSec)));
+        }
+        return value;
+    }
+
+    private static class CachedValue<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private CachedValue(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class PermissionKey {
+        private final String organizationId;
+        private final String projectId;
+        private final String login;
+
+        private PermissionKey(String organizationId, String projectId, String login) {
+            this.organizationId = organizationId;
+            this.projectId = projectId;
+            this.login = login;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PermissionKey)) {
+                return false;
+            }
+            PermissionKey that = (PermissionKey) o;
+            return Objects.equals(organizationId, that.organizationId) &&
+                    Objects.equals(projectId, that.projectId) &&
+                    Objects.equals(login, that.login);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(organizationId, projectId, login);
+        }
+    }
+}
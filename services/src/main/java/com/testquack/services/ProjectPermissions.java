@@ -0,0 +1,40 @@
+package com.testquack.services;
+
+import com.testquack.beans.Capability;
+import com.testquack.beans.Role;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Role of a user and capabilities granted to the role, resolved for a project
+ */
+public class ProjectPermissions {
+
+    private final Role role;
+    private final Set<Capability> capabilities;
+
+    public ProjectPermissions(Role role, Set<Capability> capabilities) {
+        this.role = role;
+        this.capabilities = capabilities.isEmpty() ?
+                Collections.emptySet() :
+                Collections.unmodifiableSet(EnumSet.copyOf(capabilities));
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public Set<Capability> getCapabilities() {
+        return capabilities;
+    }
+
+    public boolean canRead() {
+        return capabilities.contains(Capability.READ) || canWrite();
+    }
+
+    public boolean canWrite() {
+        return capabilities.contains(Capability.READWRITE) || capabilities.contains(Capability.ADMIN);
+    }
+}
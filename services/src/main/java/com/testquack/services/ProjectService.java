@@ -8,6 +8,7 @@ import com.testquack.beans.Filter;
 import com.testquack.beans.Project;
 import com.testquack.dal.CommonRepository;
 import com.testquack.dal.ProjectRepository;
+import com.testquack.dal.impl.IndexManager;
 import ru.greatbit.whoru.auth.Session;
 
 import java.util.Collection;
@@ -27,6 +28,9 @@ public class ProjectService extends BaseService<Project> {
     @Autowired
     private SequencerService sequencerService;
 
+    @Autowired
+    private IndexManager indexManager;
+
     @Override
     protected CommonRepository<Project> getRepository() {
         return repository;
@@ -44,13 +48,16 @@ public class ProjectService extends BaseService<Project> {
         sequencerService.create(getCurrOrganizationId(session), projectId);
     }
 
+    @Override
+    protected void afterCreate(Session session, String projectId, Project project) {
+        super.afterCreate(session, projectId, project);
+        indexManager.ensureProjectIndexes(getCurrOrganizationId(session), project.getId());
+    }
+
     public Project createProject(Session user, Project entity) {
-System.out.println("ProjectService::createProject - entity: " + entity);
-System.out.flush();
-System.out.println("ProjectService::createProject - id: " + entity.getId());
-System.out.flush();
-System.out.println("ProjectService::createProject - rep exists: " + repository.exists(getCurrOrganizationId(user), null, entity.getId()));
-System.out.flush();
+        logger.trace("ProjectService::createProject - entity: {}", entity);
+        logger.debug("ProjectService::createProject - id: {}", entity.getId());
+        logger.trace("ProjectService::createProject - rep exists: {}", repository.exists(getCurrOrganizationId(user), null, entity.getId()));
         if (entity.getId() != null && repository.exists(getCurrOrganizationId(user), null, entity.getId())) {
             throw new EntityValidationException(format("Project with id %s already exists", entity.getId()));
         }
@@ -80,12 +87,9 @@ System.out.flush();
 
     @Override
     protected boolean userCanCreate(Session session, String projectId, Project project){
-System.out.println("ProjectService::userCanCreate - session: " + session);
-System.out.flush();
-System.out.println("ProjectService::userCanCreate - projectId: " + projectId);
-System.out.flush();
-System.out.println("ProjectService::userCanCreate - project: " + project);
-System.out.flush();
+        logger.trace("ProjectService::userCanCreate - session: {}", session);
+        logger.debug("ProjectService::userCanCreate - projectId: {}", projectId);
+        logger.trace("ProjectService::userCanCreate - project: {}", project);
 
         if (!organizationsEnabled){
             return super.userCanCreate(session, projectId, project);
@@ -31,13 +31,24 @@ public class RoleCapabilityService extends BaseService<RoleCapability> {
 
     @Override
     public List<RoleCapability> findFiltered(Session session, String projectId, Filter filter) {
-System.out.println("RoleCapService.findFiltered - session: " + session);
-System.out.println("RoleCapService.findFiltered - projectId: " + projectId);
-System.out.println("RoleCapService.findFiltered - filter: " + filter);
-System.out.flush();
+        logger.trace("RoleCapService.findFiltered - session: {}", session);
+        logger.debug("RoleCapService.findFiltered - projectId: {}", projectId);
+        logger.trace("RoleCapService.findFiltered - filter: {}", filter);
         return getRepository().find(getCurrOrganizationId(session), projectId, filter);
     }
 
+    @Override
+    protected void afterSave(Session session, String projectId, RoleCapability entity) {
+        super.afterSave(session, projectId, entity);
+        permissionCache.invalidate();
+    }
+
+    @Override
+    protected void afterDelete(Session session, String projectId, String id) {
+        super.afterDelete(session, projectId, id);
+        permissionCache.invalidate();
+    }
+
 }
 
 
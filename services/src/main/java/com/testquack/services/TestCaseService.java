@@ -9,6 +9,7 @@ import com.testquack.beans.Filter;
 import com.testquack.beans.Issue;
 import com.testquack.beans.IssuePriority;
 import com.testquack.beans.IssueType;
+import com.testquack.beans.Order;
 import com.testquack.beans.Sequencer;
 import com.testquack.beans.TestCase;
 import com.testquack.beans.TestCasePreview;
@@ -18,19 +19,28 @@ import com.testquack.beans.TrackerProject;
 import com.testquack.dal.TestCasePreviewRepository;
 import com.testquack.services.errors.EntityNotFoundException;
 import com.testquack.services.errors.EntityAccessDeniedException;
+import com.testquack.services.errors.EntityValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.testquack.dal.CommonRepository;
 import com.testquack.dal.TestCaseRepository;
+import com.testquack.storage.ContentInfo;
 import com.testquack.storage.Storage;
 import com.testquack.tracker.Tracker;
 import ru.greatbit.whoru.auth.Session;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.time.Instant;
 
 import static java.lang.String.format;
@@ -67,8 +77,6 @@ public class TestCaseService extends BaseService<TestCase> {
         return repository;
     }
 
-    private final String UNKNOWN_GROUP = "None";
-
     public List<TestCase> findAll(Session session, String projectId){
 
         List<TestCase> testCases = repository.find(getCurrOrganizationId(session), 
@@ -89,56 +97,92 @@ public class TestCaseService extends BaseService<TestCase> {
         return head;
     }
 
-    public TestCaseTree findFilteredTreeFullCase(Session session, String projectId, TestcaseFilter filter) {
+    /**
+     * Tree of groups with test case counts computed by the database, nodes hold no test cases.
+     * Test cases of a node are loaded with {@link #findTreeNodeTestCases}.
+     */
+    public TestCaseTree findFilteredTreeCounts(Session session, String projectId, TestcaseFilter filter) {
         TestCaseTree head = new TestCaseTree();
-        List<TestCase> testCases = userCanReadProject(session, projectId) ?
-                repository.find(getCurrOrganizationId(session), projectId, filter) :
-                Collections.emptyList();
-        head.getTestCases().addAll(testCases);
-
-        buildTree(head, new ArrayList<>(filter.getGroups()));
+        if (!userCanReadProject(session, projectId)) {
+            return head;
+        }
+        List<String> groups = new ArrayList<>(filter.getGroups());
+        Map<List<String>, Integer> counts = repository.countByGroups(getCurrOrganizationId(session), projectId,
+                filter, groups, TestCaseTreeBuilder.UNKNOWN_GROUP);
+        head.setCount(counts.getOrDefault(Collections.emptyList(), 0));
+
+        // Levels are built top down so parents exist before their children
+        Map<List<String>, TestCaseTree> nodes = new HashMap<>();
+        nodes.put(Collections.emptyList(), head);
+        for (int level = 0; level < groups.size(); level++) {
+            String groupId = groups.get(level);
+            boolean isLeaf = level == groups.size() - 1;
+            Map<List<String>, Map<String, TestCaseTree>> childrenByParent = new HashMap<>();
+            for (Map.Entry<List<String>, Integer> count : counts.entrySet()) {
+                List<String> path = count.getKey();
+                if (path.size() != level + 1) {
+                    continue;
+                }
+                String groupValue = path.get(level);
+                TestCaseTree node = (TestCaseTree) new TestCaseTree().
+                        withTitle(groupValue).
+                        withId(groupId + ":" + groupValue).
+                        withCount(count.getValue()).
+                        withIsLeaf(isLeaf);
+                nodes.put(path, node);
+                childrenByParent.computeIfAbsent(path.subList(0, level), parent -> new HashMap<>()).put(groupValue, node);
+            }
+            childrenByParent.forEach((parent, children) -> nodes.get(parent).getChildren().addAll(children.values()));
+        }
         return head;
     }
 
-    private TestCaseTree buildTree(TestCaseTree head, List<String> groups) {
-        if (groups.isEmpty()){
-            head.setCount(head.getTestCases().size());
-            return head;
+    /**
+     * Test cases of a node of the grouped tree, paged by the filter
+     *
+     * @param nodeIds - ids of the nodes from the root down to the node, each one is groupId:value
+     */
+    public List<TestCase> findTreeNodeTestCases(Session session, String projectId, TestcaseFilter filter, List<String> nodeIds) {
+        if (!userCanReadProject(session, projectId)) {
+            return Collections.emptyList();
         }
-
-        String groupId = groups.get(0);
-        List<String> nextGroups = groups.stream().skip(1).collect(Collectors.toList());
-
-        Map<String, List<TestCase>> casesByGroupValues = new HashMap<>();
-        head.getTestCases().forEach(testCase -> {
-            Set<String> attrValues = testCase.getAttributes().entrySet().stream().
-                    filter(attribute -> groupId.equals(attribute.getKey())).
-                    flatMap(attribute -> attribute.getValue().stream()).
-                    collect(Collectors.toSet());
-            if (attrValues.isEmpty()){
-                addToMapOfList(casesByGroupValues, UNKNOWN_GROUP, testCase);
+        Map<String, String> groupValues = new LinkedHashMap<>();
+        for (String nodeId : nodeIds) {
+            int separator = nodeId.indexOf(':');
+            if (separator <= 0) {
+                throw new EntityValidationException(format("Tree node id %s is not of the groupId:value form", nodeId));
             }
-            attrValues.forEach(attributeVal -> addToMapOfList(casesByGroupValues, attributeVal, testCase));
-        });
+            groupValues.put(nodeId.substring(0, separator), nodeId.substring(separator + 1));
+        }
+        return repository.findInGroup(getCurrOrganizationId(session), projectId, filter, groupValues,
+                TestCaseTreeBuilder.UNKNOWN_GROUP).stream().
+                map(TestCase::new).
+                collect(Collectors.toList());
+    }
 
-        casesByGroupValues.entrySet().stream().forEach(entry -> {
-            TestCaseTree child = (TestCaseTree) new TestCaseTree().
-                    withTestCases(entry.getValue()).
-                    withTitle(entry.getKey()).
-                    withId(groupId + ":" + entry.getKey());
-            buildTree(child, nextGroups);
-            head.getChildren().add(child);
-        });
+    public TestCaseTree findFilteredTreeFullCase(Session session, String projectId, TestcaseFilter filter) {
+        return findFilteredTreeFullCase(session, projectId, filter, Function.identity());
+    }
 
-        head.setCount(head.getTestCases().size());
-        head.getTestCases().clear();
-        return head;
+    /**
+     * Test cases are converted one by one while they are read from the database cursor,
+     * so only converted instances are kept in memory
+     */
+    public TestCaseTree findFilteredTreeFullCase(Session session, String projectId, TestcaseFilter filter,
+                                                 Function<TestCase, ? extends TestCase> converter) {
+        TestCaseTree head = new TestCaseTree();
+        if (userCanReadProject(session, projectId)) {
+            try (Stream<TestCase> testCases = repository.stream(getCurrOrganizationId(session), projectId, filter)) {
+                testCases.map(converter).forEach(head.getTestCases()::add);
+            }
+        }
 
+        buildTree(head, new ArrayList<>(filter.getGroups()));
+        return head;
     }
 
-    private void addToMapOfList(Map<String, List<TestCase>> casesByGroupValues, String attrValue, TestCase testCase) {
-        casesByGroupValues.putIfAbsent(attrValue, new ArrayList<>());
-        casesByGroupValues.get(attrValue).add(testCase);
+    private TestCaseTree buildTree(TestCaseTree head, List<String> groups) {
+        return new TestCaseTreeBuilder(groups).build(head);
     }
 
     @Override
@@ -161,9 +205,7 @@ public class TestCaseService extends BaseService<TestCase> {
         if (isEmpty(entity.getId())) {
             Sequencer sequencer = sequencerService.increment(getCurrOrganizationId(session), projectId);
             entity.setId(Long.toString(sequencer.getIndex()));
-System.out.println("TestCaseService::beforeCreate - allocating new test case id: " +
-                    entity.getId());
-System.out.flush();
+            logger.debug("TestCaseService::beforeCreate - allocating new test case id: {}", entity.getId());
         }
     }
 
@@ -200,11 +242,50 @@ System.out.flush();
     }
 
     public List<TestCase> importTestCases(Session user, String projectId, List<TestCase> testCases){
-        testCases.forEach(testCase -> importTestCase(user, projectId, testCase));
+        // Targets are resolved first so ids of all new test cases are reserved with a single sequencer update.
+        // New test cases repeating an alias of the batch and targets already saved by the batch are resolved again.
+        List<TestCase> targets = new ArrayList<>(testCases.size());
+        Set<String> newAliases = new HashSet<>();
+        int newTestCasesCount = 0;
+        for (TestCase testCase : testCases) {
+            TestCase target = findImportTarget(user, projectId, testCase);
+            if (isNewImportTarget(testCase, target)) {
+                if (!isEmpty(testCase.getAlias()) && !newAliases.add(testCase.getAlias())) {
+                    target = null;
+                } else {
+                    newTestCasesCount++;
+                }
+            }
+            targets.add(target);
+        }
+
+        long nextId = 0;
+        if (newTestCasesCount > 0) {
+            Sequencer sequencer = sequencerService.increment(getCurrOrganizationId(user), projectId, newTestCasesCount);
+            nextId = sequencer.getIndex() - newTestCasesCount + 1;
+        }
+
+        Set<String> importedIds = new HashSet<>();
+        for (int i = 0; i < testCases.size(); i++) {
+            TestCase testCase = testCases.get(i);
+            TestCase target = targets.get(i);
+            boolean isNew = target != null && isNewImportTarget(testCase, target);
+            if (target == null || (!isNew && importedIds.contains(target.getId()))) {
+                target = findImportTarget(user, projectId, testCase);
+            } else if (isNew) {
+                target.setId(Long.toString(nextId++));
+            }
+            saveImportedTestCase(user, projectId, target, isNew);
+            importedIds.add(target.getId());
+        }
         return testCases;
     }
 
-    private void importTestCase(Session user, String projectId, TestCase testCase) {
+    private boolean isNewImportTarget(TestCase testCase, TestCase target) {
+        return target == testCase && isEmpty(testCase.getId());
+    }
+
+    private TestCase findImportTarget(Session user, String projectId, TestCase testCase) {
         TestCase existingTestcase = null;
         try {
             if (!isEmpty(testCase.getId())){
@@ -221,18 +302,25 @@ System.out.flush();
         }
 
         if (existingTestcase == null){
-            existingTestcase = testCase;
-        } else {
-            existingTestcase.mergeFrom(existingTestcase, testCase);
-            existingTestcase.getAttributes().putAll(testCase.getAttributes());
-            existingTestcase.getMetaData().putAll(testCase.getMetaData());
+            return testCase;
         }
+        existingTestcase.mergeFrom(existingTestcase, testCase);
+        existingTestcase.getAttributes().putAll(testCase.getAttributes());
+        existingTestcase.getMetaData().putAll(testCase.getMetaData());
+        return existingTestcase;
+    }
+
+    private void saveImportedTestCase(Session user, String projectId, TestCase existingTestcase, boolean isNew) {
         existingTestcase.setDeleted(false);
         if (existingTestcase.isLocked() == false) {
            existingTestcase.setLocked(true);
-           save(user, projectId, existingTestcase);
-System.out.println("importTestCases - existingTestCase: " + existingTestcase);
-System.out.flush();
+           if (isNew) {
+               // The id is already reserved, save would treat the test case as an existing one
+               create(user, projectId, existingTestcase);
+           } else {
+               save(user, projectId, existingTestcase);
+           }
+           logger.trace("importTestCases - existingTestCase: {}", existingTestcase);
         } else {
             throw new EntityAccessDeniedException(
                     format("User %s can't update testcase %s", user.getPerson().getLogin(), 
@@ -267,14 +355,12 @@ System.out.flush();
 
     public TestCase uploadAttachment(Session userSession, String projectId, String testcaseId, InputStream uploadedInputStream, String fileName, long size) throws IOException {
 
-System.out.println("TestCaseService::uploadAttachment - filename, size" + fileName + size);
-System.out.println("TestCaseService::uploadAttachment - uploadedInputStream: " + uploadedInputStream);
-System.out.flush();
+        logger.trace("TestCaseService::uploadAttachment - filename, size{}{}", fileName, size);
+        logger.trace("TestCaseService::uploadAttachment - uploadedInputStream: {}", uploadedInputStream);
 
         Attachment uploadedAttachment = storage.upload(getCurrOrganizationId(userSession), projectId, uploadedInputStream, fileName, size);
 
-System.out.println("TestCaseService::uploadAttachment - uploadedAttachment: " + uploadedAttachment);
-System.out.flush();
+       logger.trace("TestCaseService::uploadAttachment - uploadedAttachment: {}", uploadedAttachment);
 
        TestCase testCase = findOneUnfiltered(userSession, projectId, testcaseId);
        List<Attachment> attachmentsList = testCase.getAttachments();
@@ -285,32 +371,26 @@ System.out.flush();
                        withDataSize(size);
        attachmentsList.add(uploadedAttachment);
 
-System.out.println("TestCaseService::uploadAttachment - attachmentsList: " + attachmentsList);
-System.out.flush();
+       logger.trace("TestCaseService::uploadAttachment - attachmentsList: {}", attachmentsList);
        testCase.setAttachments(attachmentsList);
 
-System.out.println("TestCaseService::uploadAttachment - testCase: " + testCase);
-System.out.flush();
+       logger.trace("TestCaseService::uploadAttachment - testCase: {}", testCase);
        TestCase newTestCase = update(userSession, projectId, testCase);
 
-System.out.println("TestCaseService::uploadAttachment - end of uploadAttachment - newTestCase: " + newTestCase);
-System.out.flush();
+       logger.trace("TestCaseService::uploadAttachment - end of uploadAttachment - newTestCase: {}", newTestCase);
        return newTestCase;
     }
 
     public Attachment getAttachment(Session userSession, String projectId, String testcaseId, String attachmentId) {
 
-System.out.println("TestCaseService::getAttachment - projectId: " + projectId + ", testcaseId: " + testcaseId + ", attachmentid:" + attachmentId);
-System.out.flush();
+        logger.debug("TestCaseService::getAttachment - projectId: {}, testcaseId: {}, attachmentid:{}", projectId, testcaseId, attachmentId);
 
         TestCase testCase = findOneUnfiltered(userSession, projectId, testcaseId);
 
-System.out.println("TestCaseService::getAttachment - testCase: " + testCase);
-System.out.flush();
+        logger.trace("TestCaseService::getAttachment - testCase: {}", testCase);
 
         Attachment attach = getAttachment(testCase, attachmentId);
-System.out.println("TestCaseService::getAttachment - attach: " + attach);
-System.out.flush();
+        logger.trace("TestCaseService::getAttachment - attach: {}", attach);
 
         return attach;
         //return getAttachment(testCase, attachmentId);
@@ -318,21 +398,18 @@ System.out.flush();
 
     public TestCase deleteAttachment(Session userSession, String projectId, String testcaseId, String attachmentId) throws IOException {
         TestCase testCase = findOneUnfiltered(userSession, projectId, testcaseId);
-System.out.println("TestCaseService::deleteAttachment - testcase: " + testCase);
-System.out.flush();
+        logger.trace("TestCaseService::deleteAttachment - testcase: {}", testCase);
 
         Attachment attachment = getAttachment(testCase, attachmentId);
         storage.remove(attachment);
         testCase.getAttachments().remove(attachment);
 
-System.out.println("TestCaseService::deleteAttachment after remove - testcase: " + testCase);
-System.out.flush();
+        logger.trace("TestCaseService::deleteAttachment after remove - testcase: {}", testCase);
 
         TestCase newTestCase;
         if (testCase.isLocked() == false) {
            newTestCase = update(userSession, projectId, testCase);
-System.out.println("TestCaseService::deleteAttachment after update - newTestCase: " + newTestCase);
-System.out.flush();
+           logger.trace("TestCaseService::deleteAttachment after update - newTestCase: {}", newTestCase);
         } else {
             throw new EntityAccessDeniedException(
                     format("User %s can't update testcase %s", 
@@ -352,6 +429,18 @@ System.out.flush();
         return storage.get(attachment);
     }
 
+    public InputStream getAttachmentStream(Attachment attachment, long offset, long length) throws IOException {
+        return storage.get(attachment, offset, length);
+    }
+
+    public void transferAttachment(Attachment attachment, long offset, long length, OutputStream output) throws IOException {
+        storage.transferTo(attachment, offset, length, output);
+    }
+
+    public ContentInfo getAttachmentContentInfo(Attachment attachment) throws IOException {
+        return storage.getContentInfo(attachment);
+    }
+
     public TestCase createIssue(HttpServletRequest request, Session userSession, String projectId, String testcaseId, Issue issue) throws Exception {
         TestCase testCase = findOne(userSession, projectId, testcaseId);
         testCase.getIssues().add(tracker.createIssue(request, userSession, issue));
@@ -360,8 +449,7 @@ System.out.flush();
         if (testCase.isLocked() == false) {
            testCase.setLocked(true);
            newTestCase = update(userSession, projectId, testCase);
-System.out.println("createIssue - newTestCase: " + newTestCase);
-System.out.flush();
+           logger.trace("createIssue - newTestCase: {}", newTestCase);
         } else {
             throw new EntityAccessDeniedException(
                     format("User %s can't update testcase %s", 
@@ -385,8 +473,7 @@ System.out.flush();
         if (testCase.isLocked() == false) {
            testCase.setLocked(true);
            newTestCase = update(userSession, projectId, testCase);
-System.out.println("linkIssue - newTestCase: " + newTestCase);
-System.out.flush();
+           logger.trace("linkIssue - newTestCase: {}", newTestCase);
         } else {
             throw new EntityAccessDeniedException(
                     format("User %s can't update testcase %s", 
@@ -406,8 +493,7 @@ System.out.flush();
         if (testCase.isLocked() == false) {
            testCase.setLocked(true);
            newTestCase = update(userSession, projectId, testCase);
-System.out.println("unlinkIssue - newTestCase: " + newTestCase);
-System.out.flush();
+           logger.trace("unlinkIssue - newTestCase: {}", newTestCase);
         } else {
             throw new EntityAccessDeniedException(
                     format("User %s can't update testcase %s", 
@@ -436,25 +522,58 @@ System.out.flush();
         return tracker.getIssuePriorities(request, userSession, issueProjectId);
     }
 
-    public TestCase cloneTestCase(Session userSession, String projectId, String testcaseId){
+    public TestCase cloneTestCase(Session userSession, String projectId, String testcaseId) throws IOException {
         TestCase originalTestCase = findOne(userSession, projectId, testcaseId);
 
         TestCase testCaseToCreate = cleanTestCaseForDuplication(originalTestCase);
         testCaseToCreate.setName("Clone of " + originalTestCase.getName());
+        // Returned test cases have no attachment urls, the stored ones are copied
+        testCaseToCreate.getAttachments().addAll(
+                copyAttachments(userSession, projectId, findOneUnfiltered(userSession, projectId, testcaseId)));
         return create(userSession, projectId, testCaseToCreate);
     }
 
-    public String exportToCSV(Session session, String projectId, TestcaseFilter filter) {
-        List<TestCase> testCases = userCanReadProject(session, projectId) ?
-                repository.find(getCurrOrganizationId(session), projectId, filter) :
-                Collections.emptyList();
-        testCases.sort(Comparator.comparing(EntityPreview::getId));
-        return mapTestcasesToCsv(session, projectId, testCases);
+    private List<Attachment> copyAttachments(Session userSession, String projectId, TestCase testCase) throws IOException {
+        List<Attachment> copies = new ArrayList<>(testCase.getAttachments().size());
+        for (Attachment attachment : testCase.getAttachments()) {
+            Attachment copy = storage.copy(getCurrOrganizationId(userSession), projectId, attachment);
+            copies.add(copy.withId(UUID.randomUUID().toString()).
+                    withTitle(attachment.getTitle()).
+                    withCreatedBy(userSession.getLogin()).
+                    withCreatedTime(Instant.now().toEpochMilli()).
+                    withDataSize(attachment.getDataSize()));
+        }
+        return copies;
+    }
+
+    /**
+     * Writes filtered test cases ordered by id as CSV.
+     * Test cases are read from a database cursor and written one by one,
+     * so memory consumption does not depend on the number of exported test cases.
+     */
+    public void exportToCSV(Session session, String projectId, TestcaseFilter filter, OutputStream output) throws IOException {
+        Map<String, String> attributesWithNames = attributeService.findFiltered(session, projectId, new Filter()).stream()
+                .collect(Collectors.toMap(Attribute::getId, Attribute::getName, (v1,v2)->v1, LinkedHashMap::new));
+        List<String> attributeIds = new ArrayList<>(attributesWithNames.keySet());
+        filter.setSortField("id");
+        filter.setOrder(Order.ASC);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(buildCsvHeader(attributesWithNames));
+        if (userCanReadProject(session, projectId)) {
+            try (Stream<TestCase> testCases = repository.stream(getCurrOrganizationId(session), projectId, filter)) {
+                Iterator<TestCase> iterator = testCases.iterator();
+                while (iterator.hasNext()) {
+                    writer.write("\n");
+                    writer.write(buildTestcaseCsv(iterator.next(), attributeIds));
+                }
+            }
+        }
+        writer.flush();
     }
 
     public TestCase lockTestCase(Session userSession, String projectId, String testCaseId) {
-System.out.println("TestCaseService::lockTestCase");
-System.out.flush();
+        logger.debug("TestCaseService::lockTestCase");
         TestCase testCase = new TestCase();
         try {
            testCase = findOne(userSession, projectId, testCaseId);
@@ -463,19 +582,16 @@ System.out.flush();
         }
         TestCase updatedTestCase = testCase;
         if (testCase.isLocked() == false) {
-System.out.println("TestCaseService::lockTestCase - need to lock");
-System.out.flush();
+           logger.debug("TestCaseService::lockTestCase - need to lock");
            testCase.setLocked(true);
            updatedTestCase = update(userSession, projectId, testCase);
-System.out.println("lockTestCase - updatedTestCase: " + updatedTestCase);
-System.out.flush();
+           logger.trace("lockTestCase - updatedTestCase: {}", updatedTestCase);
         }
         return updatedTestCase;
     }
 
     public TestCase unlockTestCase(Session userSession, String projectId, String testCaseId) {
-System.out.println("TestCaseService::unlockTestCase");
-System.out.flush();
+        logger.debug("TestCaseService::unlockTestCase");
         TestCase testCase = new TestCase();
         try {
            testCase = findOne(userSession, projectId, testCaseId);
@@ -484,35 +600,20 @@ System.out.flush();
         }
         TestCase updatedTestCase = new TestCase();
         if (testCase.isLocked() == true) {
-System.out.println("TestCaseService::unLockTestCase - need to unlock");
-System.out.flush();
+           logger.debug("TestCaseService::unLockTestCase - need to unlock");
            testCase.setLocked(false);
            updatedTestCase = update(userSession, projectId, testCase);
-System.out.println("unlockTestCase - updatedTestCase: " + updatedTestCase);
-System.out.flush();
+           logger.trace("unlockTestCase - updatedTestCase: {}", updatedTestCase);
         }
         return updatedTestCase;
     }
 
-    private String mapTestcasesToCsv(Session session, String projectId, List<TestCase> testCases) {
-        Map<String, String> attributesWithNames = attributeService.findFiltered(session, projectId, new Filter()).stream()
-                .collect(Collectors.toMap(Attribute::getId, Attribute::getName, (v1,v2)->v1, LinkedHashMap::new));
-        String header = buildCsvHeader(attributesWithNames);
-        String testcasesCsv = buildTestcasesCsv(testCases, attributesWithNames);
-        return header + "\n" + testcasesCsv;
-    }
-
-    private String buildTestcasesCsv(List<TestCase> testCases, Map<String, String> attributesWithNames) {
-        return testCases.stream().map(testCase -> buildTestcaseCsv(testCase, attributesWithNames))
-                .collect(Collectors.joining("\n"));
-    }
-
-    private String buildTestcaseCsv(TestCase testCase, Map<String, String> attributesWithNames) {
-        return testCase.getId() + "," + wrapCsvLine(testCase.getName()) + "," + getTestcaseAttributesCsv(testCase, attributesWithNames);
+    private String buildTestcaseCsv(TestCase testCase, List<String> attributeIds) {
+        return testCase.getId() + "," + wrapCsvLine(testCase.getName()) + "," + getTestcaseAttributesCsv(testCase, attributeIds);
     }
 
-    private String getTestcaseAttributesCsv(TestCase testCase, Map<String, String> attributesWithNames) {
-        return attributesWithNames.keySet().stream()
+    private String getTestcaseAttributesCsv(TestCase testCase, List<String> attributeIds) {
+        return attributeIds.stream()
                 .map(attributeKey -> getTestcaseAttributeValuesInCSV(testCase, attributeKey))
                 .map(this::wrapCsvLine)
                 .collect(Collectors.joining(","));
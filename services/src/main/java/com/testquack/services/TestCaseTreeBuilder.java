@@ -0,0 +1,121 @@
+package com.testquack.services;
+
+import com.testquack.beans.TestCase;
+import com.testquack.beans.TestCaseTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+
+/**
+ * Groups test cases of a tree head by attribute values, one tree level per group.
+ * Attribute values of every test case are resolved once for all levels.
+ * Subtrees holding at least the threshold of test cases are built in parallel on the common ForkJoin pool,
+ * the resulting tree is the same as the one built sequentially.
+ */
+class TestCaseTreeBuilder {
+
+    static final String UNKNOWN_GROUP = "None";
+
+    private static final int PARALLEL_THRESHOLD = 2000;
+
+    private final List<String> groups;
+    private final int parallelThreshold;
+
+    TestCaseTreeBuilder(List<String> groups) {
+        this(groups, PARALLEL_THRESHOLD);
+    }
+
+    TestCaseTreeBuilder(List<String> groups, int parallelThreshold) {
+        this.groups = new ArrayList<>(groups);
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Moves test cases of the head to the leaves of the tree and sets counts of all nodes
+     */
+    TestCaseTree build(TestCaseTree head) {
+        if (groups.isEmpty()) {
+            head.setCount(head.getTestCases().size());
+            return head;
+        }
+        List<GroupedTestCase> testCases = new ArrayList<>(head.getTestCases().size());
+        head.getTestCases().forEach(testCase -> testCases.add(new GroupedTestCase(testCase, groups)));
+        new SubtreeTask(head, testCases, 0).invoke();
+        head.getTestCases().clear();
+        return head;
+    }
+
+    private class SubtreeTask extends RecursiveAction {
+        private final TestCaseTree node;
+        private final List<GroupedTestCase> testCases;
+        private final int level;
+
+        SubtreeTask(TestCaseTree node, List<GroupedTestCase> testCases, int level) {
+            this.node = node;
+            this.testCases = testCases;
+            this.level = level;
+        }
+
+        @Override
+        protected void compute() {
+            node.setCount(testCases.size());
+            if (level == groups.size()) {
+                List<TestCase> leafTestCases = node.getTestCases();
+                testCases.forEach(testCase -> leafTestCases.add(testCase.testCase));
+                return;
+            }
+
+            // Children keep the order of the former per level HashMap grouping
+            String groupId = groups.get(level);
+            Map<String, List<GroupedTestCase>> casesByGroupValues = new HashMap<>();
+            testCases.forEach(testCase -> {
+                Set<String> attrValues = testCase.values.get(level);
+                if (attrValues.isEmpty()) {
+                    casesByGroupValues.computeIfAbsent(UNKNOWN_GROUP, key -> new ArrayList<>()).add(testCase);
+                }
+                attrValues.forEach(attrValue ->
+                        casesByGroupValues.computeIfAbsent(attrValue, key -> new ArrayList<>()).add(testCase));
+            });
+
+            List<SubtreeTask> forkedTasks = new ArrayList<>();
+            casesByGroupValues.forEach((groupValue, groupTestCases) -> {
+                TestCaseTree child = (TestCaseTree) new TestCaseTree().
+                        withTestCases(Collections.emptyList()).
+                        withTitle(groupValue).
+                        withId(groupId + ":" + groupValue);
+                node.getChildren().add(child);
+                SubtreeTask childTask = new SubtreeTask(child, groupTestCases, level + 1);
+                if (groupTestCases.size() >= parallelThreshold) {
+                    forkedTasks.add(childTask);
+                } else {
+                    childTask.compute();
+                }
+            });
+            ForkJoinTask.invokeAll(forkedTasks);
+        }
+    }
+
+    private static class GroupedTestCase {
+        private final TestCase testCase;
+        private final List<Set<String>> values;
+
+        GroupedTestCase(TestCase testCase, List<String> groups) {
+            this.testCase = testCase;
+            this.values = new ArrayList<>(groups.size());
+            for (String groupId : groups) {
+                Set<String> attrValues = testCase.getAttributes().get(groupId);
+                // Collected the same way as before to keep the iteration order of values
+                values.add(attrValues == null || attrValues.isEmpty() ?
+                        Collections.emptySet() :
+                        attrValues.stream().collect(Collectors.toSet()));
+            }
+        }
+    }
+}
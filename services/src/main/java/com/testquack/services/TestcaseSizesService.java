@@ -37,14 +37,14 @@ public class TestcaseSizesService extends BaseService<TestcaseSizes> {
 
     @Override
     public List<TestcaseSizes> findFiltered(Session session, String projectId, Filter filter) {
-System.out.println("TestcaseSizesService.findFiltered - session: " + session);
-System.out.println("TestcaseSizesService.findFiltered - projectId: " + projectId);
-System.out.println("TestcaseSizesService.findFiltered - filter: " + filter);
-System.out.flush();
+        logger.trace("TestcaseSizesService.findFiltered - session: {}", session);
+        logger.debug("TestcaseSizesService.findFiltered - projectId: {}", projectId);
+        logger.trace("TestcaseSizesService.findFiltered - filter: {}", filter);
         List<TestcaseSizes> listTCSizes = getRepository().find(getCurrOrganizationId(session), projectId, filter);
-        for (TestcaseSizes tcSize : listTCSizes) {
-           System.out.println("TestcaseSizesService::findFiltered - tcSize: " + tcSize);
-           System.out.flush();
+        if (logger.isTraceEnabled()) {
+            for (TestcaseSizes tcSize : listTCSizes) {
+                logger.trace("TestcaseSizesService::findFiltered - tcSize: {}", tcSize);
+            }
         }
         return listTCSizes;
 
@@ -54,13 +54,13 @@ System.out.flush();
 
     public List<TestcaseSizes> findAll() {
 
-System.out.println("TestcaseSizesService::findAll");
-System.out.flush();
+        logger.debug("TestcaseSizesService::findAll");
 
         List<TestcaseSizes> tcSizesList = StreamSupport.stream(repository.findAll().spliterator(), false).collect(Collectors.toList());
-        for (TestcaseSizes tcSize : tcSizesList) {
-           System.out.println("TestcaseSizesService.findAll() - tcSize: " + tcSize);
-           System.out.flush();
+        if (logger.isTraceEnabled()) {
+            for (TestcaseSizes tcSize : tcSizesList) {
+                logger.trace("TestcaseSizesService.findAll() - tcSize: {}", tcSize);
+            }
         }
 
 
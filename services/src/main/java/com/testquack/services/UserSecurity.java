@@ -1,5 +1,7 @@
 package com.testquack.services;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.testquack.beans.RoleCapability;
 import com.testquack.beans.Role;
 import com.testquack.beans.Capability;
@@ -12,48 +14,44 @@ import ru.greatbit.whoru.auth.Session;
 import com.testquack.dal.UserRepository;
 import com.testquack.dal.RoleCapabilityRepository;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Collection;
+import java.util.Set;
 
 public class UserSecurity {
 
-  public static boolean allowUserReadRequest(
+  private static final Logger logger = LoggerFactory.getLogger(UserSecurity.class);
+
+  /**
+   * Resolves the role of the user and capabilities granted to the role.
+   * Results are cached by {@link PermissionCache}, so prefer it over calling this method directly.
+   */
+  public static ProjectPermissions resolvePermissions(
                           String                   organizationId, 
                           UserRepository           userRepository, 
                           RoleCapabilityRepository roleCapRepository,
                           String                   projectId,
                           String                   loginId) {
      User user = (User)userRepository.findOne(organizationId, projectId, loginId);
-
-System.out.println("allowUserReadRequest - user: " + user);
-System.out.flush();
-
      Role userRole = translateRoleFormat(user.getRole());
 
-     List<RoleCapability> roleCapList = roleCapRepository.find(
-             organizationId, projectId, new Filter());
-
-System.out.println("allowUserReadRequest - roleCapList: " + roleCapList);
-System.out.flush();
-
-     for (RoleCapability roleCap : roleCapList) {
-        if (userRole == roleCap.getRole()) {
-System.out.println("allowUserReadRequest - roleCap matched role: " + roleCap.getRole());
-System.out.println("allowUserReadRequest - cap: " + roleCap.getCapability().value());
-System.out.flush();
-           if ((roleCap.getCapability() == Capability.READ) ||
-               (roleCap.getCapability() == Capability.READWRITE) ||
-               (roleCap.getCapability() == Capability.ADMIN)) {
-System.out.println("allowUserReadRequest - roleCap allowed READ: " + roleCap);
-System.out.flush();
-              return true;
-           } 
+     Set<Capability> capabilities = EnumSet.noneOf(Capability.class);
+     for (RoleCapability roleCap : roleCapRepository.find(organizationId, projectId, new Filter())) {
+        if (userRole == roleCap.getRole() && roleCap.getCapability() != null) {
+           capabilities.add(roleCap.getCapability());
         }
-
      }
- 
-     return false;
+     return new ProjectPermissions(userRole, capabilities);
+  }
 
+  public static boolean allowUserReadRequest(
+                          String                   organizationId, 
+                          UserRepository           userRepository, 
+                          RoleCapabilityRepository roleCapRepository,
+                          String                   projectId,
+                          String                   loginId) {
+     return resolvePermissions(organizationId, userRepository, roleCapRepository, projectId, loginId).canRead();
   }
 
   public static boolean allowUserWriteRequest(
@@ -62,52 +60,16 @@ System.out.flush();
                           RoleCapabilityRepository roleCapRepository,
                           String                   projectId,
                           String                   loginId) {
-
-System.out.println("allowUserWriteRequest - org id: " + organizationId);
-System.out.println("allowUserWriteRequest - projectId: " + projectId);
-System.out.println("allowUserWriteRequest - loginId: " + loginId);
-System.out.flush();
-
-     User user = (User)userRepository.findOne(organizationId, projectId, loginId);
-
-     Role userRole = translateRoleFormat(user.getRole());
-
-     List<RoleCapability> roleCapList = roleCapRepository.find(
-             organizationId, projectId, new Filter());
-
-System.out.println("allowUserWriteequest - roleCapList: " + roleCapList);
-System.out.flush();
-
-     for (RoleCapability roleCap : roleCapList) {
-        if (userRole == roleCap.getRole()) {
-System.out.println("allowUserWriteRequest - matched role: " + roleCap.getRole().value());
-System.out.println("allowUserWriteRequest - cap: " + roleCap.getCapability().value());
-System.out.flush();
-
-           if ((roleCap.getCapability() == Capability.READWRITE) || 
-               (roleCap.getCapability() == Capability.ADMIN)) {
-System.out.println("allowUserWriteRequest - roleCap allowed READWRITE or ADMIN: " + roleCap);
-System.out.flush();
-
-              return true;
-           } 
-        }
-     }
- 
-System.out.println("allowUserWriteRequest - returning false");
-System.out.flush();
-     return false;
+     return resolvePermissions(organizationId, userRepository, roleCapRepository, projectId, loginId).canWrite();
   }
 
   public static boolean allowLaunchWriteRequest(List<String> roles, Entity entity) {
 
-System.out.println("allowLaunchWriteRequest - roles, roles[0]: " + roles + ", " + roles.get(0));
-System.out.println("allowLaunchWriteRequest - entity instanceof Launch: " + (entity instanceof Launch));
-System.out.flush();
+     logger.trace("allowLaunchWriteRequest - roles, roles[0]: {}, {}", roles, roles.get(0));
+     logger.trace("allowLaunchWriteRequest - entity instanceof Launch: {}", (entity instanceof Launch));
 
      if (entity instanceof Launch && roles.isEmpty() == false && roles.get(0).equals("OBSERVERONLY")) {
-System.out.println("allowLaunchWriteRequest - launch write NOT allowed");
-System.out.flush();
+        logger.debug("allowLaunchWriteRequest - launch write NOT allowed");
         return false;
      }
 
@@ -123,8 +85,7 @@ System.out.flush();
                           String                   loginId,
                           List<Entity>             entityList ) {
 
-System.out.println("allowUserWriteRequest - no body 1");
-System.out.flush();
+      logger.debug("allowUserWriteRequest - no body 1");
 
       return true;
 
@@ -139,8 +100,7 @@ System.out.flush();
                           String                   loginId,
                           Collection<Entity>       entityCollection ) {
 
-System.out.println("allowUserWriteRequest - no body 2");
-System.out.flush();
+      logger.debug("allowUserWriteRequest - no body 2");
 
       return true;
 
@@ -157,11 +117,9 @@ System.out.flush();
      User user = (User)userRepository.findOne(null, null, loginId);
      Role userRole = translateRoleFormat(user.getRole());
 
-System.out.println("UserSecurity::isAdmin - role: " + userRole);
-System.out.flush();
+     logger.debug("UserSecurity::isAdmin - role: {}", userRole);
      if (userRole == Role.ADMIN) {
-System.out.println("UserSecurity::isAdmin - returning true");
-System.out.flush();
+        logger.debug("UserSecurity::isAdmin - returning true");
         return true;
      }
 
@@ -187,8 +145,7 @@ System.out.flush();
            returnRole = Role.OBSERVERONLY;
            break;
         default:
-           System.out.println("translateRoleFormat - role: " + role);
-           System.out.flush();
+           logger.debug("translateRoleFormat - role: {}", role);
            break;
       }
       return returnRole;
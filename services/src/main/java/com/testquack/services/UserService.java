@@ -18,6 +18,7 @@ import ru.greatbit.whoru.auth.Session;
 import ru.greatbit.whoru.auth.Person;
 
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,6 +31,8 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 @Service
 public class UserService extends BaseService<User> {
 
+    public final static String PROVISIONED_ORGANIZATION_KEY = "provisionedOrganization";
+
     @Autowired
     private UserRepository repository;
 
@@ -52,9 +55,8 @@ public class UserService extends BaseService<User> {
     }
 
     protected boolean userCanSave(Session session, String login) {
-System.out.println("UserService::userCanSave - login: " + login);
-System.out.println("UserService::userCanSave - session: " + session);
-System.out.flush();
+        logger.debug("UserService::userCanSave - login: {}", login);
+        logger.trace("UserService::userCanSave - session: {}", session);
 
         return isAdmin(session) || login.equals(session.getPerson().getLogin());
     }
@@ -67,19 +69,15 @@ System.out.flush();
     @Override
     protected boolean userCanDelete(Session session, String projectId, String id) {
 	User user = findOne(session, projectId, id);
-System.out.println("UserService::userCanDelete - user: " + user);
-System.out.flush();
-System.out.println("UserService::userCanDelete - projectId: " + projectId);
-System.out.println("UserService::userCanDelete - session: " + session);
-System.out.flush();
+        logger.trace("UserService::userCanDelete - user: {}", user);
+        logger.debug("UserService::userCanDelete - projectId: {}", projectId);
+        logger.trace("UserService::userCanDelete - session: {}", session);
 
         if (user.isLocked()) {
-System.out.println("UserService::userCanDelete - user locked = true");
-System.out.flush();
+           logger.debug("UserService::userCanDelete - user locked = true");
            return false;
         }
-System.out.println("UserService::userCanDelete - user locked = false");
-System.out.flush();
+        logger.debug("UserService::userCanDelete - user locked = false");
         return userCanSave(session, id);
     }
 
@@ -98,9 +96,8 @@ System.out.flush();
     @Override
     public User findOne(Session session, String projectId, String id) {
 
-System.out.println("UserService.findOne - projectId, id: " + projectId + "," + id);
-System.out.println("UserService.findOne - session: " + session);
-System.out.flush();
+        logger.debug("UserService.findOne - projectId, id: {},{}", projectId, id);
+        logger.trace("UserService.findOne - session: {}", session);
 
         //return cleanUserSesitiveData(super.findOne(session, projectId, id));
         User user = cleanUserSensitiveData(super.findOne(session, projectId, id));
@@ -126,6 +123,13 @@ System.out.flush();
        Person person = session.getPerson();
        person.setPassword(entityPassword);
        session.setPerson(person);
+       permissionCache.invalidate();
+    }
+
+    @Override
+    protected void afterDelete(Session session, String projectId, String id) {
+        super.afterDelete(session, projectId, id);
+        permissionCache.invalidate();
     }
 
     @Override
@@ -143,8 +147,7 @@ System.out.flush();
 
     private User save(User entity) {
 
-System.out.println("UserService::save start - entity: " + entity);
-System.out.flush();
+        logger.trace("UserService::save start - entity: {}", entity);
 
         FencedLock lock = hazelcastInstance.getCPSubsystem().getLock(entity.getClass() + entity.getId());
         try{
@@ -154,16 +157,14 @@ System.out.flush();
 	    lock.unlock();
 	}
 
-System.out.println("BaseService:: after save - entity: " + entity);
-System.out.flush();
+        logger.trace("BaseService:: after save - entity: {}", entity);
 
         return entity;
     }
 
 
     public void changePassword(String login, String oldPassword, String newPassword) {
-System.out.println("changePassword - login: " + login);
-System.out.flush();
+       logger.debug("changePassword - login: {}", login);
        User user = findOne("", new Filter().withField("login", login));
        StringBuilder exceptionMessage = new StringBuilder("");
        if (PasswordValidation.validatePassword(newPassword, exceptionMessage)) {
@@ -172,17 +173,14 @@ System.out.flush();
 
           User newUser = save(user);
 
-System.out.println("changePassword - after setPassword, newUser: " + newUser);
-System.out.println("changePassword - after setPassword, encryptedpassword: " + encryptPassword(newPassword, newUser.getLogin()));
-System.out.flush();
+          logger.trace("changePassword - after setPassword, newUser: {}", newUser);
        } else {
-          throw new EntityValidationException(format("User %s password %s validation error - %s", login, newPassword, exceptionMessage.toString()));
+          throw new EntityValidationException(format("User %s password validation error - %s", login, exceptionMessage.toString()));
        }
     }
 
     public void changePassword(Session session, String login, String oldPassword, String newPassword) {
-System.out.println("changePassword - session: " + session);
-System.out.flush();
+        logger.trace("changePassword - session: {}", session);
         if (userCanSave(session, login)){
             User user = findOne(getCurrOrganizationId(session), new Filter().withField("login", login));
 	    StringBuilder exceptionMessage = new StringBuilder("");
@@ -190,11 +188,9 @@ System.out.flush();
                user.setPassword(encryptPassword(newPassword, user.getLogin()));
                user.setPasswordChangeRequired(false);
                save(session, null, user);
-System.out.println("changePassword - after setPassword, session: " + session);
-System.out.println("changePassword - after setPassword, encryptedpassword: " + encryptPassword(newPassword, user.getLogin()));
-System.out.flush();
+               logger.trace("changePassword - after setPassword, session: {}", session);
             } else {
-               throw new EntityValidationException(format("User %s password %s validation error - %s", login, newPassword, exceptionMessage.toString()));
+               throw new EntityValidationException(format("User %s password validation error - %s", login, exceptionMessage.toString()));
 	    }
         } else {
             throw new EntityAccessDeniedException(format("User %s doesn't have permissions to modify %s account", session.getPerson().getLogin(), login));
@@ -211,18 +207,49 @@ System.out.flush();
 
     /////// Non-authenticable for internal usage
 
+    /**
+     * Creates the user of the session in the current organization if it does not exist yet.
+     * The organization is remembered in the session, so users are checked once per session and organization.
+     * @return true if the session has been modified and has to be stored by the session provider
+     */
+    public boolean provisionUser(Session session) {
+        if (session.getPerson() == null || session.getPerson().getLogin() == null) {
+            return false;
+        }
+        String organizationId = getCurrOrganizationId(session);
+        String provisionedOrganization = organizationId == null ? "" : organizationId;
+        if (provisionedOrganization.equals(session.getMetainfo().get(PROVISIONED_ORGANIZATION_KEY))) {
+            return false;
+        }
+
+        Person person = session.getPerson();
+        if (!repository.exists(organizationId, null, person.getLogin())) {
+            repository.save(organizationId, null,
+                    new User().withCreatedTime(Instant.now().toEpochMilli()).
+                            withId(person.getLogin()).
+                            withLogin(person.getLogin()).
+                            withToken(person.getToken()).
+                            withLastModifiedTime(Instant.now().toEpochMilli()).
+                            withFirstName(person.getFirstName()).
+                            withLastName(person.getLastName())
+            );
+        }
+        session.getMetainfo().put(PROVISIONED_ORGANIZATION_KEY, provisionedOrganization);
+        return true;
+    }
+
     public User findOne(String organizationId, Filter filter) {
         return repository.find(organizationId,null, filter).stream().findFirst().orElseThrow(EntityNotFoundException::new);
     }
 
     public List<User> findAll() {
-System.out.println("UserService::findAll");
-System.out.flush();
+        logger.debug("UserService::findAll");
 
         List<User> usersList = StreamSupport.stream(repository.findAll().spliterator(), false).collect(Collectors.toList());
-        for (User user : usersList) {
-           System.out.println("UserService.findAll() - user: " + user);
-           System.out.flush();
+        if (logger.isTraceEnabled()) {
+            for (User user : usersList) {
+                logger.trace("UserService.findAll() - user: {}", user);
+            }
         }
         return usersList;
         //return StreamSupport.stream(repository.findAll().spliterator(), false).collect(Collectors.toList());
@@ -239,29 +266,24 @@ System.out.flush();
 
     public boolean setLocked(Session session, boolean lockedValue) {
 
-System.out.println("UserService::setLocked - session: " + session);
-System.out.println("UserService::setLocked - lockedValue: " + lockedValue);
-System.out.flush();
+       logger.trace("UserService::setLocked - session: {}", session);
+       logger.debug("UserService::setLocked - lockedValue: {}", lockedValue);
 
        if (session == null) {
-	  System.out.println("UserService::setLocked - session null");
-	  System.out.flush();
+          logger.debug("UserService::setLocked - session null");
           return false;
        }
 
        String userLogin = session.getPerson().getLogin();
        String userPassword = session.getPerson().getPassword();
-System.out.println("UserService::setLocked - userLogin: " + userLogin);
-System.out.println("UserService::setLocked - userPassword: " + userPassword);
-System.out.flush();
+       logger.debug("UserService::setLocked - userLogin: {}", userLogin);
 
        //if (!session.isIsAdmin() && UserSecurity.isAdmin(userRepository, roleCapRepository, userLogin) == false) {
        if (!session.isIsAdmin()) {
 		       
           if (UserSecurity.isAdmin(userRepository, roleCapRepository, userLogin) == false) {
 
-System.out.println("UserService::setLocked - NOT an admin");
-System.out.flush();
+             logger.debug("UserService::setLocked - NOT an admin");
              User user = findOne(session, null, userLogin);
              user.setLocked(lockedValue);
              user.setLogin(userLogin);
@@ -269,15 +291,12 @@ System.out.flush();
                 user.setPassword(userPassword);
 
              User updatedUser = save(session, null, user);
-System.out.println("setLocked - updatedUser: " + updatedUser);
-System.out.flush();
+             logger.trace("setLocked - updatedUser: {}", updatedUser);
              if (updatedUser == null) {
-                System.out.println("UserService::setLocked - updatedUser = null");
-                System.out.flush();
+                logger.debug("UserService::setLocked - updatedUser = null");
                 return false;
              }
- System.out.println("setLocked - set lock end");
- System.out.flush();
+             logger.debug("setLocked - set lock end");
              return true;
 
 	  } else
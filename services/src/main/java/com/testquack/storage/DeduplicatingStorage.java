@@ -0,0 +1,159 @@
+package com.testquack.storage;
+
+import com.testquack.beans.Attachment;
+import com.testquack.beans.StoredBlob;
+import com.testquack.dal.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Stores identical uploads of an organization once, whichever storage keeps the content.
+ * Uploads are hashed with SHA-256 while the delegate stores them. When a blob with the same hash exists,
+ * the new copy is removed and the attachment references the stored one.
+ * Blobs are reference counted and removed from the delegate with their last attachment.
+ * Attachments stored before have no blob id and are removed by the delegate directly.
+ * Uploads to a delegate deduplicating content by itself are passed through, so the content is not hashed twice
+ * and the copy the delegate has just shared is not removed again.
+ */
+public class DeduplicatingStorage implements Storage {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    private StoredBlobRepository repository;
+
+    private final Storage delegate;
+
+    public DeduplicatingStorage(Storage delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Attachment upload(String organizationId, String projectId, InputStream uploadedInputStream, String fileName, long size) throws IOException {
+        if (delegate.isDeduplicating()) {
+            return delegate.upload(organizationId, projectId, uploadedInputStream, fileName, size);
+        }
+        HashingInputStream content = new HashingInputStream(uploadedInputStream);
+        Attachment attachment = delegate.upload(organizationId, projectId, content, fileName, size);
+        if (!content.isFullyRead()) {
+            logger.debug("Content of {} was not read to the end, it is not deduplicated", fileName);
+            return attachment;
+        }
+
+        String blobId = getBlobId(organizationId, content.getHash());
+        StoredBlob blob = addReference(blobId, attachment.getUrl());
+        if (!Objects.equals(blob.getUrl(), attachment.getUrl())) {
+            logger.debug("Content of {} is already stored as {}", fileName, blob.getUrl());
+            delegate.remove(attachment);
+            attachment.setUrl(blob.getUrl());
+        }
+        return attachment.withBlobId(blobId);
+    }
+
+    private StoredBlob addReference(String blobId, String url) {
+        try {
+            return repository.addReference(blobId, url);
+        } catch (DuplicateKeyException e) {
+            // The same content was uploaded concurrently and its blob was created first
+            return repository.addReference(blobId, url);
+        }
+    }
+
+    @Override
+    public Attachment copy(String organizationId, String projectId, Attachment attachment) throws IOException {
+        if (attachment.getBlobId() != null && repository.addReference(attachment.getBlobId()) != null) {
+            return (Attachment) attachment.copyTo(new Attachment());
+        }
+        return Storage.super.copy(organizationId, projectId, attachment);
+    }
+
+    @Override
+    public boolean isDeduplicating() {
+        return true;
+    }
+
+    @Override
+    public void remove(Attachment attachment) throws IOException {
+        if (attachment.getBlobId() == null || repository.removeReference(attachment.getBlobId()) != null) {
+            delegate.remove(attachment);
+        }
+    }
+
+    @Override
+    public InputStream get(Attachment attachment) throws IOException {
+        return delegate.get(attachment);
+    }
+
+    @Override
+    public InputStream get(Attachment attachment, long offset, long length) throws IOException {
+        return delegate.get(attachment, offset, length);
+    }
+
+    @Override
+    public void transferTo(Attachment attachment, long offset, long length, OutputStream output) throws IOException {
+        delegate.transferTo(attachment, offset, length, output);
+    }
+
+    @Override
+    public ContentInfo getContentInfo(Attachment attachment) throws IOException {
+        return delegate.getContentInfo(attachment);
+    }
+
+    private String getBlobId(String organizationId, String hash) {
+        return isEmpty(organizationId) ? hash : organizationId + "_" + hash;
+    }
+
+    private static class HashingInputStream extends DigestInputStream {
+        private boolean fullyRead;
+
+        HashingInputStream(InputStream stream) {
+            super(stream, createDigest());
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            fullyRead |= result < 0;
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            fullyRead |= result < 0;
+            return result;
+        }
+
+        boolean isFullyRead() {
+            return fullyRead;
+        }
+
+        String getHash() {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : getMessageDigest().digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+
+        private static MessageDigest createDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
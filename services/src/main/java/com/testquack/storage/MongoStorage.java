@@ -5,6 +5,9 @@ import com.mongodb.DBObject;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.gridfs.GridFSBucket;
 import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSDownloadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
@@ -48,14 +51,33 @@ public class MongoStorage implements Storage {
 
     @Override
     public InputStream get(Attachment attachment) throws IOException {
-        com.mongodb.client.gridfs.model.GridFSFile file = gridOperations.findOne(
+        GridFSFile file = findFile(attachment);
+        return new GridFsResource(file, getGridFs().openDownloadStream(file.getObjectId())).getInputStream();
+    }
+
+    @Override
+    public InputStream get(Attachment attachment, long offset, long length) throws IOException {
+        GridFSDownloadStream content = getGridFs().openDownloadStream(findFile(attachment).getObjectId());
+        // Skipping moves the stream to the chunk holding the offset, the leading chunks are not fetched
+        content.skip(offset);
+        return new BoundedInputStream(content, length);
+    }
+
+    @Override
+    public ContentInfo getContentInfo(Attachment attachment) throws IOException {
+        GridFSFile file = findFile(attachment);
+        return new ContentInfo(file.getLength(), file.getObjectId().toHexString(), file.getUploadDate());
+    }
+
+    private GridFSFile findFile(Attachment attachment) {
+        GridFSFile file = gridOperations.findOne(
                 new Query().addCriteria(Criteria.where("_id").is(new ObjectId(attachment.getUrl()))));
         if (file == null){
             throw new RuntimeException(String.format("File with id %s not found", attachment.getId()));
-        } else {
-            return new GridFsResource(file, getGridFs().openDownloadStream(file.getObjectId())).getInputStream();
         }
+        return file;
     }
+
     private GridFSBucket getGridFs() {
         MongoDatabase db = mongoDbFactory.getMongoDatabase();
         return GridFSBuckets.create(db);
@@ -0,0 +1,86 @@
+package com.testquack.dal.impl;
+
+import com.testquack.beans.Filter;
+import com.testquack.beans.Organization;
+import com.testquack.dal.OrganizationRepository;
+import com.testquack.services.BaseTest;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class EntityCacheTest extends BaseTest {
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Test
+    public void entitiesAreReadThroughCache() {
+        organizationRepository.save(null, null, createOrganization("Organization"));
+        assertThat(organizationRepository.findOne(null, null, "org1").getName(), is("Organization"));
+
+        renameInDatabase("Renamed");
+        assertThat(organizationRepository.findOne(null, null, "org1").getName(), is("Organization"));
+
+        entityCache.evictAll(EntityCache.ORGANIZATIONS);
+        assertThat(organizationRepository.findOne(null, null, "org1").getName(), is("Renamed"));
+    }
+
+    @Test
+    public void writesEvictCachedEntities() {
+        organizationRepository.save(null, null, createOrganization("Organization"));
+        assertThat(organizationRepository.find(null, null, new Filter()).get(0).getName(), is("Organization"));
+        assertThat(organizationRepository.findOne(null, null, "org1").getName(), is("Organization"));
+
+        organizationRepository.save(null, null, createOrganization("Updated"));
+        assertThat(organizationRepository.find(null, null, new Filter()).get(0).getName(), is("Updated"));
+        assertThat(organizationRepository.findOne(null, null, "org1").getName(), is("Updated"));
+
+        organizationRepository.delete(null, null, "org1");
+        assertThat(organizationRepository.findOne(null, null, "org1"), nullValue());
+    }
+
+    @Test
+    public void valuesLoadedBeforeEvictionAreNotCached() {
+        String key = "org1";
+        Organization loaded = entityCache.get(EntityCache.ORGANIZATIONS, key, () -> {
+            Organization organization = createOrganization("Organization");
+            // A concurrent write commits and evicts after the value has been read
+            entityCache.evict(EntityCache.ORGANIZATIONS, key);
+            return organization;
+        });
+        assertThat(loaded.getName(), is("Organization"));
+        assertThat(entityCache.get(EntityCache.ORGANIZATIONS, key, () -> createOrganization("Updated")).getName(), is("Updated"));
+
+        Organization loadedBeforeClear = entityCache.get(EntityCache.ORGANIZATIONS, "org2", () -> {
+            entityCache.evictAll(EntityCache.ORGANIZATIONS);
+            return createOrganization("Organization");
+        });
+        assertThat(loadedBeforeClear.getName(), is("Organization"));
+        assertThat(entityCache.get(EntityCache.ORGANIZATIONS, "org2", () -> createOrganization("Updated")).getName(), is("Updated"));
+    }
+
+    @Test
+    public void absentEntitiesAreNotCached() {
+        assertThat(organizationRepository.findOne(null, null, "org1"), nullValue());
+
+        mongoTemplate.save(createOrganization("Organization"), "organizations");
+        assertThat(organizationRepository.findOne(null, null, "org1").getName(), is("Organization"));
+    }
+
+    private void renameInDatabase(String name) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("org1")), new Update().set("name", name), "organizations");
+    }
+
+    private Organization createOrganization(String name) {
+        Organization organization = new Organization();
+        organization.setId("org1");
+        organization.setName(name);
+        return organization;
+    }
+}
@@ -4,6 +4,7 @@ import com.testquack.beans.Project;
 import com.testquack.beans.TestCase;
 import com.testquack.dal.ProjectRepository;
 import com.testquack.dal.TestCaseRepository;
+import com.testquack.dal.impl.EntityCache;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,6 +42,12 @@ public abstract class BaseTest {
     @Autowired
     protected TestCaseRepository testCaseRepository;
 
+    @Autowired
+    protected PermissionCache permissionCache;
+
+    @Autowired
+    protected EntityCache entityCache;
+
     protected Project project1 = new Project().withName("Project 1").
             withId("pr1").withReadWriteUsers("u1", "u2");
 
@@ -80,6 +87,10 @@ public abstract class BaseTest {
     @Before
     public void setUp(){
         mongoTemplate.getDb().drop();
+        permissionCache.invalidate();
+        entityCache.evictAll(EntityCache.ORGANIZATIONS);
+        entityCache.evictAll(EntityCache.USERS);
+        entityCache.evictAll(EntityCache.ROLE_CAPABILITIES);
 
         project1 = projectService.create(adminSession, null, project1);
         project2 = projectService.create(adminSession, null, project2);
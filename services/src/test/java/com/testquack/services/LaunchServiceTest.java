@@ -1,12 +1,22 @@
 package com.testquack.services;
 
+import com.testquack.beans.Filter;
 import com.testquack.beans.Launch;
+import com.testquack.beans.LaunchStatistics;
 import com.testquack.beans.LaunchStats;
 import com.testquack.beans.LaunchStatus;
 import com.testquack.beans.LaunchTestCase;
+import com.testquack.beans.LaunchTestCaseStatusUpdate;
+import com.testquack.beans.LaunchTestCaseStatusUpdateResult;
 import com.testquack.beans.LaunchTestCaseTree;
+import com.testquack.beans.LaunchTestcaseStats;
 import org.junit.Test;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
 import static junit.framework.TestCase.assertNotNull;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -62,4 +72,297 @@ public class LaunchServiceTest extends BaseTest {
         assertThat(launchStats.getStatusCounters().get(LaunchStatus.FAILED), is(1));
         assertThat(launchStats.getStatusCounters().get(LaunchStatus.PASSED), is(1));
     }
+
+    @Test
+    public void updateLaunchTestCaseStatus() throws Exception {
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase1.getAlias());
+
+        LaunchTestCase launchTestCase2 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase2.getAlias());
+
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withChildren(
+                new LaunchTestCaseTree().withTestCases(launchTestCase1),
+                new LaunchTestCaseTree().withTestCases(launchTestCase2)
+        ));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+
+        String uuid = persistedLaunch.getTestCaseTree().getChildren().get(1).getTestCases().get(0).getUuid();
+        LaunchTestCase updated = launchService.updateLaunchTestCaseStatus(null, adminSession, project1.getId(),
+                persistedLaunch.getId(), uuid, LaunchStatus.PASSED, null);
+        assertThat(updated.getLaunchStatus(), is(LaunchStatus.PASSED));
+
+        Launch updatedLaunch = launchService.findOne(adminSession, project1.getId(), persistedLaunch.getId());
+        assertThat(updatedLaunch.getTestCaseTree().getChildren().get(1).getTestCases().get(0).getLaunchStatus(),
+                is(LaunchStatus.PASSED));
+        assertThat(updatedLaunch.getTestCaseTree().getChildren().get(0).getTestCases().get(0).getLaunchStatus(),
+                is(LaunchStatus.RUNNABLE));
+        assertThat(updatedLaunch.getLaunchStats().getTotal(), is(2));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.PASSED), is(1));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.RUNNABLE), is(1));
+        assertThat(updatedLaunch.getStartTime() > 0, is(true));
+        assertThat(updatedLaunch.getFinishTime(), is(0L));
+    }
+
+    @Test
+    public void updateDeeplyNestedLaunchTestCaseStatus() throws Exception {
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.PASSED).
+                withDuration(5).
+                withAlias(testCase1.getAlias());
+
+        LaunchTestCase launchTestCase2 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withDuration(7).
+                withAlias(testCase2.getAlias());
+
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withTestCases(launchTestCase1).withChildren(
+                new LaunchTestCaseTree(),
+                new LaunchTestCaseTree().withChildren(
+                        new LaunchTestCaseTree().withChildren(
+                                new LaunchTestCaseTree(),
+                                new LaunchTestCaseTree().withTestCases(launchTestCase2)
+                        )
+                )
+        ));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+
+        String uuid = persistedLaunch.getTestCaseTree().getChildren().get(1).getChildren().get(0).getChildren().get(1).
+                getTestCases().get(0).getUuid();
+        launchService.updateLaunchTestCaseStatus(null, adminSession, project1.getId(),
+                persistedLaunch.getId(), uuid, LaunchStatus.FAILED, null);
+
+        Launch updatedLaunch = launchService.findOne(adminSession, project1.getId(), persistedLaunch.getId());
+        assertThat(updatedLaunch.getTestCaseTree().findTestCasesPath(uuid), is("children.1.children.0.children.1.testCases"));
+        assertThat(updatedLaunch.getTestCaseTree().findTestCase(uuid).getLaunchStatus(), is(LaunchStatus.FAILED));
+        assertThat(updatedLaunch.getTestCaseTree().getTestCases().get(0).getLaunchStatus(), is(LaunchStatus.PASSED));
+        assertThat(updatedLaunch.getFinishTime() > 0, is(true));
+        assertThat(updatedLaunch.getDuration(), is(12L));
+    }
+
+    @Test
+    public void updateLaunchTestCasesStatuses() throws Exception {
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase1.getAlias());
+
+        LaunchTestCase launchTestCase2 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase2.getAlias());
+
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withChildren(
+                new LaunchTestCaseTree().withTestCases(launchTestCase1),
+                new LaunchTestCaseTree().withTestCases(launchTestCase2)
+        ));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+
+        String uuid1 = persistedLaunch.getTestCaseTree().getChildren().get(0).getTestCases().get(0).getUuid();
+        String uuid2 = persistedLaunch.getTestCaseTree().getChildren().get(1).getTestCases().get(0).getUuid();
+        List<LaunchTestCaseStatusUpdateResult> results = launchService.updateLaunchTestCasesStatuses(null, adminSession,
+                project1.getId(), persistedLaunch.getId(), asList(
+                        new LaunchTestCaseStatusUpdate().withUuid(uuid1).withStatus(LaunchStatus.RUNNING),
+                        new LaunchTestCaseStatusUpdate().withUuid("missing").withStatus(LaunchStatus.PASSED),
+                        new LaunchTestCaseStatusUpdate().withUuid(uuid2).withStatus(LaunchStatus.FAILED),
+                        new LaunchTestCaseStatusUpdate().withUuid(uuid1).withStatus(LaunchStatus.PASSED)
+                ));
+        assertThat(results.size(), is(4));
+        assertThat(results.get(0).isUpdated(), is(true));
+        assertThat(results.get(1).isUpdated(), is(false));
+        assertNotNull(results.get(1).getError());
+        assertThat(results.get(2).isUpdated(), is(true));
+        assertThat(results.get(3).getLaunchTestCase().getLaunchStatus(), is(LaunchStatus.PASSED));
+
+        Launch updatedLaunch = launchService.findOne(adminSession, project1.getId(), persistedLaunch.getId());
+        assertThat(updatedLaunch.getTestCaseTree().getChildren().get(0).getTestCases().get(0).getLaunchStatus(),
+                is(LaunchStatus.PASSED));
+        assertThat(updatedLaunch.getTestCaseTree().getChildren().get(1).getTestCases().get(0).getLaunchStatus(),
+                is(LaunchStatus.FAILED));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.PASSED), is(1));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.FAILED), is(1));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.RUNNABLE), is(0));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.RUNNING), is(0));
+        assertThat(updatedLaunch.getFinishTime() > 0, is(true));
+    }
+
+    @Test
+    public void getLaunchesStatisticsCountsNestedTestCases() throws Exception {
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.FAILED).
+                withUsers("user1").
+                withAlias(testCase1.getAlias());
+
+        LaunchTestCase launchTestCase2 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.PASSED).
+                withUsers("user1").
+                withAlias(testCase2.getAlias());
+
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withChildren(
+                new LaunchTestCaseTree().withTestCases(launchTestCase1).withChildren(
+                        new LaunchTestCaseTree(),
+                        new LaunchTestCaseTree().withChildren(
+                                new LaunchTestCaseTree().withChildren(
+                                        new LaunchTestCaseTree().withTestCases(launchTestCase2)
+                                )
+                        )
+                )
+        ));
+        launchService.create(adminSession, project1.getId(), launch);
+
+        Map<String, LaunchStatistics> statistics = launchService.getLaunchesStatistics(adminSession, project1.getId(), new Filter());
+        LaunchStatistics launchStatistics = statistics.get("all");
+        assertNotNull(launchStatistics);
+        assertThat(launchStatistics.getLaunchCount(), is(1));
+        assertThat(launchStatistics.getLaunchStats().getTotal(), is(2));
+        assertThat(launchStatistics.getLaunchStats().getStatusCounters().get(LaunchStatus.FAILED), is(1));
+        assertThat(launchStatistics.getUsers().get("user1"), is(2));
+
+        Collection<LaunchTestcaseStats> heatMap = launchService.getTestCasesHeatMap(adminSession, project1.getId(), new Filter(), 0);
+        assertThat(heatMap.size(), is(2));
+        LaunchTestcaseStats mostFailed = heatMap.iterator().next();
+        assertThat(mostFailed.getId(), is(testCase1.getId()));
+        assertThat(mostFailed.getStatusCounters().get(LaunchStatus.FAILED), is(1));
+        assertThat(mostFailed.getTotal(), is(1));
+    }
+
+    @Test
+    public void statisticsViewFollowsLaunchChanges() throws Exception {
+        Filter notDeletedFilter = new Filter().withField("deleted", false);
+        assertThat(launchService.getLaunchesStatistics(adminSession, project1.getId(), notDeletedFilter).isEmpty(), is(true));
+
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase1.getAlias());
+        LaunchTestCase launchTestCase2 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase2.getAlias());
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withTestCases(launchTestCase1, launchTestCase2));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+
+        String uuid = persistedLaunch.getTestCaseTree().getTestCases().get(0).getUuid();
+        launchService.updateLaunchTestCaseStatus(null, adminSession, project1.getId(),
+                persistedLaunch.getId(), uuid, LaunchStatus.FAILED, null);
+
+        LaunchStatistics viewStatistics = launchService.getLaunchesStatistics(adminSession, project1.getId(), notDeletedFilter).get("all");
+        LaunchStatistics computedStatistics = launchService.getLaunchesStatistics(adminSession, project1.getId(), new Filter()).get("all");
+        assertThat(viewStatistics.getLaunchCount(), is(1));
+        assertThat(viewStatistics.getLaunchStats().getTotal(), is(computedStatistics.getLaunchStats().getTotal()));
+        assertThat(viewStatistics.getLaunchStats().getStatusCounters(), is(computedStatistics.getLaunchStats().getStatusCounters()));
+        assertThat(viewStatistics.getUsers(), is(computedStatistics.getUsers()));
+        assertThat(viewStatistics.getLaunchTimes().getFirstStart(), is(computedStatistics.getLaunchTimes().getFirstStart()));
+
+        Collection<LaunchTestcaseStats> heatMap = launchService.getTestCasesHeatMap(adminSession, project1.getId(), notDeletedFilter, 0);
+        assertThat(heatMap.iterator().next().getStatusCounters().get(LaunchStatus.FAILED), is(1));
+
+        launchService.delete(adminSession, project1.getId(), persistedLaunch.getId());
+        assertThat(launchService.getLaunchesStatistics(adminSession, project1.getId(), notDeletedFilter).isEmpty(), is(true));
+    }
+
+    @Test
+    public void statisticsViewFollowsFilteredDelete() throws Exception {
+        Filter notDeletedFilter = new Filter().withField("deleted", false);
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withChildren(
+                new LaunchTestCaseTree().withTestCases((LaunchTestCase) new LaunchTestCase().
+                        withLaunchStatus(LaunchStatus.FAILED).
+                        withUsers("user1").
+                        withAlias(testCase1.getAlias()))));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+        Launch secondLaunch = new Launch();
+        secondLaunch.setTestCaseTree(new LaunchTestCaseTree().withTestCases((LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.PASSED).
+                withUsers("user1").
+                withAlias(testCase1.getAlias())));
+        launchService.create(adminSession, project1.getId(), secondLaunch);
+
+        launchService.delete(adminSession, project1.getId(), new Filter().withField("id", persistedLaunch.getId()));
+        assertThat(launchService.findFiltered(adminSession, project1.getId(),
+                new Filter().withField("id", persistedLaunch.getId())).isEmpty(), is(true));
+
+        LaunchStatistics viewStatistics = launchService.getLaunchesStatistics(adminSession, project1.getId(), notDeletedFilter).get("all");
+        assertThat(viewStatistics.getLaunchCount(), is(1));
+        assertThat(viewStatistics.getLaunchStats().getTotal(), is(1));
+        assertThat(viewStatistics.getLaunchStats().getStatusCounters().get(LaunchStatus.FAILED), is(0));
+        assertThat(viewStatistics.getUsers().get("user1"), is(1));
+
+        Collection<LaunchTestcaseStats> heatMap = launchService.getTestCasesHeatMap(adminSession, project1.getId(), notDeletedFilter, 0);
+        assertThat(heatMap.iterator().next().getTotal(), is(1));
+        assertThat(heatMap.iterator().next().getStatusCounters().get(LaunchStatus.FAILED), is(0));
+    }
+
+    @Test
+    public void statisticsViewRebuildKeepsCounters() throws Exception {
+        Filter notDeletedFilter = new Filter().withField("deleted", false);
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase1.getAlias());
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withTestCases(launchTestCase1));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+        Launch secondLaunch = new Launch();
+        secondLaunch.setTestCaseTree(new LaunchTestCaseTree().withTestCases((LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase1.getAlias())));
+        launchService.create(adminSession, project1.getId(), secondLaunch);
+
+        String uuid = persistedLaunch.getTestCaseTree().getTestCases().get(0).getUuid();
+        launchService.updateLaunchTestCaseStatus(null, adminSession, project1.getId(),
+                persistedLaunch.getId(), uuid, LaunchStatus.PASSED, null);
+        LaunchStatistics incremental = launchService.getLaunchesStatistics(adminSession, project1.getId(), notDeletedFilter).get("all");
+
+        launchService.rebuildStatistics(adminSession, project1.getId());
+        LaunchStatistics rebuilt = launchService.getLaunchesStatistics(adminSession, project1.getId(), notDeletedFilter).get("all");
+        assertThat(rebuilt.getLaunchCount(), is(2));
+        assertThat(rebuilt.getLaunchStats().getStatusCounters(), is(incremental.getLaunchStats().getStatusCounters()));
+        assertThat(rebuilt.getLaunchStats().getStatusCounters().get(LaunchStatus.PASSED), is(1));
+        assertThat(rebuilt.getUsers(), is(incremental.getUsers()));
+
+        Collection<LaunchTestcaseStats> heatMap = launchService.getTestCasesHeatMap(adminSession, project1.getId(), notDeletedFilter, 0);
+        assertThat(heatMap.iterator().next().getTotal(), is(2));
+        assertThat(heatMap.iterator().next().getStatusCounters().get(LaunchStatus.PASSED), is(1));
+    }
+
+    @Test
+    public void updateLaunchAppliesStatsTransitions() throws Exception {
+        LaunchTestCase launchTestCase1 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase1.getAlias());
+        LaunchTestCase launchTestCase2 = (LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.RUNNABLE).
+                withAlias(testCase2.getAlias());
+        Launch launch = new Launch();
+        launch.setTestCaseTree(new LaunchTestCaseTree().withChildren(
+                new LaunchTestCaseTree().withChildren(new LaunchTestCaseTree().withTestCases(launchTestCase1)),
+                new LaunchTestCaseTree().withTestCases(launchTestCase2)
+        ));
+        Launch persistedLaunch = launchService.create(adminSession, project1.getId(), launch);
+        assertThat(persistedLaunch.getLaunchStats().getTotal(), is(2));
+        assertThat(persistedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.RUNNABLE), is(2));
+
+        Launch launchToUpdate = launchService.findOne(adminSession, project1.getId(), persistedLaunch.getId());
+        launchToUpdate.getTestCaseTree().getChildren().get(0).getChildren().get(0).getTestCases().get(0).
+                withDuration(5).setLaunchStatus(LaunchStatus.PASSED);
+        LaunchTestCaseTree secondChild = launchToUpdate.getTestCaseTree().getChildren().get(1);
+        secondChild.getTestCases().clear();
+        secondChild.getTestCases().add((LaunchTestCase) new LaunchTestCase().
+                withLaunchStatus(LaunchStatus.FAILED).
+                withDuration(7).
+                withUuid("added").
+                withId(testCase3.getId()));
+        launchService.save(adminSession, project1.getId(), launchToUpdate);
+
+        Launch updatedLaunch = launchService.findOne(adminSession, project1.getId(), persistedLaunch.getId());
+        assertThat(updatedLaunch.getLaunchStats().getTotal(), is(2));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.PASSED), is(1));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.FAILED), is(1));
+        assertThat(updatedLaunch.getLaunchStats().getStatusCounters().get(LaunchStatus.RUNNABLE), is(0));
+        assertThat(updatedLaunch.getFinishTime() > 0, is(true));
+        assertThat(updatedLaunch.getDuration(), is(12L));
+    }
 }
@@ -0,0 +1,60 @@
+package com.testquack.services;
+
+import com.testquack.beans.Capability;
+import com.testquack.beans.Role;
+import com.testquack.beans.RoleCapability;
+import com.testquack.beans.User;
+import com.testquack.dal.RoleCapabilityRepository;
+import com.testquack.dal.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PermissionCacheTest extends BaseTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleCapabilityRepository roleCapabilityRepository;
+
+    @Before
+    public void createUser() {
+        User user = new User();
+        user.setId("tester1");
+        user.setLogin("tester1");
+        user.setRole("tester");
+        userRepository.save(null, null, user);
+        roleCapabilityRepository.save(null, null, createRoleCapability(Capability.READ));
+    }
+
+    @Test
+    public void permissionsAreCachedUntilInvalidated() {
+        assertThat(permissionCache.getPermissions(null, project1.getId(), "tester1").canWrite(), is(false));
+
+        roleCapabilityRepository.save(null, null, createRoleCapability(Capability.READWRITE));
+        assertThat(permissionCache.getPermissions(null, project1.getId(), "tester1").canWrite(), is(false));
+
+        permissionCache.invalidate();
+        assertThat(permissionCache.getPermissions(null, project1.getId(), "tester1").canWrite(), is(true));
+    }
+
+    @Test
+    public void permissionsOfEachProjectAndUserAreCachedSeparately() {
+        assertThat(permissionCache.getPermissions(null, project1.getId(), "tester1").canRead(), is(true));
+
+        roleCapabilityRepository.save(null, null, createRoleCapability(Capability.READWRITE));
+        assertThat(permissionCache.getPermissions(null, project1.getId(), "tester1").canWrite(), is(false));
+        assertThat(permissionCache.getPermissions(null, project2.getId(), "tester1").canWrite(), is(true));
+    }
+
+    private RoleCapability createRoleCapability(Capability capability) {
+        RoleCapability roleCapability = new RoleCapability();
+        roleCapability.setRole(Role.TESTER);
+        roleCapability.setCapability(capability);
+        return roleCapability;
+    }
+}
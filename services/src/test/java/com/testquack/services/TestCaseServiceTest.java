@@ -4,7 +4,11 @@ import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.FileNotFoundException;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import com.testquack.beans.Filter;
+import com.testquack.beans.TestcaseFilter;
+import com.testquack.beans.TestCaseTree;
 import com.testquack.beans.Attachment;
 import com.testquack.services.errors.EntityAccessDeniedException;
 import com.testquack.services.errors.EntityNotFoundException;
@@ -15,6 +19,9 @@ import junit.framework.TestCase;
 import org.junit.Test;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertNull;
 import static org.hamcrest.Matchers.is;
@@ -195,5 +202,76 @@ public class TestCaseServiceTest extends BaseTest{
 
    }
 
+   @Test
+   public void exportToCSVIsOrderedById() throws IOException {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      testCaseService.exportToCSV(adminSession, project1.getId(), new TestcaseFilter(), output);
+
+      List<String> lines = Arrays.asList(new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+      assertThat(lines.size(), is(8));
+      assertThat(lines.get(0).startsWith("Id,Name,"), is(true));
+
+      List<String> ids = lines.stream().skip(1).map(line -> line.substring(0, line.indexOf(','))).collect(Collectors.toList());
+      List<String> sortedIds = new ArrayList<>(ids);
+      sortedIds.sort(String::compareTo);
+      assertThat(ids, is(sortedIds));
+   }
+
+   @Test
+   public void countsOnlyTreeMatchesFullTree() {
+      com.testquack.beans.TestCase apiTestCase = (com.testquack.beans.TestCase) new com.testquack.beans.TestCase().withName("api");
+      apiTestCase.getAttributes().put("component", new HashSet<>(Arrays.asList("api", "ui")));
+      apiTestCase.getAttributes().put("priority", new HashSet<>(Arrays.asList("high")));
+      testCaseService.create(adminSession, project2.getId(), apiTestCase);
+      com.testquack.beans.TestCase uiTestCase = (com.testquack.beans.TestCase) new com.testquack.beans.TestCase().withName("ui");
+      uiTestCase.getAttributes().put("component", new HashSet<>(Arrays.asList("ui")));
+      testCaseService.create(adminSession, project2.getId(), uiTestCase);
+
+      TestcaseFilter filter = new TestcaseFilter();
+      filter.getGroups().addAll(Arrays.asList("component", "priority"));
+      TestCaseTree fullTree = testCaseService.findFilteredTree(adminSession, project2.getId(), filter);
+      TestCaseTree countsTree = testCaseService.findFilteredTreeCounts(adminSession, project2.getId(), filter);
+      assertThat(countsTree.getCount(), is(5));
+      assertSameCounts(countsTree, fullTree);
+
+      List<com.testquack.beans.TestCase> uiNone = testCaseService.findTreeNodeTestCases(adminSession, project2.getId(),
+              new TestcaseFilter(), Arrays.asList("component:ui", "priority:None"));
+      assertThat(uiNone.size(), is(1));
+      assertThat(uiNone.get(0).getName(), is("ui"));
+
+      TestcaseFilter pageFilter = (TestcaseFilter) new TestcaseFilter().withLimit(2);
+      assertThat(testCaseService.findTreeNodeTestCases(adminSession, project2.getId(), pageFilter,
+              Arrays.asList("component:None", "priority:None")).size(), is(2));
+   }
+
+   @Test
+   public void importReservesConsecutiveIds() {
+      com.testquack.beans.TestCase first = (com.testquack.beans.TestCase) new com.testquack.beans.TestCase().withName("first");
+      com.testquack.beans.TestCase second = (com.testquack.beans.TestCase) new com.testquack.beans.TestCase().withAlias("imported").withName("second");
+      com.testquack.beans.TestCase third = (com.testquack.beans.TestCase) new com.testquack.beans.TestCase().withName("third");
+      testCaseService.importTestCases(adminSession, project2.getId(), Arrays.asList(first, second, third));
+
+      assertThat(Long.parseLong(second.getId()), is(Long.parseLong(first.getId()) + 1));
+      assertThat(Long.parseLong(third.getId()), is(Long.parseLong(first.getId()) + 2));
+      assertThat(testCaseService.findFiltered(adminSession, project2.getId(), new Filter()).size(), is(6));
+      assertThat(testCaseService.findOne(adminSession, project2.getId(), second.getId()).getAlias(), is("imported"));
+
+      com.testquack.beans.TestCase created = (com.testquack.beans.TestCase) new com.testquack.beans.TestCase().withName("created");
+      testCaseService.save(adminSession, project2.getId(), created);
+      assertThat(Long.parseLong(created.getId()), is(Long.parseLong(third.getId()) + 1));
+   }
+
+   private void assertSameCounts(TestCaseTree countsTree, TestCaseTree fullTree) {
+      assertThat(countsTree.getCount(), is(fullTree.getCount()));
+      assertThat(countsTree.getTestCases().isEmpty(), is(true));
+      assertThat(countsTree.getChildren().size(), is(fullTree.getChildren().size()));
+      for (TestCaseTree fullChild : fullTree.getChildren()) {
+         TestCaseTree countsChild = countsTree.getChildren().stream().
+                 filter(child -> child.getId().equals(fullChild.getId())).
+                 findFirst().orElseThrow(RuntimeException::new);
+         assertThat(countsChild.getTitle(), is(fullChild.getTitle()));
+         assertSameCounts(countsChild, fullChild);
+      }
+   }
 
 }
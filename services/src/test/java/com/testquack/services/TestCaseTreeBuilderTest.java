@@ -0,0 +1,78 @@
+package com.testquack.services;
+
+import com.testquack.beans.TestCase;
+import com.testquack.beans.TestCaseTree;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class TestCaseTreeBuilderTest {
+
+    private final List<String> groups = asList("component", "priority", "owner");
+
+    @Test
+    public void groupsTestCasesByAttributes() {
+        TestCase testCase1 = (TestCase) new TestCase().withId("1");
+        testCase1.getAttributes().put("component", new HashSet<>(asList("api", "ui")));
+        TestCase testCase2 = (TestCase) new TestCase().withId("2");
+        testCase2.getAttributes().put("component", new HashSet<>(asList("api")));
+
+        TestCaseTree tree = new TestCaseTreeBuilder(asList("component")).
+                build(new TestCaseTree().withTestCases(testCase1, testCase2, (TestCase) new TestCase().withId("3")));
+
+        assertThat(tree.getCount(), is(3));
+        assertThat(tree.getTestCases().isEmpty(), is(true));
+        assertThat(tree.getChildren().size(), is(3));
+        for (TestCaseTree child : tree.getChildren()) {
+            assertThat(child.getId(), is("component:" + child.getTitle()));
+            assertThat(child.getCount(), is(child.getTestCases().size()));
+        }
+        assertThat(findChild(tree, "api").getCount(), is(2));
+        assertThat(findChild(tree, "ui").getCount(), is(1));
+        assertThat(findChild(tree, TestCaseTreeBuilder.UNKNOWN_GROUP).getTestCases().get(0).getId(), is("3"));
+    }
+
+    @Test
+    public void parallelTreeIsSameAsSequential() {
+        TestCaseTree sequential = new TestCaseTreeBuilder(groups, Integer.MAX_VALUE).build(createHead(5000));
+        TestCaseTree parallel = new TestCaseTreeBuilder(groups, 10).build(createHead(5000));
+        assertSameTree(parallel, sequential);
+    }
+
+    private TestCaseTree createHead(int size) {
+        List<TestCase> testCases = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TestCase testCase = (TestCase) new TestCase().withId(Integer.toString(i));
+            testCase.getAttributes().put("component", new HashSet<>(asList("c" + i % 7, "c" + i % 11)));
+            if (i % 5 != 0) {
+                testCase.getAttributes().put("priority", new HashSet<>(asList("p" + i % 3)));
+            }
+            testCase.getAttributes().put("owner", new HashSet<>(asList("o" + i % 13)));
+            testCases.add(testCase);
+        }
+        return new TestCaseTree().withTestCases(testCases);
+    }
+
+    private TestCaseTree findChild(TestCaseTree tree, String title) {
+        return tree.getChildren().stream().
+                filter(child -> title.equals(child.getTitle())).
+                findFirst().orElseThrow(RuntimeException::new);
+    }
+
+    private void assertSameTree(TestCaseTree actual, TestCaseTree expected) {
+        assertThat(actual.getId(), is(expected.getId()));
+        assertThat(actual.getTitle(), is(expected.getTitle()));
+        assertThat(actual.getCount(), is(expected.getCount()));
+        assertThat(actual.getTestCases(), is(expected.getTestCases()));
+        assertThat(actual.getChildren().size(), is(expected.getChildren().size()));
+        for (int i = 0; i < expected.getChildren().size(); i++) {
+            assertSameTree(actual.getChildren().get(i), expected.getChildren().get(i));
+        }
+    }
+}
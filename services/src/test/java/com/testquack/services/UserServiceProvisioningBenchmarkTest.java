@@ -0,0 +1,66 @@
+package com.testquack.services;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.greatbit.whoru.auth.Person;
+import ru.greatbit.whoru.auth.Session;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares the cost of {@link UserService#provisionUser} called by the auth filter on every request
+ * for a session already provisioned and for a new session of an existing user
+ */
+public class UserServiceProvisioningBenchmarkTest extends BaseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceProvisioningBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 2000;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void provisionedSessionsSkipTheDatabase() {
+        Session provisioned = createSession();
+        assertThat(userService.provisionUser(provisioned), is(true));
+
+        long provisionedNanos = measure(() -> provisioned);
+        long unprovisionedNanos = measure(this::createSession);
+        logger.info("provisionUser, ns per call - provisioned session: {}, unprovisioned session: {}",
+                provisionedNanos, unprovisionedNanos);
+
+        assertThat(userService.provisionUser(provisioned), is(false));
+        assertThat(provisionedNanos, lessThan(unprovisionedNanos));
+    }
+
+    /**
+     * @return average time of a provisionUser call in nanoseconds
+     */
+    private long measure(Supplier<Session> sessions) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            userService.provisionUser(sessions.get());
+        }
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Session session = sessions.get();
+            long start = System.nanoTime();
+            userService.provisionUser(session);
+            total += System.nanoTime() - start;
+        }
+        return total / ITERATIONS;
+    }
+
+    private Session createSession() {
+        return (Session) new Session().withId(UUID.randomUUID().toString()).
+                withPerson(new Person().withId("benchmark").withLogin("benchmark"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.testquack.services;
+
+import com.testquack.dal.UserRepository;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.greatbit.whoru.auth.Person;
+import ru.greatbit.whoru.auth.Session;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class UserServiceTest extends BaseTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void userIsProvisionedOncePerSessionTest() {
+        Session session = (Session) new Session().withId(UUID.randomUUID().toString()).
+                withPerson(new Person().withId("newcomer").withLogin("newcomer"));
+
+        assertThat(userService.provisionUser(session), is(true));
+        assertThat(userRepository.exists(null, null, "newcomer"), is(true));
+
+        // Provisioned sessions must not touch the users collection any more
+        userRepository.delete(null, null, "newcomer");
+        assertThat(userService.provisionUser(session), is(false));
+        assertThat(userRepository.exists(null, null, "newcomer"), is(false));
+    }
+}
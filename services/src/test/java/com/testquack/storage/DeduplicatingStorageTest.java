@@ -0,0 +1,143 @@
+package com.testquack.storage;
+
+import com.testquack.beans.Attachment;
+import com.testquack.dal.StoredBlobRepository;
+import com.testquack.services.BaseTest;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+public class DeduplicatingStorageTest extends BaseTest {
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    private final InMemoryStorage delegate = new InMemoryStorage();
+    private final DeduplicatingStorage storage = new DeduplicatingStorage(delegate);
+
+    @Before
+    public void setUpStorage() {
+        ReflectionTestUtils.setField(storage, "repository", storedBlobRepository);
+    }
+
+    @Test
+    public void identicalUploadsAreStoredOnce() throws IOException {
+        Attachment first = upload("baseline.png", "baseline");
+        Attachment second = upload("baseline copy.png", "baseline");
+        Attachment other = upload("other.png", "other");
+
+        assertThat(second.getUrl(), is(first.getUrl()));
+        assertThat(second.getBlobId(), is(first.getBlobId()));
+        assertThat(delegate.contents.size(), is(2));
+        assertThat(storedBlobRepository.findById(first.getBlobId()).get().getReferences(), is(2L));
+
+        storage.remove(first);
+        assertThat(read(storage.get(second)), is("baseline"));
+        storage.remove(second);
+        assertThat(delegate.contents.containsKey(first.getUrl()), is(false));
+        assertThat(storedBlobRepository.findById(first.getBlobId()).isPresent(), is(false));
+        assertThat(read(storage.get(other)), is("other"));
+    }
+
+    @Test
+    public void copiesShareContent() throws IOException {
+        Attachment original = upload("log.txt", "log");
+        Attachment copy = storage.copy("org", "project", original);
+
+        assertThat(copy.getUrl(), is(original.getUrl()));
+        assertThat(delegate.contents.size(), is(1));
+
+        storage.remove(original);
+        assertThat(read(storage.get(copy)), is("log"));
+        storage.remove(copy);
+        assertThat(delegate.contents.isEmpty(), is(true));
+    }
+
+    @Test
+    public void attachmentsWithoutBlobAreRemovedByDelegate() throws IOException {
+        Attachment legacy = delegate.upload("org", "project",
+                new ByteArrayInputStream("legacy".getBytes(StandardCharsets.UTF_8)), "legacy.txt", 6);
+        assertNull(legacy.getBlobId());
+
+        storage.remove(legacy);
+        assertThat(delegate.contents.isEmpty(), is(true));
+    }
+
+    @Test
+    public void deduplicatingDelegateIsPassedThrough() throws IOException {
+        InMemoryStorage deduplicatingDelegate = new InMemoryStorage() {
+            @Override
+            public boolean isDeduplicating() {
+                return true;
+            }
+        };
+        DeduplicatingStorage storage = new DeduplicatingStorage(deduplicatingDelegate);
+        ReflectionTestUtils.setField(storage, "repository", storedBlobRepository);
+        long blobs = storedBlobRepository.count();
+
+        Attachment first = storage.upload("org", "project",
+                new ByteArrayInputStream("same".getBytes(StandardCharsets.UTF_8)), "first.txt", 4);
+        Attachment second = storage.upload("org", "project",
+                new ByteArrayInputStream("same".getBytes(StandardCharsets.UTF_8)), "second.txt", 4);
+
+        assertNull(first.getBlobId());
+        assertThat(deduplicatingDelegate.contents.size(), is(2));
+        assertThat(storedBlobRepository.count(), is(blobs));
+
+        storage.remove(first);
+        assertThat(deduplicatingDelegate.contents.containsKey(first.getUrl()), is(false));
+        assertThat(read(storage.get(second)), is("same"));
+    }
+
+    private Attachment upload(String fileName, String content) throws IOException {
+        return storage.upload("org", "project", new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                fileName, content.length());
+    }
+
+    private String read(InputStream content) throws IOException {
+        try (InputStream input = content) {
+            return IOUtils.toString(input, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class InMemoryStorage implements Storage {
+        private final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Attachment upload(String organizationId, String projectId, InputStream uploadedInputStream, String fileName, long size) throws IOException {
+            String url = "memory://" + sequence.incrementAndGet();
+            contents.put(url, IOUtils.toByteArray(uploadedInputStream));
+            return new Attachment().withUrl(url).withTitle(fileName).withDataSize(size);
+        }
+
+        @Override
+        public void remove(Attachment attachment) {
+            contents.remove(attachment.getUrl());
+        }
+
+        @Override
+        public InputStream get(Attachment attachment) {
+            return new ByteArrayInputStream(contents.get(attachment.getUrl()));
+        }
+
+        @Override
+        public ContentInfo getContentInfo(Attachment attachment) {
+            return new ContentInfo(contents.get(attachment.getUrl()).length, null, null);
+        }
+    }
+}
@@ -4,7 +4,8 @@ import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
 import com.testquack.beans.Launch;
 import com.testquack.beans.LaunchTestCase;
 import com.testquack.beans.LaunchTestCaseTree;
-import com.testquack.client.HttpClientBuilder;
+import com.testquack.client.ClientRequestContext;
+import com.testquack.client.HttpClientRegistry;
 import com.testquack.launcher.error.LauncherException;
 import org.apache.camel.CamelContext;
 import org.apache.camel.builder.RouteBuilder;
@@ -55,9 +56,12 @@ public class SmithLauncher extends BaseLauncher<SmithConfig> {
     @Override
     public Launch launch(Launch launch, String projectId, HttpServletRequest request) throws Exception {
         SmithConfig config = getPluginConfig(new SmithConfig(), launch.getLauncherConfig());
-        Response<Executables> response = getClient(config, request).
-                createLaunch(convertLaunch(launch, projectId)).
-                execute();
+        Response<Executables> response;
+        try (ClientRequestContext.Scope scope = ClientRequestContext.open(request)) {
+            response = getClient(config).
+                    createLaunch(convertLaunch(launch, projectId)).
+                    execute();
+        }
         if (response.code() != 200) {
             throw new LauncherException(format("Unable to launch Smith, got response code %s", response.code()));
         }
@@ -75,9 +79,8 @@ public class SmithLauncher extends BaseLauncher<SmithConfig> {
         return executables;
     }
 
-    private SmithClient getClient(SmithConfig config, HttpServletRequest request) {
-        return HttpClientBuilder.builder(config.getApiEndpoint(), config.getTimeout(), request).build().
-                create(SmithClient.class);
+    private SmithClient getClient(SmithConfig config) {
+        return HttpClientRegistry.getClient(config.getApiEndpoint(), config.getTimeout(), SmithClient.class);
     }
 
     private void fillTestcasesFromTree(LaunchTestCaseTree tree, Executables  executables){
@@ -0,0 +1,34 @@
+package com.testquack.storage;
+
+import java.util.Date;
+
+/**
+ * Metadata of stored attachment content used to answer conditional and range requests.
+ * The entity tag and the modification date are null when the storage doesn't track them.
+ */
+public class ContentInfo {
+    private final long size;
+    private final String eTag;
+    private final Date lastModified;
+
+    public ContentInfo(long size, String eTag, Date lastModified) {
+        this.size = size;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return content size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+}
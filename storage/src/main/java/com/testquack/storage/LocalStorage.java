@@ -1,26 +1,101 @@
 package com.testquack.storage;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.springframework.beans.factory.annotation.Value;
 import com.testquack.beans.Attachment;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Stores content under the SHA-256 of its bytes as base_path/ab/cd/<sha256>.<uuid>.
+ * Uploads of the same content are hard links to the same data, so it is stored once
+ * and freed by the file system when the last attachment referencing it is removed.
+ * Files uploaded before keep their random directory layout and are served the same way.
+ */
 public class LocalStorage implements Storage {
 
+    private static final String TEMP_FOLDER = "tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern CONTENT_FILE_NAME = Pattern.compile("([0-9a-f]{64})\\..+");
+
     @Value("${storage.base_path}")
     private String STORAGE_BASE_PATH;
 
     @Override
     public Attachment upload(String organizationId, String projectId, InputStream uploadedInputStream, String fileName, long size) throws IOException {
-        File file = new File(STORAGE_BASE_PATH + File.separator + UUID.randomUUID().toString(), fileName);
-        file.getParentFile().mkdirs();
-        OutputStream os = new FileOutputStream(file);
-        long len = IOUtils.copy(uploadedInputStream, os);
-        IOUtils.closeQuietly(os);
-        return new Attachment().withUrl(file.getAbsolutePath()).withDataSize(len);
+        Path tempFolder = Files.createDirectories(Paths.get(STORAGE_BASE_PATH, TEMP_FOLDER));
+        Path tempFile = Files.createTempFile(tempFolder, "upload", null);
+        try {
+            MessageDigest digest = createDigest();
+            long len = write(uploadedInputStream, tempFile, digest);
+            Path file = store(tempFile, toHex(digest.digest()));
+            return new Attachment().withUrl(file.toAbsolutePath().toString()).withTitle(fileName).withDataSize(len);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private long write(InputStream uploadedInputStream, Path file, MessageDigest digest) throws IOException {
+        long len = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (ReadableByteChannel source = Channels.newChannel(uploadedInputStream);
+             FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                while (buffer.hasRemaining()) {
+                    len += target.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return len;
+    }
+
+    private Path store(Path tempFile, String hash) throws IOException {
+        Path shard = Files.createDirectories(Paths.get(STORAGE_BASE_PATH, hash.substring(0, 2), hash.substring(2, 4)));
+        Path file = shard.resolve(hash + "." + UUID.randomUUID().toString());
+        Path sameContentFile = findContentFile(shard, hash);
+        if (sameContentFile != null) {
+            try {
+                return Files.createLink(file, sameContentFile);
+            } catch (FileSystemException | UnsupportedOperationException e) {
+                // The same content was removed meanwhile or the file system has no hard links, keep a copy
+            }
+        }
+        return Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path findContentFile(Path shard, String hash) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, hash + ".*")) {
+            Iterator<Path> iterator = files.iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    @Override
+    public boolean isDeduplicating() {
+        return true;
     }
 
     @Override
@@ -34,4 +109,62 @@ public class LocalStorage implements Storage {
         return new FileInputStream(attachment.getUrl());
     }
 
+    @Override
+    public InputStream get(Attachment attachment, long offset, long length) throws IOException {
+        FileInputStream content = new FileInputStream(attachment.getUrl());
+        content.getChannel().position(offset);
+        return new BoundedInputStream(content, length);
+    }
+
+    /**
+     * Sends the content through the file channel instead of a heap buffered stream,
+     * the kernel copies it directly when the output is a channel.
+     */
+    @Override
+    public void transferTo(Attachment attachment, long offset, long length, OutputStream output) throws IOException {
+        try (FileChannel content = FileChannel.open(Paths.get(attachment.getUrl()), StandardOpenOption.READ)) {
+            WritableByteChannel target = output instanceof WritableByteChannel ?
+                    (WritableByteChannel) output :
+                    Channels.newChannel(output);
+            long end = length >= content.size() - offset ? content.size() : offset + length;
+            long position = offset;
+            while (position < end) {
+                long transferred = content.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    @Override
+    public ContentInfo getContentInfo(Attachment attachment) throws IOException {
+        File file = new File(attachment.getUrl());
+        if (!file.isFile()) {
+            throw new FileNotFoundException(attachment.getUrl());
+        }
+        // Content files are named by their hash, the others are tagged by modification time and size
+        Matcher contentFileName = CONTENT_FILE_NAME.matcher(file.getName());
+        String eTag = contentFileName.matches() ?
+                contentFileName.group(1) :
+                Long.toHexString(file.lastModified()) + "-" + Long.toHexString(file.length());
+        return new ContentInfo(file.length(), eTag, new Date(file.lastModified()));
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
 }
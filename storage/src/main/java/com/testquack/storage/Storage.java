@@ -1,12 +1,58 @@
 package com.testquack.storage;
 
 import com.testquack.beans.Attachment;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 public interface Storage {
     public Attachment upload(String organizationId, String projectId, InputStream uploadedInputStream, String fileName, long size) throws IOException;
     public void remove(Attachment attachment) throws IOException;
     public InputStream get(Attachment attachment) throws IOException;
+    public ContentInfo getContentInfo(Attachment attachment) throws IOException;
+
+    /**
+     * Whether identical uploads are stored once by the storage itself and each attachment can be removed on its own
+     */
+    public default boolean isDeduplicating() {
+        return false;
+    }
+
+    /**
+     * Returns up to length bytes of the attachment content starting from offset.
+     * Storages able to seek should override it, the default implementation skips the leading bytes.
+     */
+    public default InputStream get(Attachment attachment, long offset, long length) throws IOException {
+        InputStream content = get(attachment);
+        try {
+            IOUtils.skipFully(content, offset);
+        } catch (IOException e) {
+            content.close();
+            throw e;
+        }
+        return new BoundedInputStream(content, length);
+    }
+
+    /**
+     * Stores the attachment content for another entity, the copy is removed independently of the original.
+     * The default implementation uploads the content again.
+     */
+    public default Attachment copy(String organizationId, String projectId, Attachment attachment) throws IOException {
+        try (InputStream content = get(attachment)) {
+            return upload(organizationId, projectId, content, attachment.getTitle(), attachment.getDataSize());
+        }
+    }
+
+    /**
+     * Writes up to length bytes of the attachment content starting from offset to the output.
+     * Storages able to send content without copying it through the heap should override it.
+     */
+    public default void transferTo(Attachment attachment, long offset, long length, OutputStream output) throws IOException {
+        try (InputStream content = get(attachment, offset, length)) {
+            IOUtils.copyLarge(content, output);
+        }
+    }
 }
@@ -21,4 +21,9 @@ public class StubStorage implements Storage {
     public InputStream get(Attachment attachment) throws IOException {
         return ClassLoader.getSystemResourceAsStream("/stubfile.txt");
     }
+
+    @Override
+    public ContentInfo getContentInfo(Attachment attachment) throws IOException {
+        return new ContentInfo(0, null, null);
+    }
 }
@@ -0,0 +1,80 @@
+package com.testquack.storage;
+
+import com.testquack.beans.Attachment;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertThat;
+
+public class LocalStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final LocalStorage storage = new LocalStorage();
+
+    @Before
+    public void setUp() throws Exception {
+        Field basePath = LocalStorage.class.getDeclaredField("STORAGE_BASE_PATH");
+        basePath.setAccessible(true);
+        basePath.set(storage, folder.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public void sameContentIsStoredOnce() throws IOException {
+        Attachment first = upload("screenshot.png", "same content");
+        Attachment second = upload("copy.png", "same content");
+
+        assertThat(first.getUrl(), not(second.getUrl()));
+        assertThat(first.getTitle(), is("screenshot.png"));
+        assertThat(first.getDataSize(), is(12L));
+        assertThat(Files.isSameFile(Paths.get(first.getUrl()), Paths.get(second.getUrl())), is(true));
+        assertThat(storage.getContentInfo(first).getETag(), is(storage.getContentInfo(second).getETag()));
+        assertThat(new File(first.getUrl()).getParentFile().getParentFile().getParentFile(), is(folder.getRoot()));
+
+        storage.remove(first);
+        assertThat(read(storage.get(second)), is("same content"));
+    }
+
+    @Test
+    public void transfersRequestedRange() throws IOException {
+        Attachment attachment = upload("log.txt", "0123456789");
+
+        assertThat(transfer(attachment, 0, Long.MAX_VALUE), is("0123456789"));
+        assertThat(transfer(attachment, 2, 3), is("234"));
+        assertThat(transfer(attachment, 8, 10), is("89"));
+        assertThat(read(storage.get(attachment, 5, 2)), is("56"));
+    }
+
+    private Attachment upload(String fileName, String content) throws IOException {
+        return storage.upload(null, "project", new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                fileName, content.length());
+    }
+
+    private String transfer(Attachment attachment, long offset, long length) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        storage.transferTo(attachment, offset, length, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String read(InputStream content) throws IOException {
+        try (InputStream input = content) {
+            return IOUtils.toString(input, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.testquack.tracker;
+
+import com.testquack.beans.Issue;
+import com.testquack.beans.IssuePriority;
+import com.testquack.beans.IssueType;
+import com.testquack.beans.TrackerProject;
+import ru.greatbit.whoru.auth.Session;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracker decorator caching rarely changed lookups: issues, projects, issue types and priorities.
+ * Every lookup has its own TTL and a bounded number of least recently used entries.
+ * Concurrent identical lookups wait for a single call to the delegate, a caller waiting longer than
+ * the wait timeout calls the delegate itself.
+ * Entries are kept per user, as trackers may expose different data to different users.
+ * Cached values are shared between callers and must not be modified.
+ */
+public class CachingTracker implements Tracker {
+
+    private final Tracker delegate;
+
+    private final ExpiringCache<Issue> issues;
+    private final ExpiringCache<List<TrackerProject>> suggestedProjects;
+    private final ExpiringCache<List<TrackerProject>> projects;
+    private final ExpiringCache<List<IssueType>> issueTypes;
+    private final ExpiringCache<List<IssuePriority>> issuePriorities;
+
+    public CachingTracker(Tracker delegate, long issueTtlSec, long projectsTtlSec, long fieldsTtlSec, int maxSize,
+                          long waitTimeoutSec) {
+        this.delegate = delegate;
+        issues = new ExpiringCache<>(issueTtlSec, maxSize, waitTimeoutSec);
+        suggestedProjects = new ExpiringCache<>(projectsTtlSec, maxSize, waitTimeoutSec);
+        projects = new ExpiringCache<>(projectsTtlSec, maxSize, waitTimeoutSec);
+        issueTypes = new ExpiringCache<>(fieldsTtlSec, maxSize, waitTimeoutSec);
+        issuePriorities = new ExpiringCache<>(fieldsTtlSec, maxSize, waitTimeoutSec);
+    }
+
+    @Override
+    public Issue getIssue(HttpServletRequest request, Session userSession, String issueId) throws Exception {
+        return issues.get(getKey(userSession, issueId), () -> delegate.getIssue(request, userSession, issueId));
+    }
+
+    @Override
+    public Issue createIssue(HttpServletRequest request, Session userSession, Issue issue) throws Exception {
+        return delegate.createIssue(request, userSession, issue);
+    }
+
+    @Override
+    public Issue linkIssue(HttpServletRequest request, Session userSession, String issueId) throws Exception {
+        return delegate.linkIssue(request, userSession, issueId);
+    }
+
+    @Override
+    public Issue updateIssue(HttpServletRequest request, Session userSession, Issue issue) throws Exception {
+        issues.evictAll();
+        try {
+            return delegate.updateIssue(request, userSession, issue);
+        } finally {
+            // Lookups made while the delegate was changing the issue could have cached its previous state
+            issues.evictAll();
+        }
+    }
+
+    @Override
+    public void deleteIssue(HttpServletRequest request, Session userSession, String issueId) throws Exception {
+        issues.evictAll();
+        try {
+            delegate.deleteIssue(request, userSession, issueId);
+        } finally {
+            // Lookups made while the delegate was changing the issue could have cached its previous state
+            issues.evictAll();
+        }
+    }
+
+    @Override
+    public List<Issue> suggestIssue(HttpServletRequest request, Session userSession, String issueProject, String text) throws Exception {
+        return delegate.suggestIssue(request, userSession, issueProject, text);
+    }
+
+    @Override
+    public List<TrackerProject> suggestProjects(HttpServletRequest request, Session userSession, String project, String text) throws Exception {
+        return suggestedProjects.get(getKey(userSession, project, text),
+                () -> delegate.suggestProjects(request, userSession, project, text));
+    }
+
+    @Override
+    public List<TrackerProject> getAllProjects(HttpServletRequest request, Session userSession, String project) throws Exception {
+        return projects.get(getKey(userSession, project),
+                () -> delegate.getAllProjects(request, userSession, project));
+    }
+
+    @Override
+    public List<IssueType> getIssueTypes(HttpServletRequest request, Session userSession, String issueProject) throws Exception {
+        return issueTypes.get(getKey(userSession, issueProject),
+                () -> delegate.getIssueTypes(request, userSession, issueProject));
+    }
+
+    @Override
+    public List<IssuePriority> getIssuePriorities(HttpServletRequest request, Session userSession, String issueProject) throws Exception {
+        return issuePriorities.get(getKey(userSession, issueProject),
+                () -> delegate.getIssuePriorities(request, userSession, issueProject));
+    }
+
+    private static List<Object> getKey(Session userSession, Object... args) {
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(userSession == null || userSession.getPerson() == null ? null : userSession.getPerson().getLogin());
+        key.addAll(Arrays.asList(args));
+        return key;
+    }
+
+    interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    static class ExpiringCache<V> {
+        private final long ttlMs;
+        private final long waitTimeoutMs;
+        private final Map<Object, CachedValue<V>> values;
+        private final Map<Object, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+
+        ExpiringCache(long ttlSec, int maxSize, long waitTimeoutSec) {
+            this.ttlMs = TimeUnit.SECONDS.toMillis(ttlSec);
+            this.waitTimeoutMs = TimeUnit.SECONDS.toMillis(waitTimeoutSec);
+            this.values = new LinkedHashMap<Object, CachedValue<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, CachedValue<V>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        V get(Object key, Loader<V> loader) throws Exception {
+            synchronized (values) {
+                CachedValue<V> cached = values.get(key);
+                if (cached != null) {
+                    if (cached.expiresAt > System.currentTimeMillis()) {
+                        return cached.value;
+                    }
+                    values.remove(key);
+                }
+            }
+
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> runningCall = inFlight.putIfAbsent(key, call);
+            if (runningCall != null) {
+                return await(runningCall, loader);
+            }
+            try {
+                long loadGeneration = generation.get();
+                V value = loader.load();
+                // Failed and empty lookups are not cached, the next lookup retries them.
+                // Values loaded before an eviction may be stale, they are not cached either.
+                if (!isEmpty(value) && ttlMs > 0) {
+                    synchronized (values) {
+                        if (loadGeneration == generation.get()) {
+                            values.put(key, new CachedValue<>(value, System.currentTimeMillis() + ttlMs));
+                        }
+                    }
+                }
+                call.complete(value);
+                return value;
+            } catch (Throwable e) {
+                // Waiting callers are released whatever the delegate has thrown
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        void evictAll() {
+            synchronized (values) {
+                generation.incrementAndGet();
+                values.clear();
+            }
+        }
+
+        private V await(CompletableFuture<V> call, Loader<V> loader) throws Exception {
+            try {
+                return call.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return loader.load();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private static boolean isEmpty(Object value) {
+            return value == null || value instanceof Collection && ((Collection<?>) value).isEmpty();
+        }
+    }
+
+    private static class CachedValue<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private CachedValue(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.testquack.tracker;
+
+import com.testquack.beans.Issue;
+import com.testquack.beans.IssueType;
+import com.testquack.beans.TrackerProject;
+import org.junit.Test;
+import ru.greatbit.whoru.auth.Person;
+import ru.greatbit.whoru.auth.Session;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CachingTrackerTest {
+
+    private final CountingTracker delegate = new CountingTracker();
+    private final Tracker tracker = new CachingTracker(delegate, 60, 60, 60, 2, 5);
+
+    private final Session user1 = (Session) new Session().withPerson(new Person().withLogin("user1"));
+    private final Session user2 = (Session) new Session().withPerson(new Person().withLogin("user2"));
+
+    @Test
+    public void lookupsAreCachedPerUserTest() throws Exception {
+        List<IssueType> types = tracker.getIssueTypes(null, user1, "PRJ");
+        assertThat(tracker.getIssueTypes(null, user1, "PRJ"), sameInstance(types));
+        assertThat(delegate.calls.get(), is(1));
+
+        tracker.getIssueTypes(null, user2, "PRJ");
+        tracker.getIssueTypes(null, user1, "OTHER");
+        assertThat(delegate.calls.get(), is(3));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvictedTest() throws Exception {
+        tracker.getAllProjects(null, user1, "A");
+        tracker.getAllProjects(null, user1, "B");
+        tracker.getAllProjects(null, user1, "A");
+        tracker.getAllProjects(null, user1, "C");
+        assertThat(delegate.calls.get(), is(3));
+
+        tracker.getAllProjects(null, user1, "A");
+        assertThat(delegate.calls.get(), is(3));
+        tracker.getAllProjects(null, user1, "B");
+        assertThat(delegate.calls.get(), is(4));
+    }
+
+    @Test
+    public void expiredEntriesAreReloadedTest() throws Exception {
+        Tracker notCachingTracker = new CachingTracker(delegate, 0, 0, 0, 10, 5);
+        notCachingTracker.getIssue(null, user1, "ISSUE-1");
+        notCachingTracker.getIssue(null, user1, "ISSUE-1");
+        assertThat(delegate.calls.get(), is(2));
+    }
+
+    @Test
+    public void failedLookupsAreNotCachedTest() throws Exception {
+        delegate.failuresLeft.set(1);
+        try {
+            tracker.getIssue(null, user1, "ISSUE-1");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertThat(tracker.getIssue(null, user1, "ISSUE-1").getId(), is("ISSUE-1"));
+        assertThat(delegate.calls.get(), is(2));
+    }
+
+    @Test
+    public void emptyLookupsAreNotCachedTest() throws Exception {
+        delegate.emptyProjects = true;
+        assertThat(tracker.getAllProjects(null, user1, "A").isEmpty(), is(true));
+        delegate.emptyProjects = false;
+        assertThat(tracker.getAllProjects(null, user1, "A").isEmpty(), is(false));
+        assertThat(delegate.calls.get(), is(2));
+    }
+
+    @Test
+    public void concurrentLookupsAreCoalescedTest() throws Exception {
+        delegate.latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Issue> first = executor.submit(() -> tracker.getIssue(null, user1, "ISSUE-1"));
+            // The remote call is in flight once the delegate is entered
+            assertThat(delegate.entered.await(5, TimeUnit.SECONDS), is(true));
+            Future<Issue> second = executor.submit(() -> tracker.getIssue(null, user1, "ISSUE-1"));
+            Future<Issue> third = executor.submit(() -> tracker.getIssue(null, user1, "ISSUE-1"));
+            delegate.latch.countDown();
+
+            Issue issue = first.get(5, TimeUnit.SECONDS);
+            assertThat(second.get(5, TimeUnit.SECONDS), sameInstance(issue));
+            assertThat(third.get(5, TimeUnit.SECONDS), sameInstance(issue));
+            assertThat(delegate.calls.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lookupsDuringIssueUpdateAreEvictedTest() throws Exception {
+        // A lookup racing with the update caches the issue before the tracker has changed it
+        delegate.duringUpdate = () -> tracker.getIssue(null, user1, "ISSUE-1");
+        tracker.updateIssue(null, user1, new Issue().withId("ISSUE-1"));
+        assertThat(delegate.calls.get(), is(1));
+
+        tracker.getIssue(null, user1, "ISSUE-1");
+        assertThat(delegate.calls.get(), is(2));
+
+        tracker.deleteIssue(null, user1, "ISSUE-1");
+        assertThat(delegate.calls.get(), is(3));
+        tracker.getIssue(null, user1, "ISSUE-1");
+        assertThat(delegate.calls.get(), is(4));
+    }
+
+    @Test
+    public void valuesLoadedBeforeEvictionAreNotCachedTest() throws Exception {
+        CachingTracker.ExpiringCache<String> cache = new CachingTracker.ExpiringCache<>(60, 10, 5);
+        assertThat(cache.get("key", () -> {
+            cache.evictAll();
+            return "stale";
+        }), is("stale"));
+        assertThat(cache.get("key", () -> "fresh"), is("fresh"));
+    }
+
+    @Test
+    public void callerStopsWaitingAfterTimeoutTest() throws Exception {
+        CachingTracker.ExpiringCache<String> cache = new CachingTracker.ExpiringCache<>(60, 10, 0);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> cache.get("key", () -> {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "slow";
+            }));
+            assertThat(entered.await(5, TimeUnit.SECONDS), is(true));
+
+            assertThat(cache.get("key", () -> "own"), is("own"));
+            release.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS), is("slow"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class CountingTracker extends DemoTracker {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch latch;
+        private volatile boolean emptyProjects;
+        private volatile CachingTracker.Loader<Issue> duringUpdate;
+
+        @Override
+        public Issue getIssue(HttpServletRequest request, Session userSession, String issueId) {
+            calls.incrementAndGet();
+            entered.countDown();
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Tracker is not available");
+            }
+            return new Issue().withId(issueId);
+        }
+
+        @Override
+        public Issue updateIssue(HttpServletRequest request, Session userSession, Issue issue) {
+            runDuringUpdate();
+            return issue;
+        }
+
+        @Override
+        public void deleteIssue(HttpServletRequest request, Session userSession, String issueId) {
+            runDuringUpdate();
+        }
+
+        private void runDuringUpdate() {
+            if (duringUpdate != null) {
+                try {
+                    duringUpdate.load();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        @Override
+        public List<TrackerProject> getAllProjects(HttpServletRequest request, Session userSession, String project) throws Exception {
+            calls.incrementAndGet();
+            return emptyProjects ? emptyList() : super.getAllProjects(request, userSession, project);
+        }
+
+        @Override
+        public List<IssueType> getIssueTypes(HttpServletRequest request, Session userSession, String issueProject) throws Exception {
+            calls.incrementAndGet();
+            return super.getIssueTypes(request, userSession, issueProject);
+        }
+    }
+}